@@ -0,0 +1,92 @@
+package com.monk.coupons.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.monk.coupons.config.EvaluationJsonModule;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.CartItem;
+import com.monk.coupons.model.CartRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON versus Smile and CBOR for the evaluation bodies: parsing a request cart and
+ * writing an apply-coupon response, for a typical and a large cart. Payload sizes are
+ * printed once per trial.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=CartCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartCodecBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"8", "500"})
+    private int items;
+
+    private ObjectMapper mapper;
+    private byte[] request;
+    private ApplyCouponResponse response;
+
+    @Setup
+    public void setup() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        mapper = new ObjectMapper(factory).registerModule(new EvaluationJsonModule(items));
+
+        List<CartItem> lines = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            CartItem item = new CartItem();
+            item.setProductId(100_000 + i * 7);
+            item.setQuantity(1 + i % 5);
+            item.setPrice(4.99 + (i % 40) * 2.5);
+            lines.add(item);
+        }
+        Cart cart = new Cart();
+        cart.setItems(lines);
+        CartRequest body = new CartRequest();
+        body.setCart(cart);
+        body.setCustomerId("customer-0042");
+
+        request = mapper.writeValueAsBytes(body);
+        response = new ApplyCouponResponse(new ApplyCouponResponse.UpdatedCart(lines, 1234.5, 123.45, 1111.05));
+
+        System.out.printf("%n%s, %d items: request %d bytes, response %d bytes%n",
+                format, items, request.length, mapper.writeValueAsBytes(response).length);
+    }
+
+    @Benchmark
+    public CartRequest parseRequest() throws Exception {
+        return mapper.readValue(request, CartRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws Exception {
+        return mapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,74 @@
+package com.monk.coupons.benchmark;
+
+import com.monk.coupons.engine.BxGyRule;
+import com.monk.coupons.engine.CartWiseRule;
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.engine.CouponEngine;
+import com.monk.coupons.engine.Discount;
+import com.monk.coupons.engine.ProductWiseRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process evaluation with the embeddable engine, as a checkout service embedding
+ * {@code coupons-engine} would run it: a few site-wide cart-wise promotions, and every
+ * other coupon triggered by one of many products, so a cart triggers only a handful.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -pl coupons-api -am test-compile exec:exec -Djmh.args=EngineEvaluationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineEvaluationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int coupons;
+
+    @Param({"8", "50"})
+    private int items;
+
+    private CouponEngine engine;
+    private CompactCart cart;
+
+    @Setup
+    public void setup() {
+        engine = new CouponEngine();
+        for (int id = 1; id <= coupons; id++) {
+            int product = 100_000 + (id % 5_000) * 7;
+            if (id <= 5) {
+                engine.put(id, "cart-wise", new CartWiseRule(50 * id, 5));
+            } else if (id % 5 == 0) {
+                engine.put(id, "bxgy", new BxGyRule(product, 2, product + 7, 1, 2));
+            } else {
+                engine.put(id, "product-wise", new ProductWiseRule(product, 10));
+            }
+        }
+
+        CompactCart.Builder lines = new CompactCart.Builder(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(100_000 + i * 7, 1 + i % 5, 4.99 + (i % 40) * 2.5);
+        }
+        cart = lines.build();
+        engine.evaluate(cart);
+    }
+
+    @Benchmark
+    public List<Discount> evaluate() {
+        return engine.evaluate(cart);
+    }
+}
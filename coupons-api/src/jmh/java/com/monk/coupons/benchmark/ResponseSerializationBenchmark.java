@@ -0,0 +1,91 @@
+package com.monk.coupons.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.monk.coupons.config.ApplicableCouponSerializer;
+import com.monk.coupons.config.EvaluationJsonModule;
+import com.monk.coupons.model.ApplicableCoupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.CartItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean serialization versus {@link EvaluationJsonModule} for the evaluation responses,
+ * writing UTF-8 bytes as the HTTP message converter does.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"5", "50"})
+    private int coupons;
+
+    private ObjectMapper reflective;
+    private ObjectMapper precomputed;
+    private ApplicableCouponsResponse applicable;
+    private ApplyCouponResponse applied;
+
+    @Setup
+    public void setup() {
+        reflective = new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        precomputed = new ObjectMapper().registerModule(new EvaluationJsonModule(500));
+
+        String[] types = {"cart-wise", "product-wise", "bxgy"};
+        List<ApplicableCoupon> list = new ArrayList<>();
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < coupons; i++) {
+            long id = 1000L + i;
+            String type = types[i % types.length];
+            list.add(new ApplicableCoupon(id, type, 12.5 + i, ApplicableCouponSerializer.prefix(id, type)));
+
+            CartItem item = new CartItem();
+            item.setProductId(i);
+            item.setQuantity(1 + i % 4);
+            item.setPrice(19.99 + i);
+            items.add(item);
+        }
+        applicable = new ApplicableCouponsResponse(list, false);
+        applied = new ApplyCouponResponse(new ApplyCouponResponse.UpdatedCart(items, 1000.0, 100.0, 900.0));
+    }
+
+    @Benchmark
+    public byte[] applicableReflective() throws Exception {
+        return reflective.writeValueAsBytes(applicable);
+    }
+
+    @Benchmark
+    public byte[] applicablePrecomputed() throws Exception {
+        return precomputed.writeValueAsBytes(applicable);
+    }
+
+    @Benchmark
+    public byte[] applyReflective() throws Exception {
+        return reflective.writeValueAsBytes(applied);
+    }
+
+    @Benchmark
+    public byte[] applyPrecomputed() throws Exception {
+        return precomputed.writeValueAsBytes(applied);
+    }
+}
@@ -0,0 +1,170 @@
+package com.monk.coupons.benchmark;
+
+import com.monk.coupons.MonkCouponsApiApplication;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test comparing platform and virtual request threads under blocking I/O.
+ * <p>
+ * Boots the application once per thread model and offers more concurrent
+ * {@code /applicable-coupons} requests than Tomcat has platform threads. Each request is
+ * held for a fixed time before it is evaluated, standing in for a blocking database or
+ * downstream round trip. While the load is at its peak, the test records how many
+ * requests are inside the server, and how much live heap and how many platform threads
+ * each of them costs. The limiter and bulkheads are opened up so only the thread model
+ * limits concurrency.
+ * <p>
+ * Virtual threads need a Java 21 runtime, so run it with Maven on a JDK 21:
+ * <pre>
+ * JAVA_HOME=/path/to/jdk-21 mvn -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.monk.coupons.benchmark.ThreadModelLoadTest -Djmh.args="2000 2000"
+ * </pre>
+ * The arguments are the number of concurrent requests and the blocking time in
+ * milliseconds. The client runs in the same JVM; its share of the heap is the same in
+ * both runs.
+ */
+public class ThreadModelLoadTest {
+
+    private static final String CART = """
+            {"cart":{"items":[
+              {"product_id":1,"quantity":2,"price":60.0},
+              {"product_id":2,"quantity":1,"price":40.0}]}}""";
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long blockingMillis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+        System.out.printf("Java %s, %d concurrent requests, %d ms blocking each%n",
+                Runtime.version(), clients, blockingMillis);
+        System.out.printf("%-9s %9s %9s %11s %14s %14s%n",
+                "threads", "in-flight", "ok", "elapsed-ms", "heap-KiB/req", "platform-thr");
+        for (boolean virtual : new boolean[]{false, true}) {
+            Result result = run(virtual, clients, blockingMillis);
+            System.out.printf("%-9s %9d %9d %11d %14.1f %14d%n",
+                    virtual ? "virtual" : "platform", result.peakInFlight(), result.completed(),
+                    result.elapsedMillis(), result.heapBytesPerRequest() / 1024.0, result.platformThreads());
+        }
+        System.out.println("platform-thr: extra live platform threads at peak; each reserves a stack"
+                + " (-Xss, 1 MiB by default) outside the heap. Virtual thread stacks are in heap-KiB/req.");
+    }
+
+    private static Result run(boolean virtual, int clients, long blockingMillis) throws Exception {
+        BlockingFilter filter = new BlockingFilter(blockingMillis);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MonkCouponsApiApplication.class)
+                .initializers(ctx -> ((GenericApplicationContext) ctx)
+                        .registerBean("blockingFilter", Filter.class, () -> filter))
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--coupons.grpc.enabled=false",
+                        "--coupons.limiter.enabled=false",
+                        "--coupons.bulkhead.checkout.max-concurrent=" + (clients * 2),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/applicable-coupons");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofMinutes(5))
+                    .POST(HttpRequest.BodyPublishers.ofString(CART))
+                    .build();
+
+            // Warm up the request path and start the client's threads before the baseline
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+            filter.peak.set(0);
+            long baselineHeap = liveHeap();
+            int baselineThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            }
+
+            // Sample halfway through the first wave, while every admitted request is blocked
+            Thread.sleep(blockingMillis / 2);
+            int inFlight = filter.inFlight.get();
+            long heap = liveHeap() - baselineHeap;
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount() - baselineThreads;
+
+            long completed = responses.stream()
+                    .map(CompletableFuture::join)
+                    .filter(response -> response.statusCode() == 200)
+                    .count();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            return new Result(filter.peak.get(), completed, elapsedMillis,
+                    inFlight == 0 ? 0 : (double) heap / inFlight, threads);
+        } finally {
+            clientExecutor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private record Result(int peakInFlight, long completed, long elapsedMillis,
+                          double heapBytesPerRequest, int platformThreads) {
+    }
+
+    /**
+     * Holds every request for the blocking time and counts the requests inside the server.
+     */
+    private static final class BlockingFilter implements Filter {
+
+        private final long blockingMillis;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        private BlockingFilter(long blockingMillis) {
+            this.blockingMillis = blockingMillis;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(blockingMillis);
+                chain.doFilter(request, response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.monk.coupons.model.ApplicableCoupon;
+
+import java.io.IOException;
+
+/**
+ * Writes an {@link ApplicableCoupon} without bean introspection.
+ * <p>
+ * The catalog keeps each coupon's {@code "coupon_id":..,"type":..,} members encoded
+ * once (see {@link #prefix}), so a JSON response only formats the discount. Other
+ * formats, pretty printing and coupons without a prefix are written member by member.
+ */
+public class ApplicableCouponSerializer extends StdSerializer<ApplicableCoupon> {
+
+    static final SerializedString COUPON_ID = new SerializedString("coupon_id");
+    static final SerializedString TYPE = new SerializedString("type");
+    static final SerializedString DISCOUNT = new SerializedString("discount");
+
+    public ApplicableCouponSerializer() {
+        super(ApplicableCoupon.class);
+    }
+
+    /**
+     * Encodes the members of a coupon that never change between responses, including the
+     * trailing comma.
+     */
+    public static SerializableString prefix(Long couponId, String type) {
+        StringBuilder json = new StringBuilder(32).append("\"coupon_id\":").append(couponId).append(",\"type\":");
+        if (type == null) {
+            json.append("null");
+        } else {
+            json.append('"').append(JsonStringEncoder.getInstance().quoteAsString(type)).append('"');
+        }
+        return new SerializedString(json.append(',').toString());
+    }
+
+    @Override
+    public void serialize(ApplicableCoupon coupon, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(coupon);
+        SerializableString prefix = coupon.getJsonPrefix();
+        if (prefix != null && gen instanceof JsonGeneratorImpl && gen.getPrettyPrinter() == null) {
+            // The generator does not see the raw members, so "discount" goes out without a comma
+            gen.writeRaw(prefix);
+        } else {
+            gen.writeFieldName(COUPON_ID);
+            writeNumber(gen, coupon.getCouponId());
+            gen.writeFieldName(TYPE);
+            gen.writeString(coupon.getType());
+        }
+        gen.writeFieldName(DISCOUNT);
+        writeNumber(gen, coupon.getDiscount());
+        gen.writeEndObject();
+    }
+
+    static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    static void writeNumber(JsonGenerator gen, Integer value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    static void writeNumber(JsonGenerator gen, Double value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.monk.coupons.model.ApplicableCoupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes an {@link ApplicableCouponsResponse} without bean introspection. Explanations
+ * are only written when present.
+ */
+public class ApplicableCouponsResponseSerializer extends StdSerializer<ApplicableCouponsResponse> {
+
+    private static final SerializedString APPLICABLE_COUPONS = new SerializedString("applicable_coupons");
+    private static final SerializedString PARTIAL = new SerializedString("partial");
+    private static final SerializedString EXPLANATIONS = new SerializedString("explanations");
+
+    private final ApplicableCouponSerializer couponSerializer;
+
+    public ApplicableCouponsResponseSerializer(ApplicableCouponSerializer couponSerializer) {
+        super(ApplicableCouponsResponse.class);
+        this.couponSerializer = couponSerializer;
+    }
+
+    @Override
+    public void serialize(ApplicableCouponsResponse response, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeStartObject(response);
+        gen.writeFieldName(APPLICABLE_COUPONS);
+        List<ApplicableCoupon> coupons = response.getApplicableCoupons();
+        if (coupons == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(coupons, coupons.size());
+            for (ApplicableCoupon coupon : coupons) {
+                couponSerializer.serialize(coupon, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeFieldName(PARTIAL);
+        if (response.getPartial() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBoolean(response.getPartial());
+        }
+        // Explained responses are rare, so they take the regular bean serializers
+        if (response.getExplanations() != null) {
+            gen.writeFieldName(EXPLANATIONS);
+            provider.defaultSerializeValue(response.getExplanations(), gen);
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,86 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.ApplyCouponResponse.UpdatedCart;
+import com.monk.coupons.model.CartItem;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.monk.coupons.config.ApplicableCouponSerializer.writeNumber;
+
+/**
+ * Writes an {@link ApplyCouponResponse}, its cart and items without bean introspection.
+ */
+public class ApplyCouponResponseSerializer extends StdSerializer<ApplyCouponResponse> {
+
+    private static final SerializedString UPDATED_CART = new SerializedString("updated_cart");
+    private static final SerializedString ITEMS = new SerializedString("items");
+    private static final SerializedString TOTAL_PRICE = new SerializedString("total_price");
+    private static final SerializedString TOTAL_DISCOUNT = new SerializedString("total_discount");
+    private static final SerializedString FINAL_PRICE = new SerializedString("final_price");
+    private static final SerializedString PRODUCT_ID = new SerializedString("product_id");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString PRICE = new SerializedString("price");
+
+    public ApplyCouponResponseSerializer() {
+        super(ApplyCouponResponse.class);
+    }
+
+    @Override
+    public void serialize(ApplyCouponResponse response, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeStartObject(response);
+        gen.writeFieldName(UPDATED_CART);
+        UpdatedCart cart = response.getUpdatedCart();
+        if (cart == null) {
+            gen.writeNull();
+        } else {
+            writeCart(cart, gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeCart(UpdatedCart cart, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(cart);
+        gen.writeFieldName(ITEMS);
+        List<CartItem> items = cart.getItems();
+        if (items == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(items, items.size());
+            for (CartItem item : items) {
+                writeItem(item, gen);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeFieldName(TOTAL_PRICE);
+        writeNumber(gen, cart.getTotalPrice());
+        gen.writeFieldName(TOTAL_DISCOUNT);
+        writeNumber(gen, cart.getTotalDiscount());
+        gen.writeFieldName(FINAL_PRICE);
+        writeNumber(gen, cart.getFinalPrice());
+        gen.writeEndObject();
+    }
+
+    private static void writeItem(CartItem item, JsonGenerator gen) throws IOException {
+        if (item == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(item);
+        gen.writeFieldName(PRODUCT_ID);
+        writeNumber(gen, item.getProductId());
+        gen.writeFieldName(QUANTITY);
+        writeNumber(gen, item.getQuantity());
+        gen.writeFieldName(PRICE);
+        writeNumber(gen, item.getPrice());
+        gen.writeFieldName(TOTAL_DISCOUNT);
+        writeNumber(gen, item.getTotalDiscount());
+        gen.writeEndObject();
+    }
+}
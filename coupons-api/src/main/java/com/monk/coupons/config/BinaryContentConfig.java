@@ -0,0 +1,50 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.monk.coupons.exception.dto.ErrorResponse;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.CartRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Smile and CBOR bodies for {@code /applicable-coupons} and {@code /apply-coupon/{id}}.
+ * <p>
+ * Both are binary encodings of the same data model as the JSON bodies: same field names,
+ * same types, same codecs (the mappers are built from the application's builder, so they
+ * carry {@link EvaluationJsonModule}). Clients opt in per request with
+ * {@code Content-Type} and {@code Accept}. The converters go after the JSON one, so
+ * JSON stays the answer to {@code Accept: *}{@code /*}.
+ */
+@Configuration
+public class BinaryContentConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private static final Set<Class<?>> BODY_TYPES = Set.of(
+            CartRequest.class, ApplicableCouponsResponse.class, ApplyCouponResponse.class, ErrorResponse.class);
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public BinaryContentConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new EvaluationMessageConverter(
+                builders.getObject().factory(new SmileFactory()).build(), APPLICATION_SMILE, BODY_TYPES));
+        converters.add(new EvaluationMessageConverter(
+                builders.getObject().factory(new CBORFactory()).build(), MediaType.APPLICATION_CBOR, BODY_TYPES));
+    }
+}
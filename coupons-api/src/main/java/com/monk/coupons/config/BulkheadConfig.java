@@ -0,0 +1,56 @@
+package com.monk.coupons.config;
+
+import com.monk.coupons.service.bulkhead.Bulkhead;
+import com.monk.coupons.service.bulkhead.BulkheadInterceptor;
+import com.monk.coupons.service.bulkhead.TrafficClass;
+import com.monk.coupons.service.metrics.BulkheadMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Separates checkout evaluation from coupon administration: each class runs behind its
+ * own {@link Bulkhead}, and with {@code coupons.bulkhead.partition-pools=true} also uses
+ * its own connection pool (see {@link BulkheadDataSourceConfig}).
+ */
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final BulkheadProperties properties;
+
+    public BulkheadConfig(BulkheadProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public Bulkhead checkoutBulkhead() {
+        return bulkhead("checkout", properties.getCheckout());
+    }
+
+    @Bean
+    public Bulkhead adminBulkhead() {
+        return bulkhead("admin", properties.getAdmin());
+    }
+
+    @Bean
+    public BulkheadMetrics bulkheadMetrics() {
+        return new BulkheadMetrics(List.of(checkoutBulkhead(), adminBulkhead()));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new BulkheadInterceptor(TrafficClass.CHECKOUT, checkoutBulkhead(), properties.getRetryAfter()))
+                .addPathPatterns("/applicable-coupons", "/apply-coupon/**");
+        registry.addInterceptor(new BulkheadInterceptor(TrafficClass.ADMIN, adminBulkhead(), properties.getRetryAfter()))
+                .addPathPatterns("/coupons", "/coupons/**");
+    }
+
+    private static Bulkhead bulkhead(String name, BulkheadProperties.Partition partition) {
+        return new Bulkhead(name, partition.getMaxConcurrent(), partition.getMaxQueue(), partition.getMaxWait());
+    }
+}
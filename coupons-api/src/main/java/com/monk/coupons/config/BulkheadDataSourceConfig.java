@@ -0,0 +1,38 @@
+package com.monk.coupons.config;
+
+import com.monk.coupons.service.bulkhead.TrafficClassRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits the single {@code spring.datasource.*} database into a checkout and an admin
+ * pool. With primary/replica routing enabled, {@link RoutingDataSourceConfig} partitions
+ * each node instead.
+ */
+@Configuration
+@ConditionalOnExpression("${coupons.bulkhead.partition-pools:false} and !${coupons.datasource.routing.enabled:false}")
+public class BulkheadDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, BulkheadProperties properties) {
+        return new TrafficClassRoutingDataSource(
+                pool(dataSourceProperties, "checkout", properties.getCheckout().getPoolSize()),
+                pool(dataSourceProperties, "admin", properties.getAdmin().getPoolSize()));
+    }
+
+    private static DataSource pool(DataSourceProperties dataSourceProperties, String name, int size) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(size);
+        return dataSource;
+    }
+}
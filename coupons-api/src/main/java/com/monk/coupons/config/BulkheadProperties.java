@@ -0,0 +1,50 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * Evaluation endpoints. Never queued, so they are not held up behind admin work.
+     */
+    private Partition checkout = new Partition(200, 0, Duration.ZERO, 10);
+
+    /**
+     * Coupon CRUD endpoints.
+     */
+    private Partition admin = new Partition(4, 16, Duration.ofSeconds(2), 2);
+
+    /**
+     * Whether each traffic class gets its own connection pool (sized by
+     * {@code checkout.pool-size} and {@code admin.pool-size}).
+     */
+    private boolean partitionPools = false;
+
+    /**
+     * Sent as {@code Retry-After} when a bulkhead rejects a request.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    @Data
+    public static class Partition {
+        private int maxConcurrent;
+        private int maxQueue;
+        private Duration maxWait;
+        private int poolSize;
+
+        public Partition() {
+        }
+
+        public Partition(int maxConcurrent, int maxQueue, Duration maxWait, int poolSize) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+            this.poolSize = poolSize;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.monk.coupons.config;
+
+import com.monk.coupons.service.catalog.CatalogChangeBus;
+import com.monk.coupons.service.catalog.InProcessCatalogChangeBus;
+import com.monk.coupons.service.catalog.UdpCatalogChangeBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.time.Clock;
+import java.util.List;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({CatalogProperties.class, RedemptionProperties.class})
+public class CatalogConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    /**
+     * Runs catalog loads and redemption bookkeeping in its own read-write transaction, so it
+     * reaches the primary even when called from a read-only request transaction that is
+     * routed to a replica. The request's session is unbound meanwhile: this is the node's own
+     * work and must not pin the client's reads to the primary.
+     */
+    @Bean
+    public TransactionOperations primaryTransactions(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return ReplicaLagGuard.withoutSession(() -> template.execute(action));
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "coupons.catalog.bus.type", havingValue = "in-process", matchIfMissing = true)
+    public CatalogChangeBus inProcessCatalogChangeBus() {
+        return new InProcessCatalogChangeBus();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "coupons.catalog.bus.type", havingValue = "udp")
+    public UdpCatalogChangeBus udpCatalogChangeBus(
+            @Value("${coupons.catalog.bus.udp.bind-port}") int bindPort,
+            @Value("${coupons.catalog.bus.udp.peers:}") List<String> peers
+    ) throws SocketException {
+        List<InetSocketAddress> addresses = peers.stream()
+                .filter(p -> !p.isBlank())
+                .map(p -> {
+                    String[] hostPort = p.trim().split(":");
+                    return new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+                })
+                .toList();
+        return new UdpCatalogChangeBus(bindPort, addresses);
+    }
+}
@@ -0,0 +1,49 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.catalog")
+public class CatalogProperties {
+
+    /**
+     * Number of coupon changes kept for {@code GET /coupons/changes}. Clients further
+     * behind than this receive a full resync.
+     */
+    private int changeLogSize = 1024;
+
+    /**
+     * Resolution of validity windows: coupons become active or expire on the first
+     * tick at or after their start/end time.
+     */
+    private long validityTickMillis = 1000;
+
+    /**
+     * Slots per level of the validity timing wheel.
+     */
+    private int validityWheelSize = 60;
+
+    /**
+     * Load the catalog at startup, before the node reports ready, instead of on the
+     * first evaluation.
+     */
+    private boolean preload = true;
+
+    /**
+     * Coupon ids below this are remembered in a bitmap of a bit each (2 MB by default);
+     * higher ids go to a hash set.
+     */
+    private long knownIdsBitmapRange = 1L << 24;
+
+    /**
+     * Unknown ids that may be double-checked against the primary per second, in case the
+     * announcement of a new coupon was lost. 0 turns the check off.
+     */
+    private int missConfirmationsPerSecond = 10;
+
+    /**
+     * How often the set of known coupon ids is rebuilt from the primary.
+     */
+    private long knownIdsResyncMillis = 60_000;
+}
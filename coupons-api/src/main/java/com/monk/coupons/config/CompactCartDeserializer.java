@@ -0,0 +1,100 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.exception.CartTooLargeException;
+import com.monk.coupons.model.Cart;
+
+import java.io.IOException;
+
+/**
+ * Reads a cart straight from the token stream into a {@link CompactCart}, without
+ * creating a {@code CartItem} or boxed number per line.
+ * <p>
+ * The item count is checked as lines are read, so an oversized cart is rejected at the
+ * first line over the limit instead of after the whole body has been bound.
+ */
+public class CompactCartDeserializer extends StdDeserializer<Cart> {
+
+    private final int maxItems;
+
+    public CompactCartDeserializer(int maxItems) {
+        super(Cart.class);
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public Cart deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        }
+
+        Cart cart = new Cart();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("items".equals(field) && value != JsonToken.VALUE_NULL) {
+                cart = Cart.of(readItems(p, ctxt));
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return (Cart) ctxt.handleUnexpectedToken(Cart.class, p);
+        }
+        return cart;
+    }
+
+    private CompactCart readItems(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartArrayToken()) {
+            return (CompactCart) ctxt.handleUnexpectedToken(CompactCart.class, p);
+        }
+
+        CompactCart.Builder lines = new CompactCart.Builder(16);
+        for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+            if (lines.size() == maxItems) {
+                throw new CartTooLargeException(maxItems);
+            }
+            if (token != JsonToken.START_OBJECT) {
+                ctxt.reportInputMismatch(Cart.class, "Each cart item must be an object.");
+            }
+            readItem(p, ctxt, lines);
+        }
+        return lines.build();
+    }
+
+    private void readItem(JsonParser p, DeserializationContext ctxt, CompactCart.Builder lines) throws IOException {
+        int productId = 0;
+        int quantity = 0;
+        double price = 0;
+        int seen = 0;
+
+        for (JsonToken token = p.nextToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "product_id" -> {
+                    productId = _parseIntPrimitive(p, ctxt);
+                    seen |= 1;
+                }
+                case "quantity" -> {
+                    quantity = _parseIntPrimitive(p, ctxt);
+                    seen |= 2;
+                }
+                case "price" -> {
+                    price = _parseDoublePrimitive(p, ctxt);
+                    seen |= 4;
+                }
+                default -> p.skipChildren();
+            }
+        }
+        if (seen != 7) {
+            ctxt.reportInputMismatch(Cart.class, "Each cart item needs 'product_id', 'quantity' and 'price'.");
+        }
+        lines.add(productId, quantity, price);
+    }
+}
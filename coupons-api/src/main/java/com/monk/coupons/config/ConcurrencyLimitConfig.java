@@ -0,0 +1,37 @@
+package com.monk.coupons.config;
+
+import com.monk.coupons.service.limit.AdaptiveConcurrencyLimiter;
+import com.monk.coupons.service.limit.ConcurrencyLimitInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Sheds load on the evaluation endpoints once latency shows requests are queueing.
+ */
+@Configuration
+@ConditionalOnProperty(name = "coupons.limiter.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitProperties properties;
+
+    public ConcurrencyLimitConfig(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter evaluationConcurrencyLimiter() {
+        return new AdaptiveConcurrencyLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getSmoothing(), properties.getBaselineWindow());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(evaluationConcurrencyLimiter(), properties.getRetryAfter()))
+                .addPathPatterns("/applicable-coupons", "/apply-coupon/**");
+    }
+}
@@ -0,0 +1,40 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.limiter")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * Whether evaluation endpoints are guarded by the adaptive concurrency limit.
+     */
+    private boolean enabled = true;
+
+    /**
+     * In-flight evaluations allowed before any latency has been measured.
+     */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 500;
+
+    /**
+     * Weight of each new limit estimate, between 0 and 1. Lower values react more slowly.
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Samples averaged into the no-load latency baseline.
+     */
+    private int baselineWindow = 600;
+
+    /**
+     * Sent as {@code Retry-After} on rejected requests.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
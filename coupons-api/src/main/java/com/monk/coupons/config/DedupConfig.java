@@ -0,0 +1,34 @@
+package com.monk.coupons.config;
+
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.service.dedup.CartFingerprint;
+import com.monk.coupons.service.dedup.IdempotencyCache;
+import com.monk.coupons.service.dedup.SingleFlight;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Request de-duplication in front of the evaluation endpoints.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class DedupConfig {
+
+    @Bean
+    public IdempotencyCache<ApplyCouponResponse> applyCouponIdempotencyCache(
+            IdempotencyProperties properties, ObjectProvider<Clock> clock
+    ) {
+        return new IdempotencyCache<>(properties.getMaxEntries(), properties.getTtl(), properties.getMaxWait(),
+                clock.getIfAvailable(Clock::systemUTC));
+    }
+
+    @Bean
+    public SingleFlight<CartFingerprint, ApplicableCouponsResponse> applicableCouponsSingleFlight() {
+        return new SingleFlight<>();
+    }
+}
@@ -0,0 +1,20 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({EvaluationProperties.class, WarmupProperties.class, ProfilingProperties.class})
+public class EvaluationConfig {
+
+    /**
+     * Request cart parsing and response writing for the evaluation endpoints; picked up by
+     * the application's ObjectMapper.
+     */
+    @Bean
+    public Module evaluationJsonModule(EvaluationProperties properties) {
+        return new EvaluationJsonModule(properties.getMaxCartItems());
+    }
+}
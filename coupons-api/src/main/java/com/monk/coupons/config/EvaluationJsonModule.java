@@ -0,0 +1,23 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.monk.coupons.model.ApplicableCoupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.Cart;
+
+/**
+ * Hand-written codecs for the evaluation endpoints' request and response bodies, which
+ * are read and written on every checkout call.
+ */
+public class EvaluationJsonModule extends SimpleModule {
+
+    public EvaluationJsonModule(int maxCartItems) {
+        super("evaluation-json");
+        ApplicableCouponSerializer couponSerializer = new ApplicableCouponSerializer();
+        addDeserializer(Cart.class, new CompactCartDeserializer(maxCartItems));
+        addSerializer(ApplicableCoupon.class, couponSerializer);
+        addSerializer(ApplicableCouponsResponse.class, new ApplicableCouponsResponseSerializer(couponSerializer));
+        addSerializer(ApplyCouponResponse.class, new ApplyCouponResponseSerializer());
+    }
+}
@@ -0,0 +1,38 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * Jackson converter for a binary format, limited to the evaluation endpoints' bodies
+ * (and errors raised while serving them) so the rest of the API stays JSON-only.
+ */
+public class EvaluationMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    private final Set<Class<?>> bodyTypes;
+
+    public EvaluationMessageConverter(ObjectMapper mapper, MediaType mediaType, Set<Class<?>> bodyTypes) {
+        super(mapper, mediaType);
+        this.bodyTypes = bodyTypes;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return bodyTypes.contains(clazz) && super.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type instanceof Class<?> clazz && bodyTypes.contains(clazz)
+                && super.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return bodyTypes.contains(clazz) && super.canWrite(clazz, mediaType);
+    }
+}
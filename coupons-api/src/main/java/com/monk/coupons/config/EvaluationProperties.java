@@ -0,0 +1,30 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.evaluation")
+public class EvaluationProperties {
+
+    /**
+     * Time budget for {@code /applicable-coupons} when the request does not send one.
+     * Unset means evaluation always runs to completion.
+     */
+    private Duration defaultDeadline;
+
+    /**
+     * Most cart lines accepted in a request body; larger carts are rejected with 413
+     * while the body is being read.
+     */
+    private int maxCartItems = 500;
+
+    /**
+     * Fraction of evaluations, from 0 to 1, explained in the log: why each evaluated coupon
+     * did or did not apply. Requests sending {@code X-Explain: true} get the explanation in
+     * the response instead.
+     */
+    private double explainSampleRate = 0;
+}
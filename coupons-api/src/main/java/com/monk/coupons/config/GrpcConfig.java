@@ -0,0 +1,63 @@
+package com.monk.coupons.config;
+
+import com.monk.coupons.grpc.ConcurrencyLimitServerInterceptor;
+import com.monk.coupons.grpc.CouponEvaluationGrpcService;
+import com.monk.coupons.grpc.GrpcServer;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.service.CouponService;
+import com.monk.coupons.service.dedup.CartFingerprint;
+import com.monk.coupons.service.dedup.IdempotencyCache;
+import com.monk.coupons.service.dedup.SingleFlight;
+import com.monk.coupons.service.limit.AdaptiveConcurrencyLimiter;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * gRPC evaluation API for service-to-service callers, on its own port. Calls run on
+ * virtual threads when {@code spring.threads.virtual.enabled} is set, like HTTP requests,
+ * and on a bounded pool otherwise. Unary calls share the REST endpoints' concurrency limit.
+ */
+@Configuration
+@ConditionalOnProperty(name = "coupons.grpc.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(GrpcProperties.class)
+public class GrpcConfig {
+
+    @Bean
+    public CouponEvaluationGrpcService couponEvaluationGrpcService(
+            CouponService couponService,
+            IdempotencyCache<ApplyCouponResponse> applyCouponIdempotencyCache,
+            SingleFlight<CartFingerprint, ApplicableCouponsResponse> applicableCouponsSingleFlight,
+            EvaluationProperties evaluationProperties
+    ) {
+        return new CouponEvaluationGrpcService(couponService, applyCouponIdempotencyCache,
+                applicableCouponsSingleFlight, evaluationProperties);
+    }
+
+    @Bean
+    public GrpcServer grpcServer(GrpcProperties properties, CouponEvaluationGrpcService evaluationService,
+                                 ObjectProvider<AdaptiveConcurrencyLimiter> limiter,
+                                 ObjectProvider<ConcurrencyLimitProperties> limiterProperties,
+                                 Environment environment) {
+        ServerServiceDefinition evaluation = evaluationService.bindService();
+        AdaptiveConcurrencyLimiter evaluationLimiter = limiter.getIfAvailable();
+        if (evaluationLimiter != null) {
+            evaluation = ServerInterceptors.intercept(evaluation, new ConcurrencyLimitServerInterceptor(
+                    evaluationLimiter, limiterProperties.getObject().getRetryAfter()));
+        }
+        Executor executor = Threading.VIRTUAL.isActive(environment) ? new VirtualThreadTaskExecutor("grpc-") : null;
+        return new GrpcServer(properties.getPort(), properties.getShutdownGracePeriod(), executor,
+                properties.getThreads(), List.of(evaluation));
+    }
+}
@@ -0,0 +1,32 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.grpc")
+public class GrpcProperties {
+
+    /**
+     * Whether to serve the gRPC evaluation API next to the REST one.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Port of the gRPC server (HTTP/2, plaintext); 0 picks a free one.
+     */
+    private int port = 9090;
+
+    /**
+     * Worker threads for calls when virtual threads are off; calls beyond them wait in line.
+     * Unary calls are also admitted through the evaluation concurrency limit.
+     */
+    private int threads = 64;
+
+    /**
+     * How long in-flight calls may run after shutdown begins before they are cancelled.
+     */
+    private Duration shutdownGracePeriod = Duration.ofSeconds(10);
+}
@@ -0,0 +1,27 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Idempotency keys remembered at once; the oldest are evicted first.
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * How long a response is replayed for a retried key.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * How long a retry waits for the first request with its key to finish before it is
+     * answered 409 and asked to retry later.
+     */
+    private Duration maxWait = Duration.ofSeconds(5);
+}
@@ -3,10 +3,19 @@ package com.monk.coupons.config;
 import io.swagger.v3.oas.models.ExternalDocumentation;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.servers.Server;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
+/**
+ * API description for springdoc. Off with {@code springdoc.api-docs.enabled=false} (the prod
+ * profile), where the copy generated at build time is served as {@code /openapi.json}.
+ */
 @Configuration
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", matchIfMissing = true)
 public class OpenApiConfig {
 
     @Bean
@@ -17,8 +26,10 @@ public class OpenApiConfig {
                         .description("Backend task showcasing a flexible coupon engine using Strategy Pattern & JSON rule storage.")
                         .version("1.0.0")
                         .license(null))
+                // Relative, so the document generated during the build is not tied to the build's port
+                .servers(List.of(new Server().url("/")))
                 .externalDocs(new ExternalDocumentation()
                         .description("Monk Commerce Assignment")
                         .url("https://monkcommerce.com"));
     }
-}
\ No newline at end of file
+}
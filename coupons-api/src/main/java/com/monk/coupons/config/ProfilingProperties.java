@@ -0,0 +1,41 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.profiling")
+public class ProfilingProperties {
+
+    /**
+     * Single-coupon discount calculations taking at least this long are recorded as
+     * {@code com.monk.coupons.SlowCouponEvaluation} JFR events.
+     */
+    private Duration slowCouponThreshold = Duration.ofMillis(1);
+
+    /**
+     * Directory that recordings started through {@code /actuator/jfr} are written to, as one
+     * {@code coupons.jfr} file that each dump or stop replaces.
+     */
+    private Path recordingDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+
+    /**
+     * JFR settings for those recordings: {@code default} (about 1% overhead) or
+     * {@code profile} (more detail, about 2%).
+     */
+    private String recordingSettings = "profile";
+
+    /**
+     * Oldest data a running recording keeps.
+     */
+    private Duration recordingMaxAge = Duration.ofMinutes(30);
+
+    /**
+     * Most data a running recording keeps.
+     */
+    private DataSize recordingMaxSize = DataSize.ofMegabytes(256);
+}
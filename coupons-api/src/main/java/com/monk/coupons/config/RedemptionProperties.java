@@ -0,0 +1,66 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.redemption")
+public class RedemptionProperties {
+
+    /**
+     * Counter stripes per coupon; rounded up to a power of two.
+     */
+    private int stripes = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Redemptions a node takes from max_redemptions at a time; served from memory until used up.
+     */
+    private long redemptionLease = 16;
+
+    /**
+     * Discount (currency units) a node takes from discount_budget at a time.
+     */
+    private double budgetLease = 100;
+
+    /**
+     * Redemptions a node may grant beyond its lease under contention. 0 makes every
+     * redemption an exact CAS on the shared counter.
+     */
+    private long redemptionTolerance = 16;
+
+    /**
+     * Discount (currency units) a node may grant beyond its lease under contention.
+     */
+    private double budgetTolerance = 0;
+
+    /**
+     * Redemptions a node takes from one customer's max_per_customer allowance at a time;
+     * that customer's further applies on the node are served from memory until used up.
+     */
+    private long customerLease = 16;
+
+    /**
+     * How often redemption counters are written to the database, and how long a coupon or
+     * customer must go unredeemed before its unused lease is given back.
+     */
+    private long flushIntervalMillis = 1000;
+
+    /**
+     * Shards of the per-customer redemption store.
+     */
+    private int customerShards = 16;
+
+    /**
+     * Customers remembered as having used up a coupon (or whose allowance another node holds),
+     * across all shards; the least recently checked are evicted first.
+     */
+    private int customerCacheSize = 100_000;
+
+    /**
+     * How long a customer is turned away without asking the database. Bounds how long a
+     * redemption given back on another node goes unnoticed.
+     */
+    private Duration customerCacheTtl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,113 @@
+package com.monk.coupons.config;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which sessions wrote recently so their reads can be sent to the primary
+ * until replicas are expected to have caught up.
+ * <p>
+ * Session ids come from clients, so at most {@link #MAX_TRACKED_SESSIONS} are tracked. Entries
+ * are kept in write order: every write moves its session to the end, and drops entries from
+ * the front that are past the window or over the bound. A session evicted early reads from
+ * replicas again, as if its window had passed.
+ */
+public class ReplicaLagGuard {
+
+    static final int MAX_TRACKED_SESSIONS = 10_000;
+
+    private static final ThreadLocal<String> CURRENT_SESSION = new ThreadLocal<>();
+
+    private final long windowNanos;
+    private final int maxSessions;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock; oldest write first
+    private final Map<String, Long> lastWriteNanos = new LinkedHashMap<>();
+
+    public ReplicaLagGuard(Duration window) {
+        this(window, MAX_TRACKED_SESSIONS);
+    }
+
+    ReplicaLagGuard(Duration window, int maxSessions) {
+        this.windowNanos = window.toNanos();
+        this.maxSessions = Math.max(1, maxSessions);
+    }
+
+    public static void bindSession(String sessionId) {
+        CURRENT_SESSION.set(sessionId);
+    }
+
+    public static void clearSession() {
+        CURRENT_SESSION.remove();
+    }
+
+    /**
+     * Runs {@code action} with no session bound, so work the node does on its own behalf,
+     * such as catalog loads and redemption leases, neither counts as the session's write
+     * nor is routed by it.
+     */
+    public static <T> T withoutSession(Supplier<T> action) {
+        String session = CURRENT_SESSION.get();
+        if (session == null) {
+            return action.get();
+        }
+        CURRENT_SESSION.remove();
+        try {
+            return action.get();
+        } finally {
+            CURRENT_SESSION.set(session);
+        }
+    }
+
+    public void recordWrite() {
+        String session = CURRENT_SESSION.get();
+        if (session == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            lastWriteNanos.remove(session);
+            lastWriteNanos.put(session, now);
+            Iterator<Long> oldestFirst = lastWriteNanos.values().iterator();
+            while (oldestFirst.hasNext()) {
+                long last = oldestFirst.next();
+                if (lastWriteNanos.size() <= maxSessions && now - last < windowNanos) {
+                    break;
+                }
+                oldestFirst.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean wroteRecently() {
+        String session = CURRENT_SESSION.get();
+        if (session == null) {
+            return false;
+        }
+        Long last;
+        lock.lock();
+        try {
+            last = lastWriteNanos.get(session);
+        } finally {
+            lock.unlock();
+        }
+        return last != null && System.nanoTime() - last < windowNanos;
+    }
+
+    int trackedSessions() {
+        lock.lock();
+        try {
+            return lastWriteNanos.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
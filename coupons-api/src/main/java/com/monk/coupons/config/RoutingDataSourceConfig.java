@@ -0,0 +1,100 @@
+package com.monk.coupons.config;
+
+import com.monk.coupons.service.bulkhead.TrafficClassRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary/replica routing, enabled with {@code coupons.datasource.routing.enabled=true}.
+ * When disabled the regular {@code spring.datasource.*} single datasource is used.
+ * With {@code coupons.bulkhead.partition-pools=true} every node gets a checkout and an
+ * admin pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "coupons.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public ReplicaLagGuard replicaLagGuard(RoutingDataSourceProperties properties) {
+        return new ReplicaLagGuard(properties.getReplicaLagWindow());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingDataSourceProperties properties, ReplicaLagGuard lagGuard,
+                                 BulkheadProperties bulkheads) {
+        List<RoutingDataSourceProperties.Node> replicas = properties.getReplicas();
+
+        Map<Object, Object> targets = new HashMap<>();
+        DataSource primary = build(properties.getPrimary(), ReadWriteRoutingDataSource.PRIMARY, bulkheads);
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = ReadWriteRoutingDataSource.REPLICA_PREFIX + i;
+            targets.put(key, build(replicas.get(i), key, bulkheads));
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicas.size(), lagGuard);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public OncePerRequestFilter sessionBindingFilter(RoutingDataSourceProperties properties) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                ReplicaLagGuard.bindSession(request.getHeader(properties.getSessionHeader()));
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ReplicaLagGuard.clearSession();
+                }
+            }
+        };
+    }
+
+    private static DataSource build(RoutingDataSourceProperties.Node node, String poolName,
+                                    BulkheadProperties bulkheads) {
+        if (!bulkheads.isPartitionPools()) {
+            return pool(node, poolName, node.getMaximumPoolSize());
+        }
+        return new TrafficClassRoutingDataSource(
+                pool(node, poolName + "-checkout", node.getMaximumPoolSize()),
+                pool(node, poolName + "-admin", bulkheads.getAdmin().getPoolSize()));
+    }
+
+    private static DataSource pool(RoutingDataSourceProperties.Node node, String poolName, int size) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(node.getUrl())
+                .username(node.getUsername())
+                .password(node.getPassword())
+                .driverClassName(node.getDriverClassName())
+                .build();
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(size);
+        return dataSource;
+    }
+}
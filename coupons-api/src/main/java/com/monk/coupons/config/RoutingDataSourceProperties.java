@@ -0,0 +1,42 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.datasource")
+public class RoutingDataSourceProperties {
+
+    /**
+     * Database that receives all writes and any read that must see them.
+     */
+    private Node primary = new Node();
+
+    /**
+     * Read replicas used round-robin by read-only transactions.
+     */
+    private List<Node> replicas = new ArrayList<>();
+
+    /**
+     * How long after a write the same session keeps reading from the primary.
+     */
+    private Duration replicaLagWindow = Duration.ofSeconds(2);
+
+    /**
+     * Request header identifying the client session for read-your-writes.
+     */
+    private String sessionHeader = "X-Session-Id";
+
+    @Data
+    public static class Node {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
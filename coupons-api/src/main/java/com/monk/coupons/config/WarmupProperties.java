@@ -0,0 +1,49 @@
+package com.monk.coupons.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupons.warmup")
+public class WarmupProperties {
+
+    /**
+     * Run synthetic evaluations at startup, before the node reports ready, so the first
+     * real requests run JIT-compiled code.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Longest the warm-up may delay readiness.
+     */
+    private Duration timeBudget = Duration.ofSeconds(10);
+
+    /**
+     * Evaluations per timed batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Evaluations always run, even if evaluation time plateaus sooner.
+     */
+    private int minIterations = 5_000;
+
+    /**
+     * Evaluations after which the warm-up stops whatever the compiler is doing.
+     */
+    private int maxIterations = 200_000;
+
+    /**
+     * Consecutive batches no faster than the fastest one before them after which evaluation
+     * time counts as plateaued and the warm-up stops.
+     */
+    private int stableBatches = 3;
+
+    /**
+     * How much faster than the fastest earlier batch (0-1) a batch must run to count as
+     * progress rather than noise.
+     */
+    private double plateauTolerance = 0.05;
+}
@@ -0,0 +1,130 @@
+package com.monk.coupons.controller;
+
+import com.monk.coupons.config.BinaryContentConfig;
+import com.monk.coupons.config.EvaluationProperties;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.CartRequest;
+import com.monk.coupons.service.CouponService;
+import com.monk.coupons.service.Deadline;
+import com.monk.coupons.service.dedup.ApplyFingerprint;
+import com.monk.coupons.service.dedup.CartFingerprint;
+import com.monk.coupons.service.dedup.IdempotencyCache;
+import com.monk.coupons.service.dedup.SingleFlight;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Duration;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Coupon Evaluation API", description = "Endpoints to evaluate and apply coupons to a cart")
+public class ApplyCouponController {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String DEADLINE_HEADER = "X-Deadline-Ms";
+    static final String EXPLAIN_HEADER = "X-Explain";
+
+    private final CouponService couponService;
+    private final IdempotencyCache<ApplyCouponResponse> idempotencyCache;
+    private final SingleFlight<CartFingerprint, ApplicableCouponsResponse> applicableCouponsFlight;
+    private final EvaluationProperties evaluationProperties;
+
+    @Operation(
+            summary = "Get applicable coupons",
+            description = "Evaluates the provided cart and returns all applicable coupons. "
+                    + "Identical carts evaluated at the same time share one evaluation. "
+                    + "With a deadline, coupons are checked most valuable first and the response is "
+                    + "flagged partial if time runs out. "
+                    + "With X-Explain: true, the response also says why each evaluated coupon did or did not apply.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Applicable coupons returned successfully",
+                            content = @Content(schema = @Schema(implementation = ApplicableCouponsResponse.class))
+                    )
+            }
+    )
+    @PostMapping(value = "/applicable-coupons", consumes = {
+            MediaType.APPLICATION_JSON_VALUE, BinaryContentConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE
+    }, produces = {
+            MediaType.APPLICATION_JSON_VALUE, BinaryContentConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE
+    })
+    public ResponseEntity<ApplicableCouponsResponse> getApplicableCoupons(
+            @RequestBody CartRequest cart,
+            @Parameter(description = "Time budget in milliseconds; evaluation returns what it found when it runs out.")
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMillis,
+            @Parameter(description = "True to add the reason each evaluated coupon did or did not apply.")
+            @RequestHeader(value = EXPLAIN_HEADER, required = false) boolean explain
+    ) {
+        Deadline deadline = deadline(deadlineMillis);
+        if (explain) {
+            // Not shared: concurrent identical carts must not receive or miss the explanation
+            return ResponseEntity.ok(couponService.getApplicableCoupons(cart.getCart(), deadline, true));
+        }
+        return ResponseEntity.ok(
+                applicableCouponsFlight.execute(CartFingerprint.of(cart.getCart()), deadline,
+                        () -> couponService.getApplicableCoupons(cart.getCart(), deadline),
+                        // A result cut short by another request's deadline is not ours to return
+                        response -> !Boolean.TRUE.equals(response.getPartial()))
+        );
+    }
+
+    @Operation(
+            summary = "Apply coupon",
+            description = "Applies the given coupon to the cart and returns the updated cart details. "
+                    + "Retries that send the same Idempotency-Key get the first response instead of redeeming again, "
+                    + "or 409 while the first request is still running.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Coupon applied successfully",
+                            content = @Content(schema = @Schema(implementation = ApplyCouponResponse.class))
+                    )
+            }
+    )
+    @PostMapping(value = "/apply-coupon/{id}", consumes = {
+            MediaType.APPLICATION_JSON_VALUE, BinaryContentConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE
+    }, produces = {
+            MediaType.APPLICATION_JSON_VALUE, BinaryContentConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE
+    })
+    public ResponseEntity<ApplyCouponResponse> applyCoupon(
+            @PathVariable Long id,
+            @RequestBody CartRequest cart,
+            @Parameter(description = "Client-generated key that makes retries of this request safe.")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.ok(
+                    couponService.applyCoupon(id, cart.getCart(), cart.getCustomerId())
+            );
+        }
+
+        ApplyFingerprint request = new ApplyFingerprint(id, cart.getCustomerId(), CartFingerprint.of(cart.getCart()));
+        return ResponseEntity.ok(
+                idempotencyCache.execute(idempotencyKey, request,
+                        () -> couponService.applyCoupon(id, cart.getCart(), cart.getCustomerId()))
+        );
+    }
+
+    private Deadline deadline(Long deadlineMillis) {
+        if (deadlineMillis != null) {
+            if (deadlineMillis <= 0) {
+                throw new IllegalArgumentException("Header '" + DEADLINE_HEADER + "' must be a positive number of milliseconds.");
+            }
+            return Deadline.after(Duration.ofMillis(deadlineMillis));
+        }
+        Duration fallback = evaluationProperties.getDefaultDeadline();
+        return fallback == null ? Deadline.none() : Deadline.after(fallback);
+    }
+}
@@ -1,14 +1,18 @@
 package com.monk.coupons.controller;
 
 import com.monk.coupons.model.Coupon;
+import com.monk.coupons.model.CouponChangesResponse;
 import com.monk.coupons.service.CouponService;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -20,6 +24,9 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 @Tag(name = "Coupons", description = "CRUD endpoints for creating and managing coupons.")
 public class CouponController {
 
+    static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
+    static final String CATALOG_NODE_HEADER = "X-Catalog-Node";
+
     private final CouponService couponService;
 
     /**
@@ -85,11 +92,13 @@ public class CouponController {
     }
 
     /**
-     * Retrieve all coupons.
+     * Retrieve all coupons, or 304 when the client's copy is current.
      */
     @Operation(
             summary = "Get all coupons",
-            description = "Returns a list of all coupons.",
+            description = "Returns a list of all coupons from the node's catalog. The ETag is derived from the "
+                    + "node and the catalog version the list is complete up to; send it back in `If-None-Match` "
+                    + "to get 304 when nothing changed.",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -98,12 +107,58 @@ public class CouponController {
                                     mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = Coupon.class))
                             )
-                    )
+                    ),
+                    @ApiResponse(responseCode = "304", description = "Catalog unchanged since the given ETag")
             }
     )
     @GetMapping
-    public ResponseEntity<?> getAllCoupons() {
-        return ResponseEntity.ok(couponService.getAllCoupons());
+    public ResponseEntity<?> getAllCoupons(WebRequest request) {
+        String node = couponService.getCatalogNodeId();
+        long version = couponService.getCatalogVersion();
+        // Versions are per node: another node's ETag never matches
+        String etag = "\"" + node + ":" + version + "\"";
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(CATALOG_VERSION_HEADER, String.valueOf(version))
+                    .header(CATALOG_NODE_HEADER, node)
+                    .build();
+        }
+        // The snapshot is taken after the version was read, so it includes at least every change up to it
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header(CATALOG_VERSION_HEADER, String.valueOf(version))
+                .header(CATALOG_NODE_HEADER, node)
+                .body(couponService.getCatalogSnapshot().getUpserted());
+    }
+
+    /**
+     * Retrieve the coupons changed since a catalog version.
+     */
+    @Operation(
+            summary = "Get coupon changes",
+            description = "Returns coupons created, updated or deleted since the given catalog version "
+                    + "(from `X-Catalog-Version` and `X-Catalog-Node`, or a previous call's `version` and "
+                    + "`node_id`). Versions are per node: if `node` is missing or names another node, or the "
+                    + "version is older than the change log or newer than this node's, `full_resync` is "
+                    + "true and the whole catalog is returned.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Changes returned successfully",
+                            content = @Content(schema = @Schema(implementation = CouponChangesResponse.class))
+                    )
+            }
+    )
+    @GetMapping("/changes")
+    public ResponseEntity<CouponChangesResponse> getChanges(
+            @Parameter(description = "Catalog version the client already has", example = "1732000000000042")
+            @RequestParam long since,
+            @Parameter(description = "Node that issued `since`", example = "3f2a8c1e-5b7d-4e2a-9c61-0d8e7f4b2a90")
+            @RequestParam(required = false) String node
+    ) {
+        return ResponseEntity.ok(couponService.getChangesSince(node, since));
     }
 
     /**
@@ -0,0 +1,8 @@
+package com.monk.coupons.exception;
+
+public class CartTooLargeException extends CouponsException {
+
+    public CartTooLargeException(int maxItems) {
+        super("Cart has more than " + maxItems + " items.");
+    }
+}
@@ -1,6 +1,6 @@
 package com.monk.coupons.exception;
 
-public class CouponNotFoundException extends RuntimeException {
+public class CouponNotFoundException extends CouponsException {
 
     public CouponNotFoundException(Long id) {
         super("Coupon not found with ID: " + id);
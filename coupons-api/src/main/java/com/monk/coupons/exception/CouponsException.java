@@ -0,0 +1,16 @@
+package com.monk.coupons.exception;
+
+/**
+ * Base for exceptions that describe an expected outcome of a request (unknown coupon,
+ * exhausted limit, overload) rather than a fault.
+ * <p>
+ * They are always turned into a response by {@link GlobalExceptionHandler} and never
+ * logged with a trace, so they skip stack trace capture and suppression: bots probing
+ * random ids or a load spike being shed should not pay for a stack walk per request.
+ */
+public abstract class CouponsException extends RuntimeException {
+
+    protected CouponsException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,12 @@
+package com.monk.coupons.exception;
+
+public class RedemptionLimitExceededException extends CouponsException {
+
+    public RedemptionLimitExceededException(Long id) {
+        super("Coupon " + id + " has reached its redemption limit or discount budget.");
+    }
+
+    public RedemptionLimitExceededException(Long id, String customerId) {
+        super("Customer " + customerId + " has already redeemed coupon " + id + " the maximum number of times.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.monk.coupons.exception;
+
+public class RequestInProgressException extends CouponsException {
+
+    public RequestInProgressException(String idempotencyKey) {
+        super("A request with Idempotency-Key '" + idempotencyKey + "' is still in progress. Please retry later.");
+    }
+}
@@ -0,0 +1,16 @@
+package com.monk.coupons.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class ServiceOverloadedException extends CouponsException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(Duration retryAfter) {
+        super("The service is at capacity. Please retry later.");
+        this.retryAfter = retryAfter;
+    }
+}
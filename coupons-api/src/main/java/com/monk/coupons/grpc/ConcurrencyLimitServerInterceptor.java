@@ -0,0 +1,75 @@
+package com.monk.coupons.grpc;
+
+import com.monk.coupons.exception.ServiceOverloadedException;
+import com.monk.coupons.service.limit.AdaptiveConcurrencyLimiter;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * gRPC counterpart of {@code ConcurrencyLimitInterceptor}: admits unary calls through the
+ * same {@link AdaptiveConcurrencyLimiter} as the REST endpoints and fails the rest with
+ * {@code UNAVAILABLE}. Streams are not admitted per call, since their lifetime says nothing
+ * about evaluation latency; the server's worker pool bounds them instead.
+ */
+public class ConcurrencyLimitServerInterceptor implements ServerInterceptor {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitServerInterceptor(AdaptiveConcurrencyLimiter limiter, Duration retryAfter) {
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                      ServerCallHandler<Q, R> next) {
+        if (call.getMethodDescriptor().getType() != MethodDescriptor.MethodType.UNARY) {
+            return next.startCall(call, headers);
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            call.close(GrpcStatuses.toStatus(new ServiceOverloadedException(retryAfter)).getStatus(), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(permit);
+            }
+        };
+        try {
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+                @Override
+                public void onComplete() {
+                    try {
+                        super.onComplete();
+                    } finally {
+                        release.run();
+                    }
+                }
+
+                @Override
+                public void onCancel() {
+                    try {
+                        super.onCancel();
+                    } finally {
+                        release.run();
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.monk.coupons.grpc;
+
+import com.monk.coupons.config.EvaluationProperties;
+import com.monk.coupons.grpc.v1.ApplicableCouponsReply;
+import com.monk.coupons.grpc.v1.ApplyCouponReply;
+import com.monk.coupons.grpc.v1.ApplyCouponRequest;
+import com.monk.coupons.grpc.v1.CouponEvaluationGrpc;
+import com.monk.coupons.grpc.v1.EvaluateRequest;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.service.CouponService;
+import com.monk.coupons.service.Deadline;
+import com.monk.coupons.service.dedup.ApplyFingerprint;
+import com.monk.coupons.service.dedup.CartFingerprint;
+import com.monk.coupons.service.dedup.IdempotencyCache;
+import com.monk.coupons.service.dedup.SingleFlight;
+import io.grpc.Context;
+import io.grpc.stub.StreamObserver;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC front end for the evaluation endpoints. Goes through the same service, idempotency
+ * cache and single-flight group as {@code ApplyCouponController}, so a retry or a duplicate
+ * cart is recognised whichever protocol it arrives on.
+ */
+public class CouponEvaluationGrpcService extends CouponEvaluationGrpc.CouponEvaluationImplBase {
+
+    private final CouponService couponService;
+    private final IdempotencyCache<ApplyCouponResponse> idempotencyCache;
+    private final SingleFlight<CartFingerprint, ApplicableCouponsResponse> applicableCouponsFlight;
+    private final EvaluationProperties evaluationProperties;
+
+    public CouponEvaluationGrpcService(CouponService couponService,
+                                       IdempotencyCache<ApplyCouponResponse> idempotencyCache,
+                                       SingleFlight<CartFingerprint, ApplicableCouponsResponse> applicableCouponsFlight,
+                                       EvaluationProperties evaluationProperties) {
+        this.couponService = couponService;
+        this.idempotencyCache = idempotencyCache;
+        this.applicableCouponsFlight = applicableCouponsFlight;
+        this.evaluationProperties = evaluationProperties;
+    }
+
+    @Override
+    public void getApplicableCoupons(EvaluateRequest request, StreamObserver<ApplicableCouponsReply> responses) {
+        try {
+            responses.onNext(evaluate(request));
+            responses.onCompleted();
+        } catch (RuntimeException e) {
+            responses.onError(GrpcStatuses.toStatus(e));
+        }
+    }
+
+    @Override
+    public void applyCoupon(ApplyCouponRequest request, StreamObserver<ApplyCouponReply> responses) {
+        try {
+            responses.onNext(ProtoMapping.toReply(apply(request)));
+            responses.onCompleted();
+        } catch (RuntimeException e) {
+            responses.onError(GrpcStatuses.toStatus(e));
+        }
+    }
+
+    @Override
+    public StreamObserver<EvaluateRequest> evaluateCarts(StreamObserver<ApplicableCouponsReply> responses) {
+        return new StreamObserver<>() {
+
+            private boolean failed;
+
+            @Override
+            public void onNext(EvaluateRequest request) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    responses.onNext(evaluate(request));
+                } catch (RuntimeException e) {
+                    failed = true;
+                    responses.onError(GrpcStatuses.toStatus(e));
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // Client cancelled or the call failed; nothing left to answer
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!failed) {
+                    responses.onCompleted();
+                }
+            }
+        };
+    }
+
+    private ApplicableCouponsReply evaluate(EvaluateRequest request) {
+        Cart cart = ProtoMapping.toCart(request.hasCart(), request.getCart(), evaluationProperties.getMaxCartItems());
+        Deadline deadline = deadline();
+        ApplicableCouponsResponse response = applicableCouponsFlight.execute(CartFingerprint.of(cart), deadline,
+                () -> couponService.getApplicableCoupons(cart, deadline),
+                // A result cut short by another call's deadline is not ours to return
+                shared -> !Boolean.TRUE.equals(shared.getPartial()));
+        return ProtoMapping.toReply(response, request.getRequestId());
+    }
+
+    private ApplyCouponResponse apply(ApplyCouponRequest request) {
+        Long couponId = request.getCouponId();
+        Cart cart = ProtoMapping.toCart(request.hasCart(), request.getCart(), evaluationProperties.getMaxCartItems());
+        String customerId = request.getCustomerId().isEmpty() ? null : request.getCustomerId();
+        String idempotencyKey = request.getIdempotencyKey();
+
+        if (idempotencyKey.isBlank()) {
+            return couponService.applyCoupon(couponId, cart, customerId);
+        }
+        ApplyFingerprint fingerprint = new ApplyFingerprint(couponId, customerId, CartFingerprint.of(cart));
+        // The default deadline budgets evaluation; only the caller's own bounds waiting for a retry
+        Deadline callDeadline = callDeadline();
+        return idempotencyCache.execute(idempotencyKey, fingerprint, callDeadline != null ? callDeadline : Deadline.none(),
+                () -> couponService.applyCoupon(couponId, cart, customerId));
+    }
+
+    /**
+     * The caller's call deadline when it set one, otherwise the configured default.
+     */
+    private Deadline deadline() {
+        Deadline callDeadline = callDeadline();
+        if (callDeadline != null) {
+            return callDeadline;
+        }
+        Duration fallback = evaluationProperties.getDefaultDeadline();
+        return fallback == null ? Deadline.none() : Deadline.after(fallback);
+    }
+
+    /**
+     * The caller's call deadline, or null when it set none.
+     */
+    private static Deadline callDeadline() {
+        io.grpc.Deadline callDeadline = Context.current().getDeadline();
+        return callDeadline == null ? null
+                : Deadline.after(Duration.ofNanos(Math.max(0, callDeadline.timeRemaining(TimeUnit.NANOSECONDS))));
+    }
+}
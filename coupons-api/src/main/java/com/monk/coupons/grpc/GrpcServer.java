@@ -0,0 +1,103 @@
+package com.monk.coupons.grpc;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC services on their own port for as long as the application context is up.
+ * In-flight calls get the grace period to finish on shutdown. Calls run on the given
+ * executor, or, when it is null, on a fixed pool of {@code threads} workers owned by the
+ * server; gRPC's default cached pool would start a thread per concurrent call.
+ */
+@Slf4j
+public class GrpcServer implements SmartLifecycle {
+
+    private final int port;
+    private final Duration shutdownGracePeriod;
+    private final Executor executor;
+    private final int threads;
+    private final List<ServerServiceDefinition> services;
+
+    private volatile Server server;
+    private ExecutorService workers;
+
+    public GrpcServer(int port, Duration shutdownGracePeriod, Executor executor, int threads,
+                      List<ServerServiceDefinition> services) {
+        this.port = port;
+        this.shutdownGracePeriod = shutdownGracePeriod;
+        this.executor = executor;
+        this.threads = threads;
+        this.services = services;
+    }
+
+    @Override
+    public synchronized void start() {
+        var builder = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create());
+        services.forEach(builder::addService);
+        if (executor != null) {
+            builder.executor(executor);
+        } else {
+            workers = Executors.newFixedThreadPool(Math.max(1, threads), new CustomizableThreadFactory("grpc-"));
+            builder.executor(workers);
+        }
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            stopWorkers();
+            throw new UncheckedIOException("Could not start gRPC server on port " + port, e);
+        }
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        stopWorkers();
+    }
+
+    private void stopWorkers() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * The bound port; differs from the configured one when that was 0.
+     */
+    public int getPort() {
+        Server current = server;
+        return current == null ? -1 : current.getPort();
+    }
+}
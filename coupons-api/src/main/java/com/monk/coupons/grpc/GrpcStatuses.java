@@ -0,0 +1,42 @@
+package com.monk.coupons.grpc;
+
+import com.monk.coupons.exception.CartTooLargeException;
+import com.monk.coupons.exception.CouponNotFoundException;
+import com.monk.coupons.exception.RedemptionLimitExceededException;
+import com.monk.coupons.exception.RequestInProgressException;
+import com.monk.coupons.exception.ServiceOverloadedException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+/**
+ * gRPC counterpart of {@code GlobalExceptionHandler}: the same exceptions, mapped to the
+ * status codes closest to the HTTP statuses the REST API returns.
+ */
+final class GrpcStatuses {
+
+    private GrpcStatuses() {
+    }
+
+    static StatusRuntimeException toStatus(Throwable failure) {
+        if (failure instanceof StatusRuntimeException status) {
+            return status;
+        }
+        Status status;
+        if (failure instanceof CouponNotFoundException) {
+            status = Status.NOT_FOUND;
+        } else if (failure instanceof RedemptionLimitExceededException) {
+            status = Status.FAILED_PRECONDITION;
+        } else if (failure instanceof RequestInProgressException) {
+            status = Status.ABORTED;
+        } else if (failure instanceof ServiceOverloadedException) {
+            status = Status.UNAVAILABLE;
+        } else if (failure instanceof CartTooLargeException || failure instanceof IllegalArgumentException) {
+            status = Status.INVALID_ARGUMENT;
+        } else {
+            return Status.INTERNAL.withDescription("An unexpected error occurred. Please try again later.")
+                    .withCause(failure)
+                    .asRuntimeException();
+        }
+        return status.withDescription(failure.getMessage()).asRuntimeException();
+    }
+}
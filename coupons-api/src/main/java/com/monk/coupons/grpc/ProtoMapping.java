@@ -0,0 +1,77 @@
+package com.monk.coupons.grpc;
+
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.exception.CartTooLargeException;
+import com.monk.coupons.grpc.v1.ApplicableCouponsReply;
+import com.monk.coupons.grpc.v1.ApplyCouponReply;
+import com.monk.coupons.model.ApplicableCoupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.CartItem;
+
+/**
+ * Conversions between the protobuf messages and the REST model. Carts go straight into
+ * the compact form, as the JSON deserializer does.
+ */
+final class ProtoMapping {
+
+    private ProtoMapping() {
+    }
+
+    static Cart toCart(boolean present, com.monk.coupons.grpc.v1.Cart cart, int maxItems) {
+        if (!present) {
+            return new Cart();
+        }
+        int count = cart.getItemsCount();
+        if (count > maxItems) {
+            throw new CartTooLargeException(maxItems);
+        }
+        CompactCart.Builder lines = new CompactCart.Builder(count);
+        for (int i = 0; i < count; i++) {
+            com.monk.coupons.grpc.v1.CartItem item = cart.getItems(i);
+            lines.add(item.getProductId(), item.getQuantity(), item.getPrice());
+        }
+        return Cart.of(lines.build());
+    }
+
+    static ApplicableCouponsReply toReply(ApplicableCouponsResponse response, String requestId) {
+        ApplicableCouponsReply.Builder reply = ApplicableCouponsReply.newBuilder()
+                .setPartial(Boolean.TRUE.equals(response.getPartial()))
+                .setRequestId(requestId);
+        if (response.getApplicableCoupons() != null) {
+            for (ApplicableCoupon coupon : response.getApplicableCoupons()) {
+                reply.addApplicableCouponsBuilder()
+                        .setCouponId(coupon.getCouponId())
+                        .setType(coupon.getType() == null ? "" : coupon.getType())
+                        .setDiscount(orZero(coupon.getDiscount()));
+            }
+        }
+        return reply.build();
+    }
+
+    static ApplyCouponReply toReply(ApplyCouponResponse response) {
+        ApplyCouponReply.Builder reply = ApplyCouponReply.newBuilder();
+        ApplyCouponResponse.UpdatedCart cart = response.getUpdatedCart();
+        if (cart == null) {
+            return reply.build();
+        }
+        if (cart.getItems() != null) {
+            for (CartItem item : cart.getItems()) {
+                reply.addItemsBuilder()
+                        .setProductId(item.getProductId())
+                        .setQuantity(item.getQuantity())
+                        .setPrice(item.getPrice())
+                        .setTotalDiscount(orZero(item.getTotalDiscount()));
+            }
+        }
+        return reply.setTotalPrice(orZero(cart.getTotalPrice()))
+                .setTotalDiscount(orZero(cart.getTotalDiscount()))
+                .setFinalPrice(orZero(cart.getFinalPrice()))
+                .build();
+    }
+
+    private static double orZero(Double value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -1,10 +1,14 @@
 package com.monk.coupons.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.SerializableString;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Data
 @AllArgsConstructor
@@ -20,4 +24,14 @@ public class ApplicableCoupon {
 
     @Schema(example = "120.0")
     private Double discount;
-}
\ No newline at end of file
+
+    // Pre-encoded coupon_id and type members from the catalog, written as-is when present
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private SerializableString jsonPrefix;
+
+    public ApplicableCoupon(Long couponId, String type, Double discount) {
+        this(couponId, type, discount, null);
+    }
+}
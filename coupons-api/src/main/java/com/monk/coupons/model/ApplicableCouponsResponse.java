@@ -0,0 +1,41 @@
+package com.monk.coupons.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Wrapper response containing all applicable coupons.")
+public class ApplicableCouponsResponse {
+
+    @Schema(
+            description = "List of applicable coupons for the provided cart.",
+            required = true
+    )
+    private List<ApplicableCoupon> applicableCoupons;
+
+    @Schema(description = "True when the evaluation deadline passed before every coupon was checked; "
+            + "the list then holds the most valuable coupons found in time.")
+    private Boolean partial;
+
+    @Schema(description = "Only with X-Explain: true. Why each coupon did or did not apply: the coupons "
+            + "evaluated for the cart in evaluation order, then those left out as inactive or not "
+            + "triggered by the cart, by id.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<CouponExplanation> explanations;
+
+    public ApplicableCouponsResponse(List<ApplicableCoupon> applicableCoupons) {
+        this(applicableCoupons, false);
+    }
+
+    public ApplicableCouponsResponse(List<ApplicableCoupon> applicableCoupons, Boolean partial) {
+        this(applicableCoupons, partial, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.monk.coupons.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.monk.coupons.engine.CompactCart;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(
+        name = "Cart",
+        description = "Represents a shopping cart containing multiple items for coupon evaluation.",
+        example = """
+                {
+                  "items": [
+                    { "product_id": 101, "quantity": 2, "price": 50.0 },
+                    { "product_id": 205, "quantity": 1, "price": 120.0 }
+                  ]
+                }
+                """
+)
+public class Cart {
+
+    @Schema(
+            description = "List of items in the cart. Each item includes product_id, quantity, and price.",
+            required = true
+    )
+    private List<CartItem> items;
+
+    // Lines as parsed from the request, until something asks for items
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private CompactCart lines;
+
+    /**
+     * Cart backed by parsed lines; items are created on first {@link #getItems()}.
+     */
+    public static Cart of(CompactCart lines) {
+        Cart cart = new Cart();
+        cart.lines = lines;
+        return cart;
+    }
+
+    public List<CartItem> getItems() {
+        if (items == null && lines != null) {
+            items = toItems(lines);
+        }
+        return items;
+    }
+
+    /**
+     * The cart's lines as primitive arrays. Cheap for a parsed cart whose items were never
+     * requested; otherwise copied from the (possibly modified) items.
+     */
+    public CompactCart compact() {
+        if (items != null) {
+            return toLines(items);
+        }
+        return lines != null ? lines : CompactCart.EMPTY;
+    }
+
+    private static CompactCart toLines(List<CartItem> items) {
+        if (items.isEmpty()) {
+            return CompactCart.EMPTY;
+        }
+        CompactCart.Builder builder = new CompactCart.Builder(items.size());
+        for (CartItem item : items) {
+            builder.add(item.getProductId(), item.getQuantity(), item.getPrice());
+        }
+        return builder.build();
+    }
+
+    // New, independently mutable items
+    private static List<CartItem> toItems(CompactCart lines) {
+        List<CartItem> items = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            CartItem item = new CartItem();
+            item.setProductId(lines.productId(i));
+            item.setQuantity(lines.quantity(i));
+            item.setPrice(lines.price(i));
+            items.add(item);
+        }
+        return items;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.monk.coupons.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class CartRequest {
+    private Cart cart;
+
+    @Schema(
+            description = "Customer applying the coupon. Required for coupons with max_per_customer.",
+            example = "cust-42"
+    )
+    private String customerId;
+}
@@ -0,0 +1,195 @@
+package com.monk.coupons.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.monk.coupons.config.JsonNodeConverter;
+import com.monk.coupons.engine.CouponRule;
+import com.monk.coupons.engine.CouponRules;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Entity
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(
+        name = "Coupon",
+        description = "Represents a coupon with its type and the associated discount rule."
+)
+public class Coupon {
+
+    private static final ObjectMapper RULE_READER = new ObjectMapper();
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(
+            description = "Auto-generated unique coupon ID.",
+            example = "1",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private Long id;
+
+    @NotBlank(message = "type is required")
+    @Schema(
+            description = """
+                    Type of coupon. Determines the discount strategy applied.
+                    Allowed values:
+                      - cart-wise
+                      - product-wise
+                      - bxgy
+                    """,
+            example = "cart-wise",
+            required = true
+    )
+    private String type;
+
+    @NotNull(message = "details is required")
+    @Convert(converter = JsonNodeConverter.class)
+    @Column(columnDefinition = "TEXT")
+    @Schema(
+            description = """
+                    Structured discount rule stored as JSON.
+                    
+                    Examples:
+                    
+                    • Cart-wise coupon:
+                      {
+                        "threshold": 100,
+                        "discount": 10
+                      }
+                    
+                    • Product-wise coupon:
+                      {
+                        "product_id": 1,
+                        "discount": 20
+                      }
+                    
+                    • BxGy coupon:
+                      {
+                        "buy_products": [
+                          { "product_id": 1, "quantity": 3 },
+                          { "product_id": 2, "quantity": 3 }
+                        ],
+                        "get_products": [
+                          { "product_id": 3, "quantity": 1 }
+                        ],
+                        "repetition_limit": 2
+                      }
+                    """,
+            anyOf = {
+                    CartWiseDetails.class,
+                    ProductWiseDetails.class,
+                    BxGyDetails.class
+            },
+            required = true,
+            example = """
+                    { "threshold": 100, "discount": 10 }
+                    """
+    )
+    private JsonNode details;
+
+    @Schema(
+            description = "Start of the validity window (inclusive). Null means valid immediately.",
+            example = "2025-11-28T00:00:00Z"
+    )
+    private Instant startsAt;
+
+    @Schema(
+            description = "End of the validity window (exclusive). Null means the coupon never expires.",
+            example = "2025-12-01T00:00:00Z"
+    )
+    private Instant endsAt;
+
+    @Schema(
+            description = "Maximum number of times the coupon can be applied across all carts. Null means unlimited.",
+            example = "1000"
+    )
+    private Long maxRedemptions;
+
+    @Schema(
+            description = "Maximum total discount the coupon can grant across all carts. Null means unlimited.",
+            example = "50000.0"
+    )
+    private Double discountBudget;
+
+    @Schema(
+            description = "Maximum number of times a single customer can apply the coupon. Null means unlimited.",
+            example = "1"
+    )
+    private Long maxPerCustomer;
+
+    // Written only by the redemption ledger, never by coupon create/update
+    @Column(insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Redemptions used so far, as of the last flush of each node.", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long redemptionCount;
+
+    @Column(insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Total discount granted so far, as of the last flush of each node.", accessMode = Schema.AccessMode.READ_ONLY)
+    private Double discountSpent;
+
+    @Column(insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Redemptions leased to nodes and not used yet.", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long redemptionsLeased;
+
+    @Column(insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Discount budget leased to nodes and not granted yet.", accessMode = Schema.AccessMode.READ_ONLY)
+    private Double discountLeased;
+
+    // Compiled from type and details on first use, reset when either changes
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile CouponRule rule;
+
+    public void setType(String type) {
+        this.type = type;
+        this.rule = null;
+    }
+
+    public void setDetails(JsonNode details) {
+        this.details = details;
+        this.rule = null;
+    }
+
+    /**
+     * The coupon's discount rule, compiled once per type and details. Coupons of an unknown
+     * type get {@link CouponRule#NONE}.
+     */
+    @SuppressWarnings("unchecked")
+    public CouponRule rule() {
+        CouponRule compiled = rule;
+        if (compiled == null) {
+            try {
+                Map<String, Object> raw = details == null || !details.isObject()
+                        ? null
+                        : RULE_READER.convertValue(details, Map.class);
+                compiled = CouponRules.compile(type, raw);
+            } catch (IllegalArgumentException e) {
+                compiled = CouponRule.NONE;
+            }
+            rule = compiled;
+        }
+        return compiled;
+    }
+}
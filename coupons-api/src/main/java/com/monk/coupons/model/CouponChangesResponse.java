@@ -0,0 +1,33 @@
+package com.monk.coupons.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Coupons created, updated or deleted since a catalog version.")
+public class CouponChangesResponse {
+
+    @Schema(description = "Catalog version to pass as `since` on the next call.", example = "1732000000000042")
+    private Long version;
+
+    @Schema(description = "Node that issued `version`; pass it as `node` on the next call. "
+            + "Versions are per node, so a version sent to another node gets a full resync.",
+            example = "3f2a8c1e-5b7d-4e2a-9c61-0d8e7f4b2a90")
+    private String nodeId;
+
+    @Schema(description = "True when `since` is older than the change log, newer than this node's version, or issued by another node; `upserted` then holds the whole catalog and the local mirror should be replaced.")
+    private Boolean fullResync;
+
+    @Schema(description = "Coupons created or updated since the given version.")
+    private List<Coupon> upserted;
+
+    @Schema(description = "IDs of coupons deleted since the given version.", example = "[4, 7]")
+    private List<Long> deleted;
+}
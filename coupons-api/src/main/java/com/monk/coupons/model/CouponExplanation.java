@@ -0,0 +1,38 @@
+package com.monk.coupons.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Why one evaluated coupon did or did not apply to the cart.")
+public class CouponExplanation {
+
+    @Schema(example = "1")
+    private Long couponId;
+
+    @Schema(example = "cart-wise")
+    private String type;
+
+    @Schema(description = "APPLIED, EMPTY_CART, INVALID_RULE, BELOW_THRESHOLD, PRODUCT_NOT_IN_CART, "
+            + "BUY_QUANTITY_NOT_MET, FREE_PRODUCT_NOT_IN_CART or ZERO_DISCOUNT from the coupon's rule; "
+            + "REDEMPTION_LIMIT_REACHED when the coupon was skipped as used up; "
+            + "DEADLINE_EXCEEDED when time ran out before it was evaluated; "
+            + "NOT_ACTIVE when the coupon is outside its validity window. PRODUCT_NOT_IN_CART is also "
+            + "given, without evaluating, for coupons whose product is not in the cart.",
+            example = "BELOW_THRESHOLD")
+    private String reason;
+
+    @Schema(example = "0.0")
+    private Double discount;
+
+    @Schema(description = "Values the rule compared, by name. Product ids and quantities are integers.",
+            example = "{\"threshold\": 100.0, \"percent\": 10.0, \"cart_total\": 80.0}")
+    private Map<String, Number> values;
+}
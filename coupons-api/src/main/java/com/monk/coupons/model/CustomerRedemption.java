@@ -0,0 +1,41 @@
+package com.monk.coupons.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * How often a customer has redeemed a coupon, and how much of the customer's allowance
+ * nodes have leased and not used yet. Maintained by conditional updates from
+ * {@link com.monk.coupons.service.redemption.CustomerRedemptionStore}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(CustomerRedemption.Key.class)
+public class CustomerRedemption {
+
+    @Id
+    private String customerId;
+
+    @Id
+    private Long couponId;
+
+    private long redemptions;
+
+    private long leased;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String customerId;
+        private Long couponId;
+    }
+}
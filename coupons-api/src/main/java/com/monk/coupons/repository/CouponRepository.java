@@ -0,0 +1,81 @@
+package com.monk.coupons.repository;
+
+import com.monk.coupons.model.Coupon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CouponRepository extends JpaRepository<Coupon, Long> {
+
+    @Query("select c.id from Coupon c")
+    List<Long> findAllIds();
+
+    /**
+     * Adds to the persisted used totals and to the amounts leased to nodes, without reading
+     * or locking the row first.
+     */
+    @Modifying
+    @Query("""
+            update Coupon c
+               set c.redemptionCount = coalesce(c.redemptionCount, 0) + :count,
+                   c.discountSpent = coalesce(c.discountSpent, 0) + :discount,
+                   c.redemptionsLeased = coalesce(c.redemptionsLeased, 0) + :leasedCount,
+                   c.discountLeased = coalesce(c.discountLeased, 0) + :leasedDiscount
+             where c.id = :id
+            """)
+    int addRedemptions(@Param("id") Long id, @Param("count") long count, @Param("discount") double discount,
+                       @Param("leasedCount") long leasedCount, @Param("leasedDiscount") double leasedDiscount);
+
+    /**
+     * Leases {@code count} redemptions to the calling node if used and leased redemptions
+     * together stay within max_redemptions.
+     *
+     * @return 1 when the lease was granted
+     */
+    @Modifying
+    @Query("""
+            update Coupon c
+               set c.redemptionsLeased = coalesce(c.redemptionsLeased, 0) + :count
+             where c.id = :id
+               and (c.maxRedemptions is null
+                    or coalesce(c.redemptionCount, 0) + coalesce(c.redemptionsLeased, 0) + :count <= c.maxRedemptions)
+            """)
+    int leaseRedemptions(@Param("id") Long id, @Param("count") long count);
+
+    /**
+     * Leases {@code discount} of the budget to the calling node if spent and leased budget
+     * together stay within discount_budget, give or take half a cent of rounding.
+     *
+     * @return 1 when the lease was granted
+     */
+    @Modifying
+    @Query("""
+            update Coupon c
+               set c.discountLeased = coalesce(c.discountLeased, 0) + :discount
+             where c.id = :id
+               and (c.discountBudget is null
+                    or coalesce(c.discountSpent, 0) + coalesce(c.discountLeased, 0) + :discount <= c.discountBudget + 0.005)
+            """)
+    int leaseBudget(@Param("id") Long id, @Param("discount") double discount);
+
+    /**
+     * Redemptions neither used nor leased to any node; null when the coupon is gone or has no cap.
+     */
+    @Query("""
+            select c.maxRedemptions - coalesce(c.redemptionCount, 0) - coalesce(c.redemptionsLeased, 0)
+              from Coupon c where c.id = :id
+            """)
+    Long findUnleasedRedemptions(@Param("id") Long id);
+
+    /**
+     * Budget neither spent nor leased to any node; null when the coupon is gone or has no budget.
+     */
+    @Query("""
+            select c.discountBudget - coalesce(c.discountSpent, 0) - coalesce(c.discountLeased, 0)
+              from Coupon c where c.id = :id
+            """)
+    Double findUnleasedBudget(@Param("id") Long id);
+}
@@ -0,0 +1,60 @@
+package com.monk.coupons.repository;
+
+import com.monk.coupons.model.CustomerRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CustomerRedemptionRepository extends JpaRepository<CustomerRedemption, CustomerRedemption.Key> {
+
+    /**
+     * Leases {@code count} of the customer's allowance to the calling node if redeemed and
+     * leased together stay within {@code limit}; returns 0 when they would not, or the
+     * customer has no row yet.
+     */
+    @Modifying
+    @Query("""
+            update CustomerRedemption r
+               set r.leased = r.leased + :count
+             where r.customerId = :customerId and r.couponId = :couponId
+               and r.redemptions + r.leased + :count <= :limit
+            """)
+    int leaseWithin(@Param("customerId") String customerId, @Param("couponId") Long couponId,
+                    @Param("count") long count, @Param("limit") long limit);
+
+    /**
+     * Creates the row with a first lease; fails with a constraint violation when another
+     * node created it first.
+     */
+    @Modifying
+    @Query("""
+            insert into CustomerRedemption (customerId, couponId, redemptions, leased)
+            values (:customerId, :couponId, 0, :count)
+            """)
+    int insertLeased(@Param("customerId") String customerId, @Param("couponId") Long couponId,
+                     @Param("count") long count);
+
+    /**
+     * Redemptions used and leased together; null when the customer has no row.
+     */
+    @Query("""
+            select r.redemptions + r.leased from CustomerRedemption r
+             where r.customerId = :customerId and r.couponId = :couponId
+            """)
+    Long findTaken(@Param("customerId") String customerId, @Param("couponId") Long couponId);
+
+    /**
+     * Adds to the customer's redemptions and to the amount leased to nodes, without reading
+     * or locking the row first.
+     */
+    @Modifying
+    @Query("""
+            update CustomerRedemption r
+               set r.redemptions = r.redemptions + :count,
+                   r.leased = r.leased + :leased
+             where r.customerId = :customerId and r.couponId = :couponId
+            """)
+    int addRedemptions(@Param("customerId") String customerId, @Param("couponId") Long couponId,
+                       @Param("count") long count, @Param("leased") long leased);
+}
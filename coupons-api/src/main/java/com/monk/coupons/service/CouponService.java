@@ -0,0 +1,47 @@
+package com.monk.coupons.service;
+
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.CouponChangesResponse;
+
+public interface CouponService {
+
+    Coupon createCoupon(Coupon coupon);
+
+    Coupon getCouponById(Long id);
+
+    Coupon updateCoupon(Long id, Coupon updated);
+
+    void deleteCoupon(Long id);
+
+    long getCatalogVersion();
+
+    /**
+     * Node whose catalog versions {@link #getCatalogVersion()} and {@link #getChangesSince} hand out.
+     */
+    String getCatalogNodeId();
+
+    /**
+     * Every coupon in this node's catalog, as a full resync with the version it is complete
+     * up to. Read from memory, so it never lags behind the version the way a replica can.
+     */
+    CouponChangesResponse getCatalogSnapshot();
+
+    /**
+     * Coupons changed since {@code since}, a version issued by {@code nodeId}. Versions
+     * issued by another node, or not known to this node's change log, get a full resync.
+     */
+    CouponChangesResponse getChangesSince(String nodeId, long since);
+
+    ApplicableCouponsResponse getApplicableCoupons(Cart cart, Deadline deadline);
+
+    /**
+     * {@link #getApplicableCoupons(Cart, Deadline)}, with {@code explain} adding to the
+     * response why each coupon in the catalog did or did not apply.
+     */
+    ApplicableCouponsResponse getApplicableCoupons(Cart cart, Deadline deadline, boolean explain);
+
+    ApplyCouponResponse applyCoupon(Long couponId, Cart cart, String customerId);
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.monk.coupons.service.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many requests of one traffic class run at once.
+ * <p>
+ * Up to {@code maxConcurrent} callers run; up to {@code maxQueue} more wait at most
+ * {@code maxWait} for a slot, and anyone beyond that is rejected at once. A class can
+ * therefore never hold more than {@code maxConcurrent + maxQueue} worker threads, which
+ * leaves the rest of the server's pool to the other classes.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, Duration maxWait) {
+        if (maxConcurrent < 1 || maxQueue < 0) {
+            throw new IllegalArgumentException("Bulkhead '" + name + "' needs maxConcurrent >= 1 and maxQueue >= 0");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Claims a slot, waiting in the queue if there is room in it.
+     *
+     * @return false when the bulkhead is full or the wait timed out
+     */
+    public boolean tryEnter() {
+        if (permits.tryAcquire()) {
+            admitted.increment();
+            return true;
+        }
+        if (maxQueue == 0 || maxWaitNanos <= 0) {
+            rejected.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                admitted.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+            queueWaitNanos.add(System.nanoTime() - start);
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Total time callers spent waiting for a slot.
+     */
+    public Duration getQueueWaitTotal() {
+        return Duration.ofNanos(queueWaitNanos.sum());
+    }
+}
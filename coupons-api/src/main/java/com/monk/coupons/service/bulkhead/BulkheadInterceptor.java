@@ -0,0 +1,47 @@
+package com.monk.coupons.service.bulkhead;
+
+import com.monk.coupons.exception.ServiceOverloadedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Tags the request thread with its {@link TrafficClass} and admits it through that
+ * class's {@link Bulkhead}. Rejections surface as {@link ServiceOverloadedException}.
+ */
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String ENTERED = BulkheadInterceptor.class.getName() + ".entered";
+
+    private final TrafficClass trafficClass;
+    private final Bulkhead bulkhead;
+    private final Duration retryAfter;
+
+    public BulkheadInterceptor(TrafficClass trafficClass, Bulkhead bulkhead, Duration retryAfter) {
+        this.trafficClass = trafficClass;
+        this.bulkhead = bulkhead;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!bulkhead.tryEnter()) {
+            throw new ServiceOverloadedException(retryAfter);
+        }
+        request.setAttribute(ENTERED, Boolean.TRUE);
+        TrafficClass.bind(trafficClass);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ENTERED) != null) {
+            request.removeAttribute(ENTERED);
+            TrafficClass.clear();
+            bulkhead.exit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.monk.coupons.service.bulkhead;
+
+/**
+ * Kind of traffic the current thread is serving. Set per request by the bulkhead
+ * interceptor and read by the connection-pool partitioning.
+ */
+public enum TrafficClass {
+
+    /**
+     * Coupon evaluation on the checkout path; also the default for background work.
+     */
+    CHECKOUT,
+
+    /**
+     * Coupon administration (CRUD, exports, bulk updates).
+     */
+    ADMIN;
+
+    private static final ThreadLocal<TrafficClass> CURRENT = new ThreadLocal<>();
+
+    public static TrafficClass current() {
+        TrafficClass current = CURRENT.get();
+        return current == null ? CHECKOUT : current;
+    }
+
+    public static void bind(TrafficClass trafficClass) {
+        CURRENT.set(trafficClass);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
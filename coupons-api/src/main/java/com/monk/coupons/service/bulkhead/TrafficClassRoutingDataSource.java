@@ -0,0 +1,28 @@
+package com.monk.coupons.service.bulkhead;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from a separate pool per {@link TrafficClass}, so admin work can
+ * exhaust its own pool without taking connections from checkout.
+ */
+public class TrafficClassRoutingDataSource extends AbstractRoutingDataSource {
+
+    public TrafficClassRoutingDataSource(DataSource checkout, DataSource admin) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(TrafficClass.CHECKOUT, checkout);
+        targets.put(TrafficClass.ADMIN, admin);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(checkout);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TrafficClass.current();
+    }
+}
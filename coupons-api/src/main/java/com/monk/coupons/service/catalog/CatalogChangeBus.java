@@ -0,0 +1,21 @@
+package com.monk.coupons.service.catalog;
+
+import java.util.function.Consumer;
+
+public interface CatalogChangeBus {
+
+    /**
+     * Publishes a change to every subscriber, including other nodes.
+     *
+     * @param event the change made on this node
+     */
+    void publish(CatalogChangeEvent event);
+
+    /**
+     * Registers a listener for changes. Listeners also receive events published
+     * by their own node and are expected to ignore them.
+     *
+     * @param listener callback invoked for each received event
+     */
+    void subscribe(Consumer<CatalogChangeEvent> listener);
+}
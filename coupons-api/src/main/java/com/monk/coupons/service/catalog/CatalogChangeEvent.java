@@ -0,0 +1,45 @@
+package com.monk.coupons.service.catalog;
+
+import lombok.Value;
+
+/**
+ * Version-bump/invalidate message published whenever a node changes a coupon.
+ */
+@Value
+public class CatalogChangeEvent {
+
+    public enum Type {
+        UPSERTED,
+        DELETED
+    }
+
+    /** Node id of the catalog that made the change. */
+    String origin;
+
+    /** Catalog version on the origin node after the change. */
+    long version;
+
+    Long couponId;
+
+    Type type;
+
+    /**
+     * Encodes the event as a single line, e.g. {@code origin|12|UPSERTED|3}.
+     */
+    public String encode() {
+        return origin + "|" + version + "|" + type + "|" + couponId;
+    }
+
+    public static CatalogChangeEvent decode(String line) {
+        String[] parts = line.trim().split("\\|");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed catalog change event: " + line);
+        }
+        return new CatalogChangeEvent(
+                parts[0],
+                Long.parseLong(parts[1]),
+                Long.valueOf(parts[3]),
+                Type.valueOf(parts[2])
+        );
+    }
+}
@@ -0,0 +1,59 @@
+package com.monk.coupons.service.catalog;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Fixed-size ring of (version, coupon id) pairs recording which coupons changed at
+ * which catalog version. Once full, the oldest entry is overwritten and the log no
+ * longer covers versions at or before it.
+ */
+class CatalogChangeLog {
+
+    private final long[] versions;
+    private final long[] couponIds;
+    private int next;
+    private int size;
+
+    /** Highest version the log cannot answer "what changed since" for. */
+    private long floor;
+
+    CatalogChangeLog(int capacity, long initialVersion) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Change log size must be positive");
+        }
+        this.versions = new long[capacity];
+        this.couponIds = new long[capacity];
+        this.floor = initialVersion;
+    }
+
+    synchronized void append(long version, long couponId) {
+        if (size == versions.length) {
+            floor = versions[next];
+        } else {
+            size++;
+        }
+        versions[next] = version;
+        couponIds[next] = couponId;
+        next = (next + 1) % versions.length;
+    }
+
+    /**
+     * Ids of coupons changed after the given version, oldest change first,
+     * or null when the log no longer reaches back that far.
+     */
+    synchronized Set<Long> changedSince(long version) {
+        if (version < floor) {
+            return null;
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        int start = (next - size + versions.length) % versions.length;
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % versions.length;
+            if (versions[slot] > version) {
+                ids.add(couponIds[slot]);
+            }
+        }
+        return ids;
+    }
+}
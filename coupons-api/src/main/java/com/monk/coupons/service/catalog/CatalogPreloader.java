@@ -0,0 +1,31 @@
+package com.monk.coupons.service.catalog;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the catalog and compiles every coupon's rule at startup.
+ * <p>
+ * Application runners finish before Spring Boot moves readiness to
+ * {@code ACCEPTING_TRAFFIC}, so {@code /actuator/health/readiness} stays down until the
+ * catalog is in memory and the first evaluation does not pay for the table scan.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupons.catalog.preload", havingValue = "true", matchIfMissing = true)
+public class CatalogPreloader implements ApplicationRunner {
+
+    private final CouponCatalog catalog;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        int coupons = catalog.size();
+        log.info("Catalog preloaded: {} coupons in {} ms", coupons, (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,570 @@
+package com.monk.coupons.service.catalog;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.monk.coupons.config.ApplicableCouponSerializer;
+import com.monk.coupons.config.CatalogProperties;
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.repository.CouponRepository;
+import com.monk.coupons.service.profiling.CatalogRebuildEvent;
+import lombok.Getter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory view of the coupon table used by the evaluation path.
+ * <p>
+ * Coupons are indexed by the product that can trigger them (product-wise target,
+ * first BxGy buy product), so a cart only evaluates the coupons its products can
+ * match plus the coupons that apply to any cart. Changes made on other nodes arrive
+ * through the {@link CatalogChangeBus} and only mark the affected ids as stale.
+ * <p>
+ * Only coupons inside their validity window are in the index (the active set). A
+ * {@link HierarchicalTimingWheel} moves coupons in and out of it as their start and end
+ * times pass, so evaluation never compares timestamps.
+ * <p>
+ * Versions count changes on this node only and start from the node's start time in
+ * microseconds. A version is only meaningful together with the {@link #getNodeId() node id}
+ * that issued it: versions from other nodes, or from an earlier incarnation of this one,
+ * cannot be compared with this node's change log.
+ * <p>
+ * Once loaded, the catalog also knows every coupon id in the table, so lookups of ids
+ * that do not exist are answered without a database round trip. That set only learns of
+ * coupons created elsewhere through the bus, so a few misses per second are double-checked
+ * against the primary, and the set is rebuilt from the primary periodically.
+ * <p>
+ * Every read goes to the primary in a read-write transaction of its own, even when the
+ * caller is inside a read-only transaction routed to a replica, so a lagging replica can
+ * neither cache an outdated row nor report a new coupon as missing. A row read outside the
+ * lock is only indexed if the coupon did not change on this node while it was being read,
+ * so a slow load cannot bring back a coupon that was deleted or invalidated meanwhile.
+ * <p>
+ * Writers are serialized by a {@link ReentrantLock} rather than the object monitor: the
+ * initial load reads the whole table while holding it, and a virtual thread blocked on
+ * that read inside {@code synchronized} would pin its carrier thread.
+ */
+@Component
+public class CouponCatalog {
+
+    private final CouponRepository repository;
+    private final TransactionOperations transactions;
+    private final Clock clock;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicLong version;
+    private final CatalogChangeLog changeLog;
+    private final HierarchicalTimingWheel<Transition> validityWheel;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Long>> productIndex = new ConcurrentHashMap<>();
+    private final Set<Long> unindexed = ConcurrentHashMap.newKeySet();
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+    private final long knownIdsBitmapRange;
+    private final long missConfirmationIntervalMillis;
+    private final AtomicLong nextMissConfirmation = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Replaced whole by a resync; written under the lock
+    private volatile CouponIdBitmap knownIds;
+
+    private volatile boolean loaded;
+
+    /**
+     * @param transactions must start a read-write transaction of its own, so loads read the primary
+     */
+    public CouponCatalog(CouponRepository repository, TransactionOperations transactions, CatalogChangeBus changeBus,
+                         CatalogProperties properties, Clock clock) {
+        this.repository = repository;
+        this.transactions = transactions;
+        this.clock = clock;
+        this.version = new AtomicLong(clock.millis() * 1000);
+        this.changeLog = new CatalogChangeLog(properties.getChangeLogSize(), version.get());
+        this.validityWheel = new HierarchicalTimingWheel<>(
+                properties.getValidityTickMillis(), properties.getValidityWheelSize(), clock.millis());
+        this.knownIdsBitmapRange = properties.getKnownIdsBitmapRange();
+        this.knownIds = new CouponIdBitmap(1024, knownIdsBitmapRange);
+        int confirmations = properties.getMissConfirmationsPerSecond();
+        this.missConfirmationIntervalMillis = confirmations > 0 ? 1000 / confirmations : -1;
+        changeBus.subscribe(this::onChange);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int size() {
+        ensureLoaded();
+        return entries.size();
+    }
+
+    /**
+     * Coupons currently held, without loading the catalog first; 0 before the initial load.
+     * For meters and other observers that must not trigger a database read.
+     */
+    public int loadedSize() {
+        return entries.size();
+    }
+
+    /**
+     * Whether the coupon is currently inside its validity window.
+     */
+    public boolean isActive(Long id) {
+        Entry entry = entries.get(id);
+        return entry != null && entry.active;
+    }
+
+    /**
+     * Whether a coupon with this id may exist. False only once the catalog is loaded,
+     * the id is neither in the table nor announced by another node, and either the primary
+     * confirms it is missing or the miss confirmation budget for this second is spent.
+     */
+    public boolean mightExist(Long id) {
+        return !loaded || knownIds.contains(id) || confirmMiss(id);
+    }
+
+    /**
+     * Rebuilds the set of known ids from the primary, so ids whose announcement was lost
+     * are found again.
+     */
+    @Scheduled(fixedDelayString = "${coupons.catalog.known-ids-resync-millis:60000}")
+    public void resyncKnownIds() {
+        if (!loaded) {
+            return;
+        }
+        long readFrom = version.get();
+        List<Long> ids = transactions.execute(status -> repository.findAllIds());
+        if (ids == null) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            Set<Long> changed = changeLog.changedSince(readFrom);
+            if (changed == null) {
+                // Cannot tell deletes from changes made during the read; only add
+                ids.forEach(knownIds::add);
+                return;
+            }
+            CouponIdBitmap rebuilt = new CouponIdBitmap(1024, knownIdsBitmapRange);
+            ids.forEach(rebuilt::add);
+            // Changes made on this node while the ids were read win over the read
+            for (Long id : changed) {
+                if (knownIds.contains(id)) {
+                    rebuilt.add(id);
+                } else {
+                    rebuilt.remove(id);
+                }
+            }
+            knownIds = rebuilt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The coupon's id and type members pre-encoded for evaluation responses, or null when
+     * the catalog no longer holds this version of the coupon.
+     */
+    public SerializableString jsonPrefix(Coupon coupon) {
+        Entry entry = entries.get(coupon.getId());
+        return entry != null && entry.coupon == coupon ? entry.jsonPrefix : null;
+    }
+
+    /**
+     * Activates and expires coupons whose window boundaries have passed.
+     */
+    @Scheduled(fixedRateString = "${coupons.catalog.validity-tick-millis:1000}")
+    public void advanceValidity() {
+        lock.lock();
+        try {
+            validityWheel.advanceTo(clock.millis(), this::onTransition);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the coupons that can possibly apply to the cart, ordered by id.
+     */
+    public List<Coupon> candidatesFor(Cart cart) {
+        ensureLoaded();
+
+        Set<Long> ids = new HashSet<>(unindexed);
+        CompactCart lines = cart != null ? cart.compact() : CompactCart.EMPTY;
+        for (int i = 0; i < lines.size(); i++) {
+            Set<Long> matching = productIndex.get(lines.productId(i));
+            if (matching != null) {
+                ids.addAll(matching);
+            }
+        }
+
+        List<Coupon> candidates = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                candidates.add(entry.coupon);
+            }
+        }
+        candidates.sort(Comparator.comparing(Coupon::getId));
+        return candidates;
+    }
+
+    /**
+     * Every coupon held, active or not, ordered by id. Evaluation only reads
+     * {@link #candidatesFor}; this is for listing the catalog and explaining the coupons
+     * evaluation left out.
+     */
+    public List<Coupon> allCoupons() {
+        ensureLoaded();
+
+        List<Coupon> coupons = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            coupons.add(entry.coupon);
+        }
+        coupons.sort(Comparator.comparing(Coupon::getId));
+        return coupons;
+    }
+
+    /**
+     * Every coupon held, ordered by id, with a version the list is complete up to. The
+     * version is read before the list, so coupons changed after it may be missing or newer
+     * than it; {@link #changesSince} reports each of them.
+     */
+    public Snapshot snapshot() {
+        long current = version.get();
+        return new Snapshot(current, allCoupons());
+    }
+
+    /**
+     * Looks up a coupon, falling back to the repository for ids not cached yet.
+     */
+    public Optional<Coupon> find(Long id) {
+        refreshStale();
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            return Optional.of(entry.coupon);
+        }
+        if (!mightExist(id)) {
+            return Optional.empty();
+        }
+
+        long readFrom = version.get();
+        Optional<Coupon> coupon = load(id);
+        lock.lock();
+        try {
+            if (apply(id, coupon, readFrom)) {
+                return coupon;
+            }
+            // Changed while we read it: answer with what the catalog holds now
+            entry = entries.get(id);
+            if (entry != null) {
+                return Optional.of(entry.coupon);
+            }
+            return knownIds.contains(id) ? coupon : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a coupon saved on this node.
+     *
+     * @return the new catalog version
+     */
+    public long upsert(Coupon coupon) {
+        lock.lock();
+        try {
+            index(coupon);
+            changeLog.append(version.get(), coupon.getId());
+            return version.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a coupon deleted on this node.
+     *
+     * @return the new catalog version
+     */
+    public long remove(Long id) {
+        lock.lock();
+        try {
+            unindex(id);
+            knownIds.remove(id);
+            changeLog.append(version.get(), id);
+            return version.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops a single coupon from the catalog; it is reloaded on next access.
+     */
+    public void invalidate(Long id) {
+        lock.lock();
+        try {
+            unindex(id);
+            // May be a coupon created on another node; the reload settles whether it exists
+            knownIds.add(id);
+            stale.add(id);
+            changeLog.append(version.get(), id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The current version and the coupons changed after {@code since}, read under the
+     * writer lock so the ids include every change up to the returned version.
+     * <p>
+     * The ids are null when this node cannot answer: {@code since} is older than the change
+     * log, or newer than the current version, so it was not issued by this node.
+     */
+    public ChangeSet changesSince(long since) {
+        lock.lock();
+        try {
+            long current = version.get();
+            return new ChangeSet(current, since > current ? null : changeLog.changedSince(since));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onChange(CatalogChangeEvent event) {
+        if (!nodeId.equals(event.getOrigin())) {
+            invalidate(event.getCouponId());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            lock.lock();
+            try {
+                if (!loaded) {
+                    CatalogRebuildEvent event = new CatalogRebuildEvent();
+                    event.begin();
+                    List<Coupon> all = transactions.execute(status -> repository.findAll());
+                    all.forEach(this::index);
+                    stale.clear();
+                    loaded = true;
+                    commit(event, CatalogRebuildEvent.INITIAL_LOAD, entries.size());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        refreshStale();
+    }
+
+    private void refreshStale() {
+        if (stale.isEmpty()) {
+            return;
+        }
+        CatalogRebuildEvent event = new CatalogRebuildEvent();
+        event.begin();
+        int reloaded = 0;
+        for (Long id : List.copyOf(stale)) {
+            long readFrom = version.get();
+            if (stale.remove(id)) {
+                Optional<Coupon> coupon = load(id);
+                lock.lock();
+                try {
+                    if (!apply(id, coupon, readFrom)) {
+                        stale.add(id); // read it again on the next refresh
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                reloaded++;
+            }
+        }
+        commit(event, CatalogRebuildEvent.STALE_REFRESH, reloaded);
+    }
+
+    private boolean confirmMiss(Long id) {
+        long now = clock.millis();
+        long next = nextMissConfirmation.get();
+        if (missConfirmationIntervalMillis < 0 || now < next
+                || !nextMissConfirmation.compareAndSet(next, now + missConfirmationIntervalMillis)) {
+            return false;
+        }
+        Boolean exists = transactions.execute(status -> repository.existsById(id));
+        if (!Boolean.TRUE.equals(exists)) {
+            return false;
+        }
+        lock.lock();
+        try {
+            knownIds.add(id);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private Optional<Coupon> load(Long id) {
+        Optional<Coupon> coupon = transactions.execute(status -> repository.findById(id));
+        return coupon != null ? coupon : Optional.empty();
+    }
+
+    /**
+     * Indexes a row read after {@code readFrom}, or forgets the id when the row was gone,
+     * unless the coupon changed on this node since then; must hold the lock.
+     *
+     * @return false when the row was discarded as outdated
+     */
+    private boolean apply(Long id, Optional<Coupon> coupon, long readFrom) {
+        Set<Long> changed = changeLog.changedSince(readFrom);
+        if (changed == null || changed.contains(id) || stale.contains(id)) {
+            return false;
+        }
+        coupon.ifPresentOrElse(this::index, () -> knownIds.remove(id));
+        return true;
+    }
+
+    private void commit(CatalogRebuildEvent event, String reason, int loaded) {
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.couponsLoaded = loaded;
+            event.catalogSize = entries.size();
+            event.catalogVersion = version.get();
+            event.commit();
+        }
+    }
+
+    private void index(Coupon coupon) {
+        lock.lock();
+        try {
+            removeFromIndex(coupon.getId());
+
+            Entry entry = new Entry(coupon, coupon.rule().triggerProduct());
+            entries.put(coupon.getId(), entry);
+            knownIds.add(coupon.getId());
+
+            // Coupons that have not started join the active set when the wheel reaches startsAt
+            Instant startsAt = coupon.getStartsAt();
+            boolean pending = startsAt != null
+                    && validityWheel.schedule(startsAt.toEpochMilli(), new Transition(entry, true));
+            if (!pending && scheduleExpiry(entry)) {
+                activate(entry);
+            }
+            version.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedules the end of the coupon's window.
+     *
+     * @return false when the window is already over
+     */
+    private boolean scheduleExpiry(Entry entry) {
+        Instant endsAt = entry.coupon.getEndsAt();
+        return endsAt == null || validityWheel.schedule(endsAt.toEpochMilli(), new Transition(entry, false));
+    }
+
+    private void onTransition(Transition transition) {
+        Entry entry = transition.entry;
+        if (entries.get(entry.coupon.getId()) != entry) {
+            return; // coupon was updated or removed since this was scheduled
+        }
+        if (transition.activate) {
+            if (!scheduleExpiry(entry)) {
+                return;
+            }
+            activate(entry);
+        } else {
+            deactivate(entry);
+        }
+        version.incrementAndGet();
+        changeLog.append(version.get(), entry.coupon.getId());
+    }
+
+    private void activate(Entry entry) {
+        Long id = entry.coupon.getId();
+        if (entry.productKey == null) {
+            unindexed.add(id);
+        } else {
+            productIndex.computeIfAbsent(entry.productKey, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        entry.active = true;
+    }
+
+    private void deactivate(Entry entry) {
+        entry.active = false;
+        Long id = entry.coupon.getId();
+        if (entry.productKey == null) {
+            unindexed.remove(id);
+            return;
+        }
+        Set<Long> ids = productIndex.get(entry.productKey);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                productIndex.remove(entry.productKey, ids);
+            }
+        }
+    }
+
+    private void unindex(Long id) {
+        removeFromIndex(id);
+        version.incrementAndGet();
+    }
+
+    private void removeFromIndex(Long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null && previous.active) {
+            deactivate(previous);
+        }
+    }
+
+    private static final class Entry {
+        private final Coupon coupon;
+        private final Integer productKey;
+        private final SerializableString jsonPrefix;
+        private volatile boolean active;
+
+        private Entry(Coupon coupon, Integer productKey) {
+            this.coupon = coupon;
+            this.productKey = productKey;
+            this.jsonPrefix = ApplicableCouponSerializer.prefix(coupon.getId(), coupon.getType());
+        }
+    }
+
+    private record Transition(Entry entry, boolean activate) {
+    }
+
+    /**
+     * @param version    the catalog version the ids are complete up to
+     * @param changedIds coupons created, updated or deleted since the requested version,
+     *                   oldest change first; null when a full resync is needed
+     */
+    public record ChangeSet(long version, Set<Long> changedIds) {
+    }
+
+    /**
+     * @param version the catalog version {@code coupons} includes every change up to
+     * @param coupons every coupon held, ordered by id
+     */
+    public record Snapshot(long version, List<Coupon> coupons) {
+    }
+}
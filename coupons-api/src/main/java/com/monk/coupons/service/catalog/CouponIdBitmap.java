@@ -0,0 +1,79 @@
+package com.monk.coupons.service.catalog;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of coupon ids kept as one bit per id.
+ * <p>
+ * Ids come from an identity column, so they are small and dense and a bitmap answers
+ * membership exactly, including after deletes, for an eighth of a byte per id. The
+ * array grows as higher ids are added, up to {@code maxBitmapId}; ids that are negative
+ * or beyond that range are kept in a side set instead, so one stray large id cannot make
+ * the bitmap allocate memory for every id below it.
+ * <p>
+ * Reads are lock-free; writers are serialized.
+ */
+final class CouponIdBitmap {
+
+    private static final long MAX_BITMAP_ID = (long) Integer.MAX_VALUE << 6;
+
+    private final long maxBitmapId;
+    private volatile AtomicLongArray words;
+    private final Set<Long> outliers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param maxBitmapId ids from here on go to the side set; caps the bitmap at
+     *                    {@code maxBitmapId / 8} bytes
+     */
+    CouponIdBitmap(int initialCapacity, long maxBitmapId) {
+        this.maxBitmapId = Math.max(1, Math.min(maxBitmapId, MAX_BITMAP_ID));
+        this.words = new AtomicLongArray((int) Math.max(1, (Math.min(initialCapacity, this.maxBitmapId) + 63) >>> 6));
+    }
+
+    boolean contains(long id) {
+        if (id < 0 || id >= maxBitmapId) {
+            return outliers.contains(id);
+        }
+        AtomicLongArray current = words;
+        int word = (int) (id >>> 6);
+        return word < current.length() && (current.get(word) & (1L << id)) != 0;
+    }
+
+    synchronized void add(long id) {
+        if (id < 0 || id >= maxBitmapId) {
+            outliers.add(id);
+            return;
+        }
+        int word = (int) (id >>> 6);
+        AtomicLongArray current = words;
+        if (word >= current.length()) {
+            current = grow(current, word);
+        }
+        current.set(word, current.get(word) | (1L << id));
+    }
+
+    synchronized void remove(long id) {
+        if (id < 0 || id >= maxBitmapId) {
+            outliers.remove(id);
+            return;
+        }
+        AtomicLongArray current = words;
+        int word = (int) (id >>> 6);
+        if (word < current.length()) {
+            current.set(word, current.get(word) & ~(1L << id));
+        }
+    }
+
+    private AtomicLongArray grow(AtomicLongArray current, int word) {
+        long maxWords = (maxBitmapId + 63) >>> 6;
+        int length = (int) Math.min(maxWords, Math.max((long) word + 1, current.length() * 2L));
+        AtomicLongArray grown = new AtomicLongArray(length);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        words = grown;
+        return grown;
+    }
+}
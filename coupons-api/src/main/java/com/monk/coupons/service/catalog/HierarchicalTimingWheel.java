@@ -0,0 +1,140 @@
+package com.monk.coupons.service.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck) for scheduling items far into the future
+ * with O(1) insertion and O(1) amortised work per tick.
+ * <p>
+ * Level 0 has one slot per tick; each higher level has one slot per full rotation of the
+ * level below it. When a lower level wraps, the matching slot of the level above is
+ * cascaded down. Levels are added on demand, so a wheel of 60 one-second slots covers a
+ * minute with one level, an hour with two and about 60 hours with three.
+ * <p>
+ * Items fire on the first tick at or after their deadline, i.e. up to one tick late and
+ * never early. Not thread-safe; callers serialise access.
+ */
+class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<List<Slot<T>>[]> levels = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Tick must be positive and wheel size at least 2");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules an item.
+     *
+     * @return false when the deadline has already passed; the item is then not scheduled
+     */
+    boolean schedule(long deadlineMillis, T item) {
+        long dueTick = -Math.floorDiv(-deadlineMillis, tickMillis);
+        if (dueTick <= currentTick) {
+            return false;
+        }
+        place(new Slot<>(dueTick, item));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to the given time, handing every item that became due to
+     * the consumer in deadline order (tick granularity).
+     */
+    void advanceTo(long nowMillis, Consumer<T> onDue) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade(onDue);
+            drain(levelSlots(0), slot(currentTick, 0), onDue);
+        }
+    }
+
+    private void cascade(Consumer<T> onDue) {
+        // Find the highest level whose slot boundary we just crossed, then redistribute
+        // from the top down so items settle into the right lower-level slots.
+        int top = 0;
+        long span = wheelSize;
+        while (top + 1 < levels.size() && currentTick % span == 0) {
+            top++;
+            span *= wheelSize;
+        }
+        for (int level = top; level >= 1; level--) {
+            List<Slot<T>>[] slots = levels.get(level);
+            int index = slot(currentTick, level);
+            List<Slot<T>> moving = slots[index];
+            if (moving == null || moving.isEmpty()) {
+                continue;
+            }
+            slots[index] = null;
+            for (Slot<T> entry : moving) {
+                if (entry.dueTick <= currentTick) {
+                    size--;
+                    onDue.accept(entry.item);
+                } else {
+                    place(entry);
+                }
+            }
+        }
+    }
+
+    private void drain(List<Slot<T>>[] slots, int index, Consumer<T> onDue) {
+        List<Slot<T>> due = slots[index];
+        if (due == null || due.isEmpty()) {
+            return;
+        }
+        slots[index] = null;
+        size -= due.size();
+        due.forEach(entry -> onDue.accept(entry.item));
+    }
+
+    private void place(Slot<T> entry) {
+        long delta = entry.dueTick - currentTick;
+        int level = 0;
+        long span = wheelSize;
+        while (delta >= span) {
+            level++;
+            span *= wheelSize;
+        }
+        List<Slot<T>>[] slots = levelSlots(level);
+        int index = slot(entry.dueTick, level);
+        if (slots[index] == null) {
+            slots[index] = new ArrayList<>();
+        }
+        slots[index].add(entry);
+    }
+
+    private int slot(long tick, int level) {
+        long unit = 1;
+        for (int i = 0; i < level; i++) {
+            unit *= wheelSize;
+        }
+        return (int) Math.floorMod(tick / unit, (long) wheelSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Slot<T>>[] levelSlots(int level) {
+        while (levels.size() <= level) {
+            levels.add(new List[wheelSize]);
+        }
+        return levels.get(level);
+    }
+
+    private record Slot<T>(long dueTick, T item) {
+    }
+}
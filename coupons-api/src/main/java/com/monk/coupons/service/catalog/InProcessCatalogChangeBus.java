@@ -0,0 +1,24 @@
+package com.monk.coupons.service.catalog;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events synchronously to listeners in the same JVM. Used for single-node
+ * deployments and for tests that wire several catalogs to one bus.
+ */
+public class InProcessCatalogChangeBus implements CatalogChangeBus {
+
+    private final List<Consumer<CatalogChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CatalogChangeEvent event) {
+        listeners.forEach(l -> l.accept(event));
+    }
+
+    @Override
+    public void subscribe(Consumer<CatalogChangeEvent> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,84 @@
+package com.monk.coupons.service.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Fans events out as UDP datagrams to a fixed list of peers. Intended for running
+ * several nodes on one machine; delivery is best effort, like any UDP traffic.
+ */
+@Slf4j
+public class UdpCatalogChangeBus implements CatalogChangeBus, AutoCloseable {
+
+    private static final int MAX_PACKET_SIZE = 512;
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers;
+    private final List<Consumer<CatalogChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver;
+
+    public UdpCatalogChangeBus(int bindPort, List<InetSocketAddress> peers) throws SocketException {
+        this.socket = new DatagramSocket(new InetSocketAddress("localhost", bindPort));
+        this.peers = List.copyOf(peers);
+        this.receiver = new Thread(this::receiveLoop, "catalog-bus-udp-" + socket.getLocalPort());
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void publish(CatalogChangeEvent event) {
+        byte[] payload = event.encode().getBytes(StandardCharsets.UTF_8);
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(payload, payload.length, peer));
+            } catch (IOException e) {
+                log.warn("Failed to send catalog change to {}: {}", peer, e.getMessage());
+            }
+        }
+        // Local listeners get the event directly, the same as with the in-process bus
+        listeners.forEach(l -> l.accept(event));
+    }
+
+    @Override
+    public void subscribe(Consumer<CatalogChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        receiver.interrupt();
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                String line = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
+                CatalogChangeEvent event = CatalogChangeEvent.decode(line);
+                listeners.forEach(l -> l.accept(event));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Catalog bus receive failed: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Dropping catalog change event: {}", e.getMessage());
+            }
+        }
+    }
+}
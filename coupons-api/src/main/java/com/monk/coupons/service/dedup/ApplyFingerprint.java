@@ -0,0 +1,8 @@
+package com.monk.coupons.service.dedup;
+
+/**
+ * What an idempotency key on apply-coupon is bound to; a retry must repeat it exactly,
+ * whichever front end it arrives through.
+ */
+public record ApplyFingerprint(Long couponId, String customerId, CartFingerprint cart) {
+}
@@ -0,0 +1,16 @@
+package com.monk.coupons.service.dedup;
+
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.model.Cart;
+
+/**
+ * Value copy of the evaluation-relevant parts of a cart, for use as a map key. A copy
+ * because applying a coupon writes discounts back into the cart items; a parsed cart's
+ * lines are immutable and are used as they are.
+ */
+public record CartFingerprint(CompactCart lines) {
+
+    public static CartFingerprint of(Cart cart) {
+        return new CartFingerprint(cart == null ? CompactCart.EMPTY : cart.compact());
+    }
+}
@@ -0,0 +1,47 @@
+package com.monk.coupons.service.dedup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Waits for a result computed by another caller, rethrowing its exception as-is so
+     * error mapping is the same for every caller.
+     */
+    static <V> V join(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for {@code result} for at most {@code nanos}.
+     *
+     * @return false when it is still running, or the wait was interrupted
+     */
+    static boolean await(CompletableFuture<?> result, long nanos) {
+        try {
+            result.get(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+}
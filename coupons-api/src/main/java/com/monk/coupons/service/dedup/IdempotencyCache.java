@@ -0,0 +1,154 @@
+package com.monk.coupons.service.dedup;
+
+import com.monk.coupons.exception.RequestInProgressException;
+import com.monk.coupons.service.Deadline;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of requests by client-supplied idempotency key.
+ * <p>
+ * The first request for a key runs the action; a retry with the same key gets the stored
+ * result, and a retry that arrives while the first is still running waits for it instead
+ * of running the action again, for at most {@code maxWait} or its own deadline, then gives
+ * up with {@link RequestInProgressException}. Failed actions are not remembered, so the
+ * client can retry them. Entries expire after the TTL; beyond {@code maxEntries} the oldest are evicted.
+ * <p>
+ * Entries are kept in insertion order under a lock held only for map operations. Every
+ * entry lives for the same TTL, so insertion order is also expiry order: each insert sweeps
+ * the expired entries off the head and evicts overflow from there, in constant time per
+ * entry removed.
+ *
+ * @param <V> the result type
+ */
+public class IdempotencyCache<V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long maxWaitNanos;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+
+    public IdempotencyCache(int maxEntries, Duration ttl, Duration maxWait, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs the action once per key.
+     *
+     * @param fingerprint identifies the request the key was first used with; reusing a key
+     *                    for a different request is rejected
+     * @throws IllegalArgumentException   when the key was used with a different request
+     * @throws RequestInProgressException when the first request with the key is still running
+     *                                    after {@code maxWait}
+     */
+    public V execute(String key, Object fingerprint, Supplier<V> action) {
+        return execute(key, fingerprint, Deadline.none(), action);
+    }
+
+    /**
+     * Like {@link #execute(String, Object, Supplier)}, but a retry waits for the first request
+     * no longer than {@code deadline} either.
+     */
+    public V execute(String key, Object fingerprint, Deadline deadline, Supplier<V> action) {
+        long now = clock.millis();
+        Entry<V> claim = new Entry<>(fingerprint, new CompletableFuture<>(), now + ttlMillis);
+
+        Entry<V> existing;
+        lock.lock();
+        try {
+            sweepExpired(now);
+            existing = entries.get(key);
+            if (existing != null && existing.expiresAt <= now && existing.result.isDone()) {
+                entries.remove(key);
+                existing = null;
+            }
+            if (existing == null) {
+                entries.put(key, claim);
+                evictOverflow();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (existing == null) {
+            return run(key, claim, action);
+        }
+        if (!existing.fingerprint.equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency-Key '" + key + "' was already used for a different request.");
+        }
+        if (!Futures.await(existing.result, Math.min(maxWaitNanos, deadline.remainingNanos()))) {
+            throw new RequestInProgressException(key);
+        }
+        return Futures.join(existing.result);
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private V run(String key, Entry<V> claim, Supplier<V> action) {
+        try {
+            V value = action.get();
+            claim.result.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            forget(key, claim);
+            claim.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void forget(String key, Entry<V> entry) {
+        lock.lock();
+        try {
+            entries.remove(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stops at the first live entry: everything after it was inserted later
+    private void sweepExpired(long now) {
+        Iterator<Entry<V>> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            Entry<V> entry = oldest.next();
+            if (entry.expiresAt > now) {
+                return;
+            }
+            // Still running past its TTL: waiters need it until it completes
+            if (entry.result.isDone()) {
+                oldest.remove();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry<V>> oldest = entries.values().iterator();
+        while (entries.size() > maxEntries && oldest.hasNext()) {
+            oldest.next();
+            // Waiters hold the future itself, so evicting an in-flight entry is harmless
+            oldest.remove();
+        }
+    }
+
+    private record Entry<V>(Object fingerprint, CompletableFuture<V> result, long expiresAt) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.monk.coupons.service.dedup;
+
+import com.monk.coupons.service.Deadline;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution.
+ * <p>
+ * The first caller for a key runs the action; callers arriving while it runs wait for
+ * and share its result (or exception). Nothing is kept once the action finishes, so this
+ * only absorbs bursts of identical requests and never serves stale results.
+ * <p>
+ * Callers with their own deadline wait only until it passes, and may refuse a result they
+ * should not share (one cut short by the leader's deadline); either way they run the action
+ * themselves.
+ *
+ * @param <K> the request key; must implement value equality
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(K key, Supplier<V> action) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return Futures.join(existing);
+        }
+        return lead(key, flight, action);
+    }
+
+    /**
+     * Like {@link #execute(Object, Supplier)}, but a caller arriving while the action runs
+     * waits for it no longer than {@code deadline} and only takes a result that passes
+     * {@code shareable}; otherwise it runs the action on its own, outside the group.
+     */
+    public V execute(K key, Deadline deadline, Supplier<V> action, Predicate<? super V> shareable) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            return lead(key, flight, action);
+        }
+
+        // Counted while waiting, like the plain execute, and taken back if not shared
+        coalesced.increment();
+        if (Futures.await(existing, deadline.remainingNanos())) {
+            V shared = Futures.join(existing);
+            if (shareable.test(shared)) {
+                return shared;
+            }
+        }
+        coalesced.decrement();
+        executions.increment();
+        return action.get();
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> action) {
+        executions.increment();
+        try {
+            V value = action.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Calls that ran the action.
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * Calls that shared another call's result instead of running the action.
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,461 @@
+package com.monk.coupons.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monk.coupons.config.EvaluationProperties;
+import com.monk.coupons.config.ProfilingProperties;
+import com.monk.coupons.engine.CartSummary;
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.engine.DiscountReason;
+import com.monk.coupons.engine.RuleTrace;
+import com.monk.coupons.exception.CouponNotFoundException;
+import com.monk.coupons.exception.RedemptionLimitExceededException;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.model.ApplicableCoupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.ApplyCouponResponse.UpdatedCart;
+import com.monk.coupons.model.CouponChangesResponse;
+import com.monk.coupons.model.CouponExplanation;
+import com.monk.coupons.repository.CouponRepository;
+import com.monk.coupons.service.CouponService;
+import com.monk.coupons.service.Deadline;
+import com.monk.coupons.service.catalog.CatalogChangeBus;
+import com.monk.coupons.service.catalog.CatalogChangeEvent;
+import com.monk.coupons.service.catalog.CouponCatalog;
+import com.monk.coupons.service.metrics.EvaluationMetrics;
+import com.monk.coupons.service.profiling.EvaluationEvent;
+import com.monk.coupons.service.profiling.SlowCouponEvaluationEvent;
+import com.monk.coupons.service.redemption.CustomerRedemptionStore;
+import com.monk.coupons.service.redemption.RedemptionLedger;
+import com.monk.coupons.service.strategy.CouponStrategy;
+import com.monk.coupons.service.strategy.CouponStrategyFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CouponServiceImpl implements CouponService {
+
+    static final String REDEMPTION_LIMIT_REACHED = "REDEMPTION_LIMIT_REACHED";
+    static final String DEADLINE_EXCEEDED = "DEADLINE_EXCEEDED";
+    static final String NOT_ACTIVE = "NOT_ACTIVE";
+
+    private final CouponRepository repository;
+    private final CouponStrategyFactory strategyFactory;
+    private final ObjectMapper mapper;
+    private final CouponCatalog catalog;
+    private final CatalogChangeBus changeBus;
+    private final RedemptionLedger ledger;
+    private final CustomerRedemptionStore customerRedemptions;
+    private final EvaluationMetrics metrics;
+    private final ProfilingProperties profiling;
+    private final EvaluationProperties evaluation;
+
+    @Override
+    @Transactional
+    public Coupon createCoupon(Coupon coupon) {
+
+        if (coupon.getType() == null || coupon.getType().isBlank()) {
+            throw new IllegalArgumentException("Field 'type' is required.");
+        }
+        if (coupon.getDetails() == null) {
+            throw new IllegalArgumentException("Field 'details' is required and must be valid JSON.");
+        }
+
+        // Normalize the type value
+        String type = coupon.getType().trim().toLowerCase();
+
+        switch (type) {
+            case "cart-wise", "product-wise", "bxgy" -> {
+                // valid → do nothing
+            }
+            default -> throw new IllegalArgumentException(
+                    "Invalid coupon type. Allowed values: cart-wise, product-wise, bxgy."
+            );
+        }
+
+        coupon.setType(type);
+        validateValidityWindow(coupon);
+        validateLimits(coupon);
+
+        Coupon saved = repository.save(coupon);
+        afterCommit(() -> publish(CatalogChangeEvent.Type.UPSERTED, saved.getId(), catalog.upsert(saved)));
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Coupon getCouponById(Long id) {
+        if (!catalog.mightExist(id)) {
+            throw new CouponNotFoundException(id);
+        }
+        return repository.findById(id)
+                .orElseThrow(() -> new CouponNotFoundException(id));
+    }
+
+    @Override
+    @Transactional
+    public Coupon updateCoupon(Long id, Coupon updated) {
+        Coupon existing = getCouponById(id);
+
+        if (updated.getType() == null || updated.getDetails() == null) {
+            throw new IllegalArgumentException("Both 'type' and 'details' fields are required for updating a coupon.");
+        }
+
+        existing.setType(updated.getType());
+        existing.setDetails(updated.getDetails());
+        existing.setStartsAt(updated.getStartsAt());
+        existing.setEndsAt(updated.getEndsAt());
+        existing.setMaxRedemptions(updated.getMaxRedemptions());
+        existing.setDiscountBudget(updated.getDiscountBudget());
+        existing.setMaxPerCustomer(updated.getMaxPerCustomer());
+        validateValidityWindow(existing);
+        validateLimits(existing);
+
+        Coupon saved = repository.save(existing);
+        afterCommit(() -> publish(CatalogChangeEvent.Type.UPSERTED, saved.getId(), catalog.upsert(saved)));
+        return saved;
+    }
+
+
+    @Override
+    @Transactional
+    public void deleteCoupon(Long id) {
+        repository.delete(getCouponById(id));
+        afterCommit(() -> publish(CatalogChangeEvent.Type.DELETED, id, catalog.remove(id)));
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return catalog.getVersion();
+    }
+
+    @Override
+    public String getCatalogNodeId() {
+        return catalog.getNodeId();
+    }
+
+    @Override
+    public CouponChangesResponse getCatalogSnapshot() {
+        CouponCatalog.Snapshot snapshot = catalog.snapshot();
+        return new CouponChangesResponse(snapshot.version(), catalog.getNodeId(), true, snapshot.coupons(), List.of());
+    }
+
+    @Override
+    public CouponChangesResponse getChangesSince(String nodeId, long since) {
+
+        // Versions only order changes made on the node that issued them
+        boolean sameNode = catalog.getNodeId().equals(nodeId);
+        CouponCatalog.ChangeSet changes = catalog.changesSince(sameNode ? since : Long.MAX_VALUE);
+        long version = changes.version();
+        Set<Long> changedIds = changes.changedIds();
+
+        if (changedIds == null) {
+            // From the catalog, not a replica: a lagging full list would never be corrected by later deltas
+            return getCatalogSnapshot();
+        }
+
+        List<Coupon> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Long id : changedIds) {
+            Optional<Coupon> coupon = catalog.find(id);
+            if (coupon.isPresent()) {
+                upserted.add(coupon.get());
+            } else {
+                deleted.add(id);
+            }
+        }
+        return new CouponChangesResponse(version, catalog.getNodeId(), false, upserted, deleted);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApplicableCouponsResponse getApplicableCoupons(Cart cart, Deadline deadline) {
+        return getApplicableCoupons(cart, deadline, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApplicableCouponsResponse getApplicableCoupons(Cart cart, Deadline deadline, boolean explain) {
+
+        // Sampled explanations go to the log; requested ones go back to the caller
+        boolean sampled = !explain && evaluation.getExplainSampleRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < evaluation.getExplainSampleRate();
+        List<CouponExplanation> explanations = explain || sampled ? new ArrayList<>() : null;
+
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        long started = System.nanoTime();
+        boolean completed = false;
+        CompactCart lines = cart != null ? cart.compact() : CompactCart.EMPTY;
+        int considered = 0;
+        int evaluated = 0;
+        List<ApplicableCoupon> applicableCoupons = new ArrayList<>();
+        boolean partial = false;
+        try {
+            CartSummary summary = CartSummary.of(lines);
+            List<Candidate> candidates = new ArrayList<>();
+            for (Coupon coupon : catalog.candidatesFor(cart)) {
+                considered++;
+                if (ledger.isExhausted(coupon)) {
+                    if (explanations != null) {
+                        explanations.add(new CouponExplanation(coupon.getId(), coupon.getType(),
+                                REDEMPTION_LIMIT_REACHED, 0.0, Map.of()));
+                    }
+                    continue;
+                }
+                CouponStrategy strategy = strategyFactory.getStrategy(coupon.getType());
+                candidates.add(new Candidate(coupon, strategy, strategy.estimateDiscount(coupon, summary)));
+            }
+
+            // Most valuable first, so a deadline cuts off the coupons that matter least
+            candidates.sort(Comparator.comparingDouble(Candidate::expectedValue).reversed());
+
+            long slowCouponNanos = profiling.getSlowCouponThreshold().toNanos();
+            // One clock read per coupon: each strategy is charged the time since the previous one
+            long clock = System.nanoTime();
+            for (Candidate candidate : candidates) {
+                if (deadline.isExpired()) {
+                    partial = true;
+                    break;
+                }
+                Coupon coupon = candidate.coupon();
+                RuleTrace trace = null;
+                double discount;
+                if (explanations == null) {
+                    discount = candidate.strategy().calculateDiscount(coupon, cart);
+                } else {
+                    trace = new RuleTrace();
+                    discount = candidate.strategy().calculateDiscount(coupon, cart, trace);
+                }
+                long now = System.nanoTime();
+                metrics.strategy(coupon.getType(), now - clock, discount);
+                if (now - clock >= slowCouponNanos) {
+                    slowCoupon(coupon, lines.size(), discount, now - clock);
+                }
+                clock = now;
+                evaluated++;
+                if (discount > 0) {
+                    applicableCoupons.add(new ApplicableCoupon(coupon.getId(), coupon.getType(), discount,
+                            catalog.jsonPrefix(coupon)));
+                }
+                if (trace != null) {
+                    explanations.add(new CouponExplanation(coupon.getId(), coupon.getType(),
+                            trace.reason() != null ? trace.reason().name() : null, discount, trace.values()));
+                }
+            }
+
+            if (explanations != null) {
+                // Candidates are evaluated in order, so the ones left are those the deadline cut off
+                for (Candidate skipped : candidates.subList(evaluated, candidates.size())) {
+                    explanations.add(new CouponExplanation(skipped.coupon().getId(), skipped.coupon().getType(),
+                            DEADLINE_EXCEEDED, null, Map.of()));
+                }
+                if (explain) {
+                    explainLeftOut(explanations);
+                }
+                if (sampled) {
+                    logExplanations(lines.size(), explanations);
+                }
+            }
+
+            completed = true;
+            return new ApplicableCouponsResponse(applicableCoupons, partial, explain ? explanations : null);
+        } finally {
+            metrics.applicableCoupons(System.nanoTime() - started, completed, lines.size(), evaluated);
+            if (event.shouldCommit()) {
+                event.catalogVersion = catalog.getVersion();
+                event.cartLines = lines.size();
+                event.couponsConsidered = considered;
+                event.couponsEvaluated = evaluated;
+                event.couponsMatched = applicableCoupons.size();
+                event.partial = partial;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Adds the coupons the product index did not offer: outside their validity window, or
+     * triggered by a product the cart does not hold.
+     */
+    private void explainLeftOut(List<CouponExplanation> explanations) {
+        Set<Long> explained = new HashSet<>();
+        for (CouponExplanation explanation : explanations) {
+            explained.add(explanation.getCouponId());
+        }
+        for (Coupon coupon : catalog.allCoupons()) {
+            if (explained.contains(coupon.getId())) {
+                continue;
+            }
+            Integer product = coupon.rule().triggerProduct();
+            // Without a trigger product an active coupon is always a candidate; it activated since
+            if (product != null && catalog.isActive(coupon.getId())) {
+                explanations.add(new CouponExplanation(coupon.getId(), coupon.getType(),
+                        DiscountReason.PRODUCT_NOT_IN_CART.name(), 0.0, Map.of("product_id", product)));
+            } else {
+                explanations.add(new CouponExplanation(coupon.getId(), coupon.getType(), NOT_ACTIVE, 0.0, Map.of()));
+            }
+        }
+    }
+
+    private static void logExplanations(int cartLines, List<CouponExplanation> explanations) {
+        log.info("Explained evaluation of {} cart lines: {} coupons", cartLines, explanations.size());
+        for (CouponExplanation explanation : explanations) {
+            log.info("Explained coupon={} type={} reason={} discount={} values={}", explanation.getCouponId(),
+                    explanation.getType(), explanation.getReason(), explanation.getDiscount(), explanation.getValues());
+        }
+    }
+
+    private static void slowCoupon(Coupon coupon, int cartLines, double discount, long nanos) {
+        SlowCouponEvaluationEvent event = new SlowCouponEvaluationEvent();
+        if (event.shouldCommit()) {
+            event.couponId = coupon.getId();
+            event.couponType = coupon.getType();
+            event.cartLines = cartLines;
+            event.discount = discount;
+            event.evaluationTime = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApplyCouponResponse applyCoupon(Long couponId, Cart cart, String customerId) {
+
+        long started = System.nanoTime();
+        boolean completed = false;
+        try {
+            ApplyCouponResponse response = apply(couponId, cart, customerId);
+            completed = true;
+            return response;
+        } finally {
+            metrics.applyCoupon(System.nanoTime() - started, completed);
+        }
+    }
+
+    private ApplyCouponResponse apply(Long couponId, Cart cart, String customerId) {
+
+        Coupon coupon = catalog.find(couponId)
+                .orElseThrow(() -> new CouponNotFoundException(couponId));
+
+        if (!catalog.isActive(couponId)) {
+            throw new IllegalArgumentException("Coupon " + couponId + " is outside its validity window.");
+        }
+
+        if (coupon.getMaxPerCustomer() != null && (customerId == null || customerId.isBlank())) {
+            throw new IllegalArgumentException("Field 'customer_id' is required for coupons limited per customer.");
+        }
+
+        if (cart == null || cart.getItems() == null) {
+            UpdatedCart updated = new UpdatedCart(
+                    List.of(),
+                    0.0,
+                    0.0,
+                    0.0
+            );
+            return new ApplyCouponResponse(updated);
+        }
+
+        CouponStrategy strategy = strategyFactory.getStrategy(coupon.getType());
+        cart = strategy.applyCoupon(coupon, cart);
+
+        long calculated = System.nanoTime();
+        double discount = strategy.calculateDiscount(coupon, cart);
+        metrics.strategy(coupon.getType(), System.nanoTime() - calculated, discount);
+
+        if (discount > 0) {
+            redeem(coupon, customerId, discount);
+        }
+
+        double totalPrice = cart.getItems().stream()
+                .mapToDouble(i -> i.getPrice() * i.getQuantity())
+                .sum();
+
+        double finalPrice = totalPrice - discount;
+
+        UpdatedCart updatedCart = new UpdatedCart(
+                cart.getItems(),
+                totalPrice,
+                discount,
+                finalPrice
+        );
+
+        return new ApplyCouponResponse(updatedCart);
+    }
+
+    private void validateValidityWindow(Coupon coupon) {
+        if (coupon.getStartsAt() != null && coupon.getEndsAt() != null
+                && !coupon.getEndsAt().isAfter(coupon.getStartsAt())) {
+            throw new IllegalArgumentException("Field 'ends_at' must be after 'starts_at'.");
+        }
+    }
+
+    /**
+     * Reserves the redemption against the customer's allowance and the coupon's limits,
+     * undoing the customer reservation when the coupon-wide check fails.
+     */
+    private void redeem(Coupon coupon, String customerId, double discount) {
+        boolean perCustomer = coupon.getMaxPerCustomer() != null;
+        if (perCustomer && !customerRedemptions.tryAcquire(customerId, coupon.getId(), coupon.getMaxPerCustomer())) {
+            throw new RedemptionLimitExceededException(coupon.getId(), customerId);
+        }
+        if (!ledger.tryRedeem(coupon, discount)) {
+            if (perCustomer) {
+                customerRedemptions.release(customerId, coupon.getId());
+            }
+            throw new RedemptionLimitExceededException(coupon.getId());
+        }
+    }
+
+    private void validateLimits(Coupon coupon) {
+        if (coupon.getMaxRedemptions() != null && coupon.getMaxRedemptions() < 0) {
+            throw new IllegalArgumentException("Field 'max_redemptions' must not be negative.");
+        }
+        if (coupon.getDiscountBudget() != null && coupon.getDiscountBudget() < 0) {
+            throw new IllegalArgumentException("Field 'discount_budget' must not be negative.");
+        }
+        if (coupon.getMaxPerCustomer() != null && coupon.getMaxPerCustomer() < 0) {
+            throw new IllegalArgumentException("Field 'max_per_customer' must not be negative.");
+        }
+    }
+
+    /**
+     * Runs the action once the surrounding transaction commits, so neither this node's
+     * catalog nor other nodes can observe a change that is later rolled back.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void publish(CatalogChangeEvent.Type type, Long couponId, long version) {
+        changeBus.publish(new CatalogChangeEvent(catalog.getNodeId(), version, couponId, type));
+    }
+
+    private record Candidate(Coupon coupon, CouponStrategy strategy, double expectedValue) {
+    }
+}
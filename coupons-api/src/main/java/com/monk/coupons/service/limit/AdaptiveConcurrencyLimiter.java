@@ -0,0 +1,144 @@
+package com.monk.coupons.service.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to latency, in the style of the gradient limiters in
+ * Netflix's concurrency-limits.
+ * <p>
+ * Latency is tracked twice: a long-window average stands for the no-queueing baseline
+ * and a short-window average for what requests see right now. Their ratio (the gradient,
+ * clamped to [0.5, 1]) drops below 1 as soon as requests start queueing somewhere
+ * (database pool, CPU run queue) and scales the limit down; {@code sqrt(limit)} extra
+ * slots let the limit probe upwards while latency stays at the baseline. Callers over the
+ * limit are rejected immediately instead of joining the queue.
+ * <p>
+ * Every release feeds a sample, so the estimate is only updated by a thread that gets its
+ * lock at once; samples arriving while another thread holds it are dropped rather than
+ * queueing releases behind each other. Under load there are plenty of samples left.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int SHORT_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final int baselineWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private double estimatedLimit;
+    private double baselineRtt;
+    private double shortRtt;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double smoothing, int baselineWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.baselineWindow = baselineWindow;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Claims a slot.
+     *
+     * @return the permit to {@link #release} when done, or null when the limit is reached
+     */
+    public Permit tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), current + 1);
+            }
+        }
+    }
+
+    /**
+     * Frees the slot and feeds the request's latency into the limit.
+     */
+    public void release(Permit permit) {
+        inFlight.decrementAndGet();
+        onSample(System.nanoTime() - permit.startNanos, permit.inFlight);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    void onSample(long rttNanos, int inFlightAtStart) {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            update(rttNanos, inFlightAtStart);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, int inFlightAtStart) {
+        samples++;
+        if (samples == 1) {
+            baselineRtt = rttNanos;
+            shortRtt = rttNanos;
+            return;
+        }
+        baselineRtt += (rttNanos - baselineRtt) * (2.0 / (Math.min(samples, baselineWindow) + 1));
+        shortRtt += (rttNanos - shortRtt) * (2.0 / (Math.min(samples, SHORT_WINDOW) + 1));
+
+        // A long overload leaves the baseline inflated; once latency has recovered well below
+        // it, decay it so the limit is not raised on a stale reference point
+        if (baselineRtt / shortRtt > 2) {
+            baselineRtt *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, baselineRtt / shortRtt));
+        if (gradient >= 1.0 && inFlightAtStart < estimatedLimit / 2) {
+            return; // not using the limit we have; no reason to raise it
+        }
+
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - smoothing) + target * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * A claimed slot; remembers when it was claimed and how busy the limiter was.
+     */
+    public static final class Permit {
+        private final long startNanos;
+        private final int inFlight;
+
+        private Permit(long startNanos, int inFlight) {
+            this.startNanos = startNanos;
+            this.inFlight = inFlight;
+        }
+    }
+}
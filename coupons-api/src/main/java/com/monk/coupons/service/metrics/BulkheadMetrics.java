@@ -0,0 +1,63 @@
+package com.monk.coupons.service.metrics;
+
+import com.monk.coupons.service.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+
+/**
+ * Meters for each {@link Bulkhead}, tagged {@code bulkhead} with its name. All are read from
+ * the bulkhead's own counters at scrape time.
+ *
+ * <ul>
+ *     <li>{@code coupons.bulkhead.active}: requests holding a slot</li>
+ *     <li>{@code coupons.bulkhead.queued}: requests waiting for a slot</li>
+ *     <li>{@code coupons.bulkhead.admitted} and {@code coupons.bulkhead.rejected}: requests let
+ *     in, and turned away because the bulkhead was full or the wait timed out</li>
+ *     <li>{@code coupons.bulkhead.queue.wait}: total time requests spent waiting for a slot</li>
+ * </ul>
+ */
+public class BulkheadMetrics implements MeterBinder {
+
+    private final List<Bulkhead> bulkheads;
+
+    public BulkheadMetrics(List<Bulkhead> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Bulkhead bulkhead : bulkheads) {
+            String name = bulkhead.getName();
+            Gauge.builder("coupons.bulkhead.active", bulkhead, Bulkhead::getActive)
+                    .description("Requests holding a bulkhead slot")
+                    .tag("bulkhead", name)
+                    .baseUnit("requests")
+                    .register(registry);
+            Gauge.builder("coupons.bulkhead.queued", bulkhead, Bulkhead::getQueued)
+                    .description("Requests waiting for a bulkhead slot")
+                    .tag("bulkhead", name)
+                    .baseUnit("requests")
+                    .register(registry);
+            FunctionCounter.builder("coupons.bulkhead.admitted", bulkhead, Bulkhead::getAdmitted)
+                    .description("Requests admitted by the bulkhead")
+                    .tag("bulkhead", name)
+                    .baseUnit("requests")
+                    .register(registry);
+            FunctionCounter.builder("coupons.bulkhead.rejected", bulkhead, Bulkhead::getRejected)
+                    .description("Requests rejected because the bulkhead was full or the wait timed out")
+                    .tag("bulkhead", name)
+                    .baseUnit("requests")
+                    .register(registry);
+            FunctionCounter.builder("coupons.bulkhead.queue.wait", bulkhead,
+                            b -> b.getQueueWaitTotal().toNanos() / 1e9)
+                    .description("Total time requests waited for a bulkhead slot")
+                    .tag("bulkhead", name)
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.monk.coupons.service.metrics;
+
+import com.monk.coupons.service.catalog.CouponCatalog;
+import com.monk.coupons.service.dedup.SingleFlight;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Meters for the evaluation path of {@link com.monk.coupons.service.CouponService}.
+ * <p>
+ * Every meter and tag combination is registered up front, so recording only updates
+ * lock-free counters: no registry lookups, tag arrays or {@code Timer.Sample}s per
+ * request. Callers time with {@link System#nanoTime()} and pass the elapsed nanoseconds. Histogram buckets are bounded by expected ranges to
+ * keep the Prometheus output (and memory per meter) small.
+ *
+ * <ul>
+ *     <li>{@code coupons.evaluation}: time of {@code getApplicableCoupons} and
+ *     {@code applyCoupon}, tagged {@code operation} and {@code outcome}</li>
+ *     <li>{@code coupons.strategy.evaluation}: time of each strategy's discount calculation,
+ *     tagged {@code strategy}; its count is the number of evaluations</li>
+ *     <li>{@code coupons.strategy.discounts}: evaluations that gave a discount, per strategy</li>
+ *     <li>{@code coupons.evaluation.cart.items}: lines per evaluated cart</li>
+ *     <li>{@code coupons.evaluation.coupons}: coupons evaluated per request</li>
+ *     <li>{@code coupons.catalog.size}: coupons in the catalog; 0 until it is loaded, since a
+ *     scrape must not load it</li>
+ *     <li>{@code coupons.singleflight.executions} and {@code coupons.singleflight.coalesced}:
+ *     applicable-coupons requests evaluated, and requests that shared another's result</li>
+ * </ul>
+ */
+@Component
+public class EvaluationMetrics {
+
+    static final List<String> STRATEGIES = List.of("cart-wise", "product-wise", "bxgy");
+
+    private final Timer applicable;
+    private final Timer applicableFailed;
+    private final Timer apply;
+    private final Timer applyFailed;
+    private final DistributionSummary cartItems;
+    private final DistributionSummary couponsEvaluated;
+    private final Map<String, StrategyMeters> strategies;
+
+    public EvaluationMetrics(MeterRegistry registry, CouponCatalog catalog,
+                             SingleFlight<?, ?> applicableCouponsFlight) {
+        this.applicable = operation(registry, "applicable-coupons", "success");
+        this.applicableFailed = operation(registry, "applicable-coupons", "error");
+        this.apply = operation(registry, "apply-coupon", "success");
+        this.applyFailed = operation(registry, "apply-coupon", "error");
+
+        this.cartItems = DistributionSummary.builder("coupons.evaluation.cart.items")
+                .description("Lines per cart sent for evaluation")
+                .baseUnit("items")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(500.0)
+                .register(registry);
+        this.couponsEvaluated = DistributionSummary.builder("coupons.evaluation.coupons")
+                .description("Coupons whose discount was calculated for one request")
+                .baseUnit("coupons")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(registry);
+
+        this.strategies = STRATEGIES.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+                strategy -> StrategyMeters.register(registry, strategy)));
+
+        Gauge.builder("coupons.catalog.size", catalog, CouponCatalog::loadedSize)
+                .description("Coupons in the in-memory catalog")
+                .baseUnit("coupons")
+                .register(registry);
+
+        FunctionCounter.builder("coupons.singleflight.executions", applicableCouponsFlight,
+                        SingleFlight::getExecutions)
+                .description("Applicable-coupons requests that ran their own evaluation")
+                .baseUnit("requests")
+                .register(registry);
+        FunctionCounter.builder("coupons.singleflight.coalesced", applicableCouponsFlight,
+                        SingleFlight::getCoalesced)
+                .description("Applicable-coupons requests that shared a concurrent identical evaluation")
+                .baseUnit("requests")
+                .register(registry);
+    }
+
+    private static Timer operation(MeterRegistry registry, String operation, String outcome) {
+        return Timer.builder("coupons.evaluation")
+                .description("Coupon service evaluation calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.of(50, ChronoUnit.MICROS))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(registry);
+    }
+
+    /**
+     * Records one {@code getApplicableCoupons} call.
+     *
+     * @param nanos     time taken
+     * @param completed false when it threw
+     * @param items     lines in the cart
+     * @param evaluated coupons whose discount was calculated
+     */
+    public void applicableCoupons(long nanos, boolean completed, int items, int evaluated) {
+        (completed ? applicable : applicableFailed).record(nanos, TimeUnit.NANOSECONDS);
+        cartItems.record(items);
+        couponsEvaluated.record(evaluated);
+    }
+
+    /**
+     * Records one {@code applyCoupon} call.
+     */
+    public void applyCoupon(long nanos, boolean completed) {
+        (completed ? apply : applyFailed).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one discount calculation by the strategy for {@code type}. Types without a
+     * strategy are not recorded.
+     *
+     * @param nanos    time taken; callers evaluating several coupons may chain clock reads
+     *                 and pass the time since the previous calculation
+     * @param discount the discount calculated
+     */
+    public void strategy(String type, long nanos, double discount) {
+        StrategyMeters meters = strategies.get(type);
+        if (meters == null) {
+            return;
+        }
+        meters.evaluations.increment();
+        meters.nanos.add(nanos);
+        if (discount > 0) {
+            meters.discounts.increment();
+        }
+    }
+
+    /**
+     * Totals for one strategy, read by function meters at scrape time. A strategy call can
+     * take well under the cost of a regular {@link Timer#record}, so calls only add to
+     * {@link LongAdder}s; the timer has a count and total but no max or histogram.
+     */
+    private record StrategyMeters(LongAdder evaluations, LongAdder nanos, LongAdder discounts) {
+
+        static StrategyMeters register(MeterRegistry registry, String strategy) {
+            StrategyMeters meters = new StrategyMeters(new LongAdder(), new LongAdder(), new LongAdder());
+            FunctionTimer.builder("coupons.strategy.evaluation", meters,
+                            m -> m.evaluations.sum(), m -> m.nanos.sum(), TimeUnit.NANOSECONDS)
+                    .description("Discount calculations by one coupon strategy")
+                    .tag("strategy", strategy)
+                    .register(registry);
+            FunctionCounter.builder("coupons.strategy.discounts", meters, m -> m.discounts.sum())
+                    .description("Strategy evaluations that gave the cart a discount")
+                    .tag("strategy", strategy)
+                    .register(registry);
+            return meters;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.monk.coupons.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The catalog reading coupons from the database into its index: the initial load, or the
+ * reload of coupons that other nodes changed.
+ */
+@Name("com.monk.coupons.CatalogRebuild")
+@Label("Catalog Rebuild")
+@Category({"Coupons"})
+@Description("Coupons loaded from the database into the in-memory catalog")
+@StackTrace(false)
+public class CatalogRebuildEvent extends jdk.jfr.Event {
+
+    public static final String INITIAL_LOAD = "initial-load";
+    public static final String STALE_REFRESH = "stale-refresh";
+
+    @Label("Reason")
+    public String reason;
+
+    @Label("Coupons Loaded")
+    public int couponsLoaded;
+
+    @Label("Catalog Size")
+    public int catalogSize;
+
+    @Label("Catalog Version")
+    public long catalogVersion;
+}
@@ -0,0 +1,41 @@
+package com.monk.coupons.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code getApplicableCoupons} call, REST or gRPC. Its duration is the time spent in
+ * the service; body parsing and response writing are not included.
+ */
+@Name("com.monk.coupons.Evaluation")
+@Label("Coupon Evaluation")
+@Category({"Coupons"})
+@Description("Applicable-coupons evaluation of one cart")
+@StackTrace(false)
+public class EvaluationEvent extends jdk.jfr.Event {
+
+    @Label("Catalog Version")
+    public long catalogVersion;
+
+    @Label("Cart Lines")
+    public int cartLines;
+
+    @Label("Coupons Considered")
+    @Description("Candidates from the catalog's product index, including exhausted ones")
+    public int couponsConsidered;
+
+    @Label("Coupons Evaluated")
+    @Description("Candidates whose discount was calculated")
+    public int couponsEvaluated;
+
+    @Label("Coupons Matched")
+    @Description("Coupons that gave the cart a discount")
+    public int couponsMatched;
+
+    @Label("Partial")
+    @Description("The deadline passed before every candidate was evaluated")
+    public boolean partial;
+}
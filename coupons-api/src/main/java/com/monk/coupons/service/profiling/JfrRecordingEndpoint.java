@@ -0,0 +1,151 @@
+package com.monk.coupons.service.profiling;
+
+import com.monk.coupons.config.ProfilingProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Instant;
+
+/**
+ * {@code /actuator/jfr}: a Flight Recorder recording of the running node, controlled
+ * over HTTP so a live node can be profiled without a restart or shell access.
+ * <ul>
+ *     <li>{@code GET /actuator/jfr}: the current recording, if any</li>
+ *     <li>{@code POST /actuator/jfr/start}: starts a recording with the configured settings
+ *     plus the coupon events</li>
+ *     <li>{@code POST /actuator/jfr/dump}: writes what the running recording holds so far
+ *     and keeps recording</li>
+ *     <li>{@code POST /actuator/jfr/stop}: stops the recording and writes it</li>
+ * </ul>
+ * Every write replaces the one file {@value #FILE_NAME} in {@code coupons.profiling.recording-directory},
+ * so repeated calls cannot fill the disk; callers cannot choose the path. Only one recording
+ * runs at a time.
+ * <p>
+ * The endpoint is not exposed by default. Expose it only on a management port that is not
+ * reachable publicly, since anyone who can call it can load the node and write to its disk.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrRecordingEndpoint {
+
+    static final String FILE_NAME = "coupons.jfr";
+
+    private final ProfilingProperties properties;
+
+    // Guarded by this
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized RecordingStatus status() {
+        return status(null);
+    }
+
+    @WriteOperation
+    public synchronized RecordingStatus control(@Selector String action) {
+        return switch (action) {
+            case "start" -> start();
+            case "dump" -> status(write(running(), "dump"));
+            case "stop" -> stop();
+            default -> throw invalid("Unknown action '" + action + "'; use start, dump or stop.");
+        };
+    }
+
+    private RecordingStatus start() {
+        if (recording != null) {
+            throw invalid("A recording is already running; stop it first.");
+        }
+        Configuration settings;
+        try {
+            settings = Configuration.getConfiguration(properties.getRecordingSettings());
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot read JFR settings '" + properties.getRecordingSettings() + "'", e);
+        }
+
+        Recording started = new Recording(settings);
+        started.setName("coupons");
+        started.setToDisk(true);
+        started.setMaxAge(properties.getRecordingMaxAge());
+        started.setMaxSize(properties.getRecordingMaxSize().toBytes());
+        started.enable(EvaluationEvent.class);
+        started.enable(SlowCouponEvaluationEvent.class);
+        started.enable(CatalogRebuildEvent.class);
+        started.start();
+        recording = started;
+        log.info("JFR recording started with '{}' settings", properties.getRecordingSettings());
+        return status(null);
+    }
+
+    private RecordingStatus stop() {
+        Recording stopping = running();
+        try {
+            stopping.stop();
+            Path file = write(stopping, "recording");
+            return new RecordingStatus(RecordingState.CLOSED.name(), stopping.getStartTime(),
+                    properties.getRecordingSettings(), file.toString());
+        } finally {
+            stopping.close();
+            recording = null;
+        }
+    }
+
+    private Recording running() {
+        if (recording == null) {
+            throw invalid("No recording is running; start one first.");
+        }
+        return recording;
+    }
+
+    // The reason is what the caller sees in the 400 response
+    private static InvalidEndpointRequestException invalid(String reason) {
+        return new InvalidEndpointRequestException(reason, reason);
+    }
+
+    private Path write(Recording from, String kind) {
+        Path file = properties.getRecordingDirectory().resolve(FILE_NAME);
+        Path partial = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            // Readers of the previous file never see a half-written one
+            from.dump(partial);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write JFR " + kind + " to " + file, e);
+        }
+        log.info("JFR {} written to {}", kind, file);
+        return file;
+    }
+
+    private RecordingStatus status(Path file) {
+        if (recording == null) {
+            return new RecordingStatus("NONE", null, null, null);
+        }
+        return new RecordingStatus(recording.getState().name(), recording.getStartTime(),
+                properties.getRecordingSettings(), file != null ? file.toString() : null);
+    }
+
+    /**
+     * @param state     {@code NONE}, or the JFR recording state
+     * @param startedAt when the recording started
+     * @param settings  JFR settings it records with
+     * @param file      the file written by this call, if any
+     */
+    public record RecordingStatus(String state, Instant startedAt, String settings, String file) {
+    }
+}
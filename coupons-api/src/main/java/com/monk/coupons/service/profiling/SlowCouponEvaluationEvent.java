@@ -0,0 +1,37 @@
+package com.monk.coupons.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A single coupon whose discount calculation took at least
+ * {@code coupons.profiling.slow-coupon-threshold}. Emitted at the end of the calculation,
+ * with the time it took as a field.
+ */
+@Name("com.monk.coupons.SlowCouponEvaluation")
+@Label("Slow Coupon Evaluation")
+@Category({"Coupons"})
+@Description("Discount calculation of one coupon that exceeded the configured threshold")
+@StackTrace(false)
+public class SlowCouponEvaluationEvent extends jdk.jfr.Event {
+
+    @Label("Coupon ID")
+    public long couponId;
+
+    @Label("Coupon Type")
+    public String couponType;
+
+    @Label("Cart Lines")
+    public int cartLines;
+
+    @Label("Discount")
+    public double discount;
+
+    @Label("Evaluation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long evaluationTime;
+}
@@ -0,0 +1,405 @@
+package com.monk.coupons.service.redemption;
+
+import com.monk.coupons.config.RedemptionProperties;
+import com.monk.coupons.model.CustomerRedemption;
+import com.monk.coupons.repository.CustomerRedemptionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-customer redemption counts, enforced across nodes.
+ * <p>
+ * A node leases a block of a customer's remaining allowance from the customer's row with a
+ * conditional update that never takes the row past the limit, and serves that customer's
+ * applies from the lease with a CAS on an in-memory counter. Only the first apply of a
+ * customer and coupon on a node, and running out of lease, touch the database. The row keeps
+ * leased and used amounts apart, as {@link RedemptionLedger} does for coupons: every flush
+ * moves what a node used out of {@code leased} into {@code redemptions}, a customer that goes
+ * a flush interval without applies gets the unused lease back into the row, and the flush
+ * after that drops the customer from memory. A node that dies keeps its leases, so its
+ * customers are turned away early rather than let past their limit.
+ * <p>
+ * Customers known to have used a coupon up, or whose allowance is leased to another node, are
+ * remembered in shards of small LRU caches, bounded in size and time, so their repeated
+ * attempts are turned away without a round trip.
+ */
+@Slf4j
+@Component
+public class CustomerRedemptionStore {
+
+    private static final int LEASE_ATTEMPTS = 3;
+
+    private final CustomerRedemptionRepository repository;
+    private final TransactionOperations transactions;
+    private final Clock clock;
+    private final long leaseSize;
+    private final long ttlMillis;
+    private final Map<CustomerRedemption.Key, Lease> leases = new ConcurrentHashMap<>();
+    private final Shard[] shards;
+
+    /**
+     * @param transactions must start a read-write transaction of its own, so leases reach the
+     *                     primary from inside read-only request transactions
+     */
+    public CustomerRedemptionStore(CustomerRedemptionRepository repository, TransactionOperations transactions,
+                                   RedemptionProperties properties, Clock clock) {
+        this.repository = repository;
+        this.transactions = transactions;
+        this.clock = clock;
+        this.leaseSize = Math.max(1, properties.getCustomerLease());
+        this.ttlMillis = properties.getCustomerCacheTtl().toMillis();
+        this.shards = new Shard[Math.max(1, properties.getCustomerShards())];
+        int perShard = Math.max(1, properties.getCustomerCacheSize() / shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(perShard);
+        }
+    }
+
+    /**
+     * Records one redemption if the customer has fewer than {@code limit}.
+     *
+     * @return false when the customer has used up the coupon
+     */
+    public boolean tryAcquire(String customerId, Long couponId, long limit) {
+        CustomerRedemption.Key key = new CustomerRedemption.Key(customerId, couponId);
+        Shard shard = shardFor(key);
+        if (limit <= 0 || shard.knownAtLeast(key, clock.millis()) >= limit) {
+            return false;
+        }
+
+        for (;;) {
+            Lease lease = leases.computeIfAbsent(key, k -> new Lease());
+            if (lease.tryAcquire()) {
+                return true;
+            }
+
+            lease.lock.lock();
+            try {
+                if (lease.retired) {
+                    continue; // dropped by the flush meanwhile; take a fresh one
+                }
+                // Another thread may have leased while we waited
+                if (lease.tryAcquire()) {
+                    return true;
+                }
+                long granted = lease(customerId, couponId, limit, lease.held > 0);
+                if (granted == 0) {
+                    shard.remember(key, limit, clock.millis() + ttlMillis);
+                    return false;
+                }
+                lease.grant(granted);
+            } finally {
+                lease.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Gives back a redemption recorded by {@link #tryAcquire}; it returns to this node's lease.
+     */
+    public void release(String customerId, Long couponId) {
+        CustomerRedemption.Key key = new CustomerRedemption.Key(customerId, couponId);
+        while (!leases.computeIfAbsent(key, k -> new Lease()).release()) {
+            // Dropped by the flush meanwhile; give it back on a fresh one
+        }
+        shardFor(key).forget(key);
+    }
+
+    /**
+     * Redemptions of the customer and coupon: those on the primary plus this node's
+     * not flushed yet.
+     */
+    public long count(String customerId, Long couponId) {
+        CustomerRedemption.Key key = new CustomerRedemption.Key(customerId, couponId);
+        Long count = transactions.execute(status ->
+                repository.findById(key).map(CustomerRedemption::getRedemptions).orElse(0L));
+        Lease lease = leases.get(key);
+        return (count == null ? 0 : count) + (lease == null ? 0 : lease.unrecorded());
+    }
+
+    /**
+     * Writes used redemptions to the database, gives back the leases of idle customers and
+     * drops customers idle since the last flush from memory.
+     */
+    @Scheduled(fixedDelayString = "${coupons.redemption.flush-interval-millis:1000}")
+    public void flush() {
+        settle(false);
+    }
+
+    /**
+     * Gives back every unused lease so other nodes can use it.
+     */
+    @PreDestroy
+    public void returnLeases() {
+        settle(true);
+    }
+
+    private void settle(boolean returnAll) {
+        List<Pending> pending = new ArrayList<>();
+        leases.forEach((key, lease) -> {
+            Delta delta = lease.settle(returnAll);
+            if (delta == null) {
+                leases.remove(key, lease);
+            } else if (!delta.isZero()) {
+                pending.add(new Pending(key, lease, delta));
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactions.executeWithoutResult(status -> {
+                for (Pending p : pending) {
+                    repository.addRedemptions(p.key.getCustomerId(), p.key.getCouponId(),
+                            p.delta.used, p.delta.leased);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Customer redemption flush failed, will retry: {}", e.getMessage());
+            for (Pending p : pending) {
+                p.lease.unsettle(p.delta);
+            }
+        }
+    }
+
+    /**
+     * Leases up to a block of the customer's allowance, or whatever is left of it.
+     *
+     * @param rowExists whether this node has leased from the customer's row before, so a
+     *                  refused lease cannot mean the row is missing
+     * @return units granted, 0 when the customer has nothing left to lease
+     */
+    private long lease(String customerId, Long couponId, long limit, boolean rowExists) {
+        long want = Math.min(limit, leaseSize);
+        Integer leased = transactions.execute(status -> repository.leaseWithin(customerId, couponId, want, limit));
+        if (leased != null && leased == 1) {
+            return want;
+        }
+        if (!rowExists) {
+            try {
+                transactions.executeWithoutResult(status -> repository.insertLeased(customerId, couponId, want));
+                return want;
+            } catch (DataIntegrityViolationException e) {
+                // The row exists after all: another node just created it
+            }
+        }
+        return leaseWhatIsLeft(customerId, couponId, want, limit);
+    }
+
+    // A full block was just refused: read what is left before asking again
+    private long leaseWhatIsLeft(String customerId, Long couponId, long want, long limit) {
+        Long granted = transactions.execute(status -> {
+            for (int attempt = 0; attempt < LEASE_ATTEMPTS; attempt++) {
+                Long taken = repository.findTaken(customerId, couponId);
+                if (taken == null || taken >= limit) {
+                    return 0L;
+                }
+                long amount = Math.min(want, limit - taken);
+                if (repository.leaseWithin(customerId, couponId, amount, limit) == 1) {
+                    return amount;
+                }
+            }
+            return 0L;
+        });
+        return granted == null ? 0 : granted;
+    }
+
+    private Shard shardFor(CustomerRedemption.Key key) {
+        int h = key.hashCode();
+        return shards[Math.floorMod(h ^ (h >>> 16), shards.length)];
+    }
+
+    /**
+     * One customer's allowance for one coupon on this node. {@code used} counts redemptions
+     * since the lease was created; {@code recorded} of them are in the row's redemptions, and
+     * the row's leased amount holds {@code leased} more for this node. Applies CAS
+     * {@code used} up to {@code held}, the sum of the two.
+     */
+    private static final class Lease {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicLong used = new AtomicLong();
+        private volatile long held;
+        private volatile boolean busy;
+
+        // Guarded by lock
+        private long recorded;
+        private long leased;
+        private boolean retired;
+
+        boolean tryAcquire() {
+            touch();
+            for (;;) {
+                long current = used.get();
+                if (current >= held) {
+                    return false;
+                }
+                if (used.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return false when the lease was dropped and can no longer take the redemption back
+         */
+        boolean release() {
+            lock.lock();
+            try {
+                if (retired) {
+                    return false;
+                }
+                touch();
+                used.decrementAndGet();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long unrecorded() {
+            lock.lock();
+            try {
+                return used.get() - recorded;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Must hold the lock
+        void grant(long amount) {
+            leased += amount;
+            held = recorded + leased;
+        }
+
+        void touch() {
+            // Skip the volatile write on the hot path when already marked
+            if (!busy) {
+                busy = true;
+            }
+        }
+
+        /**
+         * Moves what was used since the last settle from the lease to the used total, and
+         * gives back the rest of the lease when idle.
+         *
+         * @return the changes to write to the row, or null when the lease holds nothing, was
+         * idle since the last settle and is now retired
+         */
+        Delta settle(boolean returnAll) {
+            lock.lock();
+            try {
+                if (!busy && leased == 0 && used.get() == recorded) {
+                    retired = true;
+                    return null;
+                }
+                boolean idle = returnAll || !busy;
+                busy = false;
+                if (idle) {
+                    // Stop serving from the lease before reading what is left of it
+                    held = used.get();
+                }
+                long current = used.get();
+                long keep = idle ? 0 : Math.max(0, recorded + leased - current);
+                Delta delta = new Delta(current - recorded, keep - leased);
+                recorded = current;
+                leased = keep;
+                held = recorded + leased;
+                return delta;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void unsettle(Delta delta) {
+            lock.lock();
+            try {
+                recorded -= delta.used;
+                leased -= delta.leased;
+                held = recorded + leased;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Changes to a customer's used and leased redemptions on the row.
+     */
+    private record Delta(long used, long leased) {
+        boolean isZero() {
+            return used == 0 && leased == 0;
+        }
+    }
+
+    private record Pending(CustomerRedemption.Key key, Lease lease, Delta delta) {
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<CustomerRedemption.Key, Known> known;
+
+        private Shard(int maxEntries) {
+            this.known = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CustomerRedemption.Key, Known> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        long knownAtLeast(CustomerRedemption.Key key, long now) {
+            lock.lock();
+            try {
+                Known entry = known.get(key);
+                if (entry == null) {
+                    return 0;
+                }
+                if (entry.expiresAt <= now) {
+                    known.remove(key);
+                    return 0;
+                }
+                return entry.count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remember(CustomerRedemption.Key key, long count, long expiresAt) {
+            lock.lock();
+            try {
+                known.put(key, new Known(count, expiresAt));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void forget(CustomerRedemption.Key key) {
+            lock.lock();
+            try {
+                known.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A lower bound on the customer's redemptions, trusted until {@code expiresAt}.
+     */
+    private record Known(long count, long expiresAt) {
+    }
+}
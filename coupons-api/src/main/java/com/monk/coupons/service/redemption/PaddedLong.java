@@ -0,0 +1,53 @@
+package com.monk.coupons.service.redemption;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A volatile long on its own cache line. Padding lives in superclasses/subclasses so the
+ * JVM cannot reorder it around the value (the layout trick used by the Disruptor).
+ */
+final class PaddedLong extends PaddedLongValue {
+
+    @SuppressWarnings("unused")
+    private long p11, p12, p13, p14, p15, p16, p17;
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(PaddedLongValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    PaddedLong(long initial) {
+        value = initial;
+    }
+
+    long get() {
+        return value;
+    }
+
+    boolean compareAndSet(long expected, long next) {
+        return VALUE.compareAndSet(this, expected, next);
+    }
+
+    long getAndSet(long next) {
+        return (long) VALUE.getAndSet(this, next);
+    }
+
+    long addAndGet(long delta) {
+        return (long) VALUE.getAndAdd(this, delta) + delta;
+    }
+}
+
+abstract class PaddedLongLhs {
+    @SuppressWarnings("unused")
+    private long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class PaddedLongValue extends PaddedLongLhs {
+    volatile long value;
+}
@@ -0,0 +1,404 @@
+package com.monk.coupons.service.redemption;
+
+import com.monk.coupons.config.RedemptionProperties;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.repository.CouponRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Enforces per-coupon redemption caps and discount budgets across nodes.
+ * <p>
+ * A node leases a block of a capped coupon's remaining redemptions (and budget) from the
+ * coupon row with a conditional update that never takes the row past its limit, and serves
+ * applies from that lease in memory on {@link StripedLimitCounter}s. Only running out of
+ * lease touches the database on the apply path. The row keeps leased and used amounts apart:
+ * {@code redemptions_leased} and {@code discount_leased} hold what nodes have leased and not
+ * used, and every flush moves what a node used out of them into {@code redemption_count} and
+ * {@code discount_spent}. A coupon that goes a flush interval without redemptions gives its
+ * unused lease back, as does every coupon on shutdown. A node that dies keeps its lease, so
+ * its coupon undersells rather than oversells.
+ * <p>
+ * Nodes never lease past the cap; the only overshoot is the contention tolerance a node may
+ * grant beyond its own lease, which with the defaults is at most one lease per node.
+ * Uncapped limits are counted in memory and added to the row by the scheduled flush.
+ */
+@Slf4j
+@Component
+public class RedemptionLedger {
+
+    private static final long CENTS = 100;
+    private static final int LEASE_ATTEMPTS = 3;
+
+    private final CouponRepository repository;
+    private final TransactionOperations transactions;
+    private final RedemptionProperties properties;
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    // Bumped by every flush; a refused lease is retried at most once per flush
+    private volatile long flushes;
+
+    /**
+     * @param transactions must start a read-write transaction of its own, so leases reach the
+     *                     primary from inside read-only request transactions
+     */
+    public RedemptionLedger(CouponRepository repository, TransactionOperations transactions,
+                            RedemptionProperties properties) {
+        this.repository = repository;
+        this.transactions = transactions;
+        this.properties = properties;
+    }
+
+    /**
+     * Reserves one redemption and the given discount, leasing more from the database when
+     * this node's lease is used up.
+     *
+     * @return false when either the redemption cap or the discount budget would be exceeded
+     */
+    public boolean tryRedeem(Coupon coupon, double discount) {
+        Counters c = countersFor(coupon);
+        long cents = toCents(discount);
+
+        if (!acquire(coupon.getId(), c.redemptions, 1, Limit.REDEMPTIONS)) {
+            return false;
+        }
+        if (!acquire(coupon.getId(), c.budgetCents, cents, Limit.BUDGET)) {
+            c.redemptions.counter.add(-1);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives back a redemption reserved by {@link #tryRedeem}; it returns to this node's lease.
+     */
+    public void release(Coupon coupon, double discount) {
+        Counters c = countersFor(coupon);
+
+        c.redemptions.counter.add(-1);
+        c.budgetCents.counter.add(-toCents(discount));
+    }
+
+    /**
+     * Whether the coupon can no longer be redeemed at all: this node's lease is used up and
+     * the row has nothing left to lease. The row is read on the primary at most once per
+     * flush interval, so a lease another node gives back is seen within one flush.
+     */
+    public boolean isExhausted(Coupon coupon) {
+        Counters c = countersFor(coupon);
+        return isExhausted(coupon.getId(), c.redemptions, Limit.REDEMPTIONS)
+                || isExhausted(coupon.getId(), c.budgetCents, Limit.BUDGET);
+    }
+
+    /**
+     * Writes uncapped usage to the database and gives back the leases of idle coupons.
+     */
+    @Scheduled(fixedDelayString = "${coupons.redemption.flush-interval-millis:1000}")
+    public void flush() {
+        settle(false);
+    }
+
+    /**
+     * Gives back every unused lease so other nodes can sell it.
+     */
+    @PreDestroy
+    public void returnLeases() {
+        settle(true);
+    }
+
+    private void settle(boolean returnAll) {
+        flushes++;
+        if (counters.isEmpty()) {
+            return;
+        }
+
+        List<Pending> pending = new ArrayList<>();
+        counters.forEach((id, c) -> {
+            Delta count = c.redemptions.settle(returnAll);
+            Delta cents = c.budgetCents.settle(returnAll);
+            if (!count.isZero() || !cents.isZero()) {
+                pending.add(new Pending(id, c, count, cents));
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactions.executeWithoutResult(status -> {
+                for (Pending p : pending) {
+                    if (repository.addRedemptions(p.id, p.count.used, p.cents.used / (double) CENTS,
+                            p.count.leased, p.cents.leased / (double) CENTS) == 0) {
+                        counters.remove(p.id); // coupon deleted
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Redemption flush failed, will retry: {}", e.getMessage());
+            for (Pending p : pending) {
+                p.counters.redemptions.unsettle(p.count);
+                p.counters.budgetCents.unsettle(p.cents);
+            }
+        }
+    }
+
+    private boolean isExhausted(Long id, Allowance allowance, Limit limit) {
+        if (!allowance.isLimited() || !allowance.counter.isExhausted()) {
+            return false;
+        }
+        if (allowance.checkedInFlush != flushes) {
+            allowance.lock.lock();
+            try {
+                if (allowance.checkedInFlush != flushes) {
+                    Long unleased = transactions.execute(status -> unleased(limit, id));
+                    allowance.refused = unleased == null || unleased <= 0;
+                    allowance.checkedInFlush = flushes;
+                }
+            } finally {
+                allowance.lock.unlock();
+            }
+        }
+        return allowance.refused;
+    }
+
+    private boolean acquire(Long id, Allowance allowance, long amount, Limit limit) {
+        allowance.touch();
+        if (allowance.counter.tryAcquire(amount)) {
+            return true;
+        }
+        if (!allowance.isLimited()) {
+            return false;
+        }
+
+        allowance.lock.lock();
+        try {
+            // Another thread may have leased while we waited
+            if (allowance.counter.tryAcquire(amount)) {
+                return true;
+            }
+            if (allowance.refused && allowance.checkedInFlush == flushes) {
+                return false;
+            }
+            long needed = Math.max(1, amount - (allowance.held() - allowance.counter.used()));
+            long granted = lease(limit, id, Math.max(needed, leaseSize(limit)), needed);
+            allowance.checkedInFlush = flushes;
+            if (granted == 0) {
+                allowance.refused = true;
+                return false;
+            }
+            allowance.refused = false;
+            allowance.leased += granted;
+            allowance.counter.setLimit(allowance.held());
+            return allowance.counter.tryAcquire(amount);
+        } finally {
+            allowance.lock.unlock();
+        }
+    }
+
+    /**
+     * Leases {@code want} units, or whatever is left if that still covers {@code needed}.
+     *
+     * @return units granted, 0 when the row cannot spare {@code needed}
+     */
+    private long lease(Limit limit, Long id, long want, long needed) {
+        Long granted = transactions.execute(status -> {
+            long amount = want;
+            for (int attempt = 0; attempt < LEASE_ATTEMPTS; attempt++) {
+                if (leaseFromRow(limit, id, amount)) {
+                    return amount;
+                }
+                long unleased = unleased(limit, id);
+                if (unleased < needed) {
+                    return 0L;
+                }
+                amount = Math.min(want, unleased);
+            }
+            return 0L;
+        });
+        return granted == null ? 0 : granted;
+    }
+
+    private boolean leaseFromRow(Limit limit, Long id, long amount) {
+        return switch (limit) {
+            case REDEMPTIONS -> repository.leaseRedemptions(id, amount) == 1;
+            case BUDGET -> repository.leaseBudget(id, amount / (double) CENTS) == 1;
+        };
+    }
+
+    private long unleased(Limit limit, Long id) {
+        return switch (limit) {
+            case REDEMPTIONS -> orZero(repository.findUnleasedRedemptions(id));
+            case BUDGET -> toCents(orZero(repository.findUnleasedBudget(id)));
+        };
+    }
+
+    private long leaseSize(Limit limit) {
+        return switch (limit) {
+            case REDEMPTIONS -> Math.max(1, properties.getRedemptionLease());
+            case BUDGET -> Math.max(1, toCents(properties.getBudgetLease()));
+        };
+    }
+
+    private Counters countersFor(Coupon coupon) {
+        Counters c = counters.computeIfAbsent(coupon.getId(), id -> new Counters(coupon, properties));
+        applyLimits(c, coupon);
+        return c;
+    }
+
+    // Limits can change through a coupon update; the catalog hands us the latest coupon
+    private static void applyLimits(Counters c, Coupon coupon) {
+        c.redemptions.setCap(redemptionLimit(coupon));
+        c.budgetCents.setCap(budgetLimit(coupon));
+    }
+
+    private static long redemptionLimit(Coupon coupon) {
+        return coupon.getMaxRedemptions() == null ? Long.MAX_VALUE : coupon.getMaxRedemptions();
+    }
+
+    private static long budgetLimit(Coupon coupon) {
+        return coupon.getDiscountBudget() == null ? Long.MAX_VALUE : toCents(coupon.getDiscountBudget());
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * CENTS);
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private static double orZero(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    private enum Limit { REDEMPTIONS, BUDGET }
+
+    /**
+     * One limit of one coupon. The counter's usage is what this node has served. This node's
+     * share of the row is {@code recorded} units in the used total plus {@code leased} units
+     * in the leased total; while the limit is capped the counter may serve up to both.
+     */
+    private static final class Allowance {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final StripedLimitCounter counter;
+        private volatile long cap;
+        private volatile boolean busy;
+
+        // Guarded by lock
+        private long recorded;
+        private long leased;
+        // Whether the row had nothing left to lease when last asked, in flush checkedInFlush
+        private volatile boolean refused;
+        private volatile long checkedInFlush = -1;
+
+        private Allowance(long cap, int stripes, long tolerance) {
+            this.cap = cap;
+            this.counter = new StripedLimitCounter(cap == Long.MAX_VALUE ? Long.MAX_VALUE : 0, 0, stripes, tolerance);
+        }
+
+        boolean isLimited() {
+            return cap != Long.MAX_VALUE;
+        }
+
+        long held() {
+            return recorded + leased;
+        }
+
+        void touch() {
+            // Skip the volatile write on the hot path when already marked
+            if (!busy) {
+                busy = true;
+            }
+        }
+
+        void setCap(long cap) {
+            if (this.cap == cap) {
+                return;
+            }
+            lock.lock();
+            try {
+                this.cap = cap;
+                refused = false;
+                counter.setLimit(isLimited() ? held() : Long.MAX_VALUE);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Moves what was used since the last settle from the lease to the used total, and
+         * gives back the rest of the lease when idle or no longer capped.
+         *
+         * @return the changes to write to the row
+         */
+        Delta settle(boolean returnAll) {
+            lock.lock();
+            try {
+                boolean idle = returnAll || !busy;
+                busy = false;
+                if (isLimited() && idle) {
+                    // Stop serving from the lease before reading what is left of it
+                    counter.setLimit(counter.used());
+                }
+                long used = counter.used();
+                // Usage past the lease (the contention tolerance) was never leased
+                long keep = isLimited() && !idle ? Math.max(0, held() - used) : 0;
+                Delta delta = new Delta(used - recorded, keep - leased);
+                recorded = used;
+                leased = keep;
+                if (isLimited()) {
+                    counter.setLimit(held());
+                }
+                return delta;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void unsettle(Delta delta) {
+            lock.lock();
+            try {
+                recorded -= delta.used;
+                leased -= delta.leased;
+                if (isLimited()) {
+                    counter.setLimit(held());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Changes to one limit's used and leased totals on the row.
+     */
+    private record Delta(long used, long leased) {
+        boolean isZero() {
+            return used == 0 && leased == 0;
+        }
+    }
+
+    private static final class Counters {
+        private final Allowance redemptions;
+        private final Allowance budgetCents;
+
+        private Counters(Coupon coupon, RedemptionProperties properties) {
+            this.redemptions = new Allowance(redemptionLimit(coupon),
+                    properties.getStripes(), properties.getRedemptionTolerance());
+            this.budgetCents = new Allowance(budgetLimit(coupon),
+                    properties.getStripes(), toCents(properties.getBudgetTolerance()));
+        }
+    }
+
+    private record Pending(Long id, Counters counters, Delta count, Delta cents) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.monk.coupons.service.redemption;
+
+/**
+ * Counts usage against a limit without a single hot compare-and-set target.
+ * <p>
+ * Small acquisitions are recorded on one of several cache-line-padded stripes and only
+ * folded into the shared total once a stripe holds {@code tolerance / stripes} units.
+ * The limit check reads the shared total plus the caller's own stripe, so units sitting
+ * on other stripes can be oversold; that is at most {@code tolerance} in total. Larger
+ * acquisitions, and every acquisition when the tolerance is 0, reserve directly on the
+ * shared total with a CAS loop and are exact.
+ */
+final class StripedLimitCounter {
+
+    private final PaddedLong total;
+    private final PaddedLong[] stripes;
+    private final int mask;
+    private final long stripeBatch;
+    private volatile long limit;
+
+    StripedLimitCounter(long limit, long used, int stripeCount, long tolerance) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.total = new PaddedLong(used);
+        this.stripes = new PaddedLong[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new PaddedLong(0);
+        }
+        this.mask = size - 1;
+        this.stripeBatch = Math.max(0, tolerance) / size;
+        this.limit = limit;
+    }
+
+    void setLimit(long limit) {
+        // Skip the volatile write on the hot path when nothing changed
+        if (this.limit != limit) {
+            this.limit = limit;
+        }
+    }
+
+    long limit() {
+        return limit;
+    }
+
+    /**
+     * Reserves {@code amount} units if that keeps usage within the limit.
+     */
+    boolean tryAcquire(long amount) {
+        if (amount <= 0) {
+            return true;
+        }
+        if (amount <= stripeBatch) {
+            PaddedLong stripe = stripes[probe() & mask];
+            for (;;) {
+                long local = stripe.get();
+                if (local + amount > stripeBatch) {
+                    // Stripe is full: fold what it holds into the total, then reserve exactly
+                    total.addAndGet(stripe.getAndSet(0));
+                    break;
+                }
+                if (total.get() + local + amount > limit) {
+                    return false;
+                }
+                if (stripe.compareAndSet(local, local + amount)) {
+                    return true;
+                }
+            }
+        }
+        for (;;) {
+            long current = total.get();
+            if (current + amount > limit) {
+                return false;
+            }
+            if (total.compareAndSet(current, current + amount)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns previously acquired units, or applies a correction from another source.
+     */
+    void add(long delta) {
+        total.addAndGet(delta);
+    }
+
+    long used() {
+        long sum = total.get();
+        for (PaddedLong stripe : stripes) {
+            sum += stripe.get();
+        }
+        return sum;
+    }
+
+    boolean isExhausted() {
+        return used() >= limit;
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) * 0x9E3779B9;
+    }
+}
@@ -0,0 +1,62 @@
+package com.monk.coupons.service.strategy;
+
+import com.monk.coupons.engine.BxGyRule;
+import com.monk.coupons.engine.CartSummary;
+import com.monk.coupons.engine.RuleTrace;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.CartItem;
+import com.monk.coupons.model.Coupon;
+import org.springframework.stereotype.Service;
+
+@Service
+public class BxGyStrategy implements CouponStrategy {
+
+    @Override
+    public double calculateDiscount(Coupon coupon, Cart cart) {
+        return coupon.rule().discount(cart.compact());
+    }
+
+    @Override
+    public double calculateDiscount(Coupon coupon, Cart cart, RuleTrace trace) {
+        return coupon.rule().discount(cart.compact(), trace);
+    }
+
+    @Override
+    public double estimateDiscount(Coupon coupon, CartSummary cart) {
+        return coupon.rule().estimate(cart);
+    }
+
+    @Override
+    public Cart applyCoupon(Coupon coupon, Cart cart) {
+
+        if (!(coupon.rule() instanceof BxGyRule rule)
+                || cart.getItems() == null || cart.getItems().isEmpty()) {
+            cart.getItems().forEach(i -> i.setTotalDiscount(0.0));
+            return cart;
+        }
+
+        int freeQty = rule.freeQuantity(cart.compact());
+
+        cart.getItems().forEach(i -> i.setTotalDiscount(0.0));
+
+        if (freeQty <= 0) {
+            return cart;
+        }
+
+        CartItem freeItem = cart.getItems().stream()
+                .filter(i -> i.getProductId() == rule.getProductId())
+                .findFirst()
+                .orElse(null);
+
+        if (freeItem == null) {
+            return cart;
+        }
+
+        freeItem.setQuantity(freeItem.getQuantity() + freeQty);
+
+        double discount = freeQty * freeItem.getPrice();
+        freeItem.setTotalDiscount(discount);
+
+        return cart;
+    }
+}
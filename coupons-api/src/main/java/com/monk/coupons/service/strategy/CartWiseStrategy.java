@@ -0,0 +1,35 @@
+package com.monk.coupons.service.strategy;
+
+import com.monk.coupons.engine.CartSummary;
+import com.monk.coupons.engine.RuleTrace;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.Coupon;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CartWiseStrategy implements CouponStrategy {
+
+    @Override
+    public double calculateDiscount(Coupon coupon, Cart cart) {
+        return coupon.rule().discount(cart.compact());
+    }
+
+    @Override
+    public double calculateDiscount(Coupon coupon, Cart cart, RuleTrace trace) {
+        return coupon.rule().discount(cart.compact(), trace);
+    }
+
+    @Override
+    public double estimateDiscount(Coupon coupon, CartSummary cart) {
+        return coupon.rule().estimate(cart);
+    }
+
+    @Override
+    public Cart applyCoupon(Coupon coupon, Cart cart) {
+        // Ensure every item explicitly has total_discount = 0
+        if (cart.getItems() != null) {
+            cart.getItems().forEach(i -> i.setTotalDiscount(0.0));
+        }
+        return cart;
+    }
+}
@@ -0,0 +1,47 @@
+package com.monk.coupons.service.strategy;
+
+import com.monk.coupons.engine.CartSummary;
+import com.monk.coupons.engine.RuleTrace;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.Coupon;
+
+public interface CouponStrategy {
+
+    /**
+     * Calculates the discount amount for a given coupon and cart.
+     *
+     * @param coupon the coupon to evaluate
+     * @param cart   the cart for which the discount is calculated
+     * @return the computed discount amount
+     */
+    double calculateDiscount(Coupon coupon, Cart cart);
+
+    /**
+     * {@link #calculateDiscount(Coupon, Cart)}, also recording why the coupon gave that
+     * discount. Used only when an evaluation is explained.
+     *
+     * @param trace receives the reason and the values the rule compared
+     * @return the same discount as {@link #calculateDiscount(Coupon, Cart)}
+     */
+    double calculateDiscount(Coupon coupon, Cart cart, RuleTrace trace);
+
+    /**
+     * Cheap upper bound of the discount, used to evaluate the most valuable coupons first
+     * when evaluation is under a deadline. Reads the raw rule instead of binding it.
+     *
+     * @param coupon the coupon to estimate
+     * @param cart   totals of the cart being evaluated
+     * @return the estimated discount, or 0 when nothing is known
+     */
+    default double estimateDiscount(Coupon coupon, CartSummary cart) {
+        return 0;
+    }
+
+    /**
+     * Apply discount and mutate cart items (for BxGy).
+     * @param coupon the coupon to evaluate
+     * @param cart   the cart for which the discount is calculated
+     *  @return cart
+     */
+    Cart applyCoupon(Coupon coupon, Cart cart);
+}
\ No newline at end of file
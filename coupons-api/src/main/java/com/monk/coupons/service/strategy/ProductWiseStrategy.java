@@ -0,0 +1,50 @@
+package com.monk.coupons.service.strategy;
+
+import com.monk.coupons.engine.CartSummary;
+import com.monk.coupons.engine.RuleTrace;
+import com.monk.coupons.engine.ProductWiseRule;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.CartItem;
+import com.monk.coupons.model.Coupon;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ProductWiseStrategy implements CouponStrategy {
+
+    @Override
+    public double calculateDiscount(Coupon coupon, Cart cart) {
+        return coupon.rule().discount(cart.compact());
+    }
+
+    @Override
+    public double calculateDiscount(Coupon coupon, Cart cart, RuleTrace trace) {
+        return coupon.rule().discount(cart.compact(), trace);
+    }
+
+    @Override
+    public double estimateDiscount(Coupon coupon, CartSummary cart) {
+        return coupon.rule().estimate(cart);
+    }
+
+    @Override
+    public Cart applyCoupon(Coupon coupon, Cart cart) {
+
+        if (!(coupon.rule() instanceof ProductWiseRule rule)
+                || cart.getItems() == null || cart.getItems().isEmpty()) {
+            return cart;
+        }
+
+        double discountPercent = rule.percent() / 100.0;
+
+        for (CartItem item : cart.getItems()) {
+
+            if (item.getProductId() == rule.productId()) {
+                double discount = item.getPrice() * item.getQuantity() * discountPercent;
+                item.setTotalDiscount(discount);
+            }
+            // else → DO NOT modify total_discount
+        }
+
+        return cart;
+    }
+}
@@ -0,0 +1,232 @@
+package com.monk.coupons.service.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monk.coupons.config.ApplicableCouponSerializer;
+import com.monk.coupons.config.WarmupProperties;
+import com.monk.coupons.engine.CartSummary;
+import com.monk.coupons.model.ApplicableCoupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.ApplyCouponResponse.UpdatedCart;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.CartRequest;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.service.strategy.CouponStrategy;
+import com.monk.coupons.service.strategy.CouponStrategyFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs generated carts through the evaluation path at startup: request parsing, the
+ * coupon strategies' estimate, discount and apply on the compiled engine rules, and
+ * response writing, with the application's ObjectMapper.
+ * <p>
+ * Everything runs in-process on synthetic coupons, below the service: no request reaches
+ * the web stack, so warm-up is not counted by the concurrency limiter, the evaluation
+ * metrics or the JFR evaluation events, and the coupons never reach the catalog, the
+ * redemption ledger or the database.
+ * <p>
+ * Warm-up stops once evaluation time has plateaued: {@code stable-batches} batches in a row
+ * that are not noticeably faster than the fastest batch before them. It also stops at the
+ * time budget or iteration cap. Like {@link com.monk.coupons.service.catalog.CatalogPreloader}
+ * it is an application runner, so readiness stays down until it has finished. Duration and
+ * iterations are published as {@code coupons.warmup.duration} and
+ * {@code coupons.warmup.iterations}, tagged with the reason the warm-up stopped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "coupons.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class EvaluationWarmup implements ApplicationRunner {
+
+    private static final int CART_COUNT = 64;
+    private static final int PRODUCT_COUNT = 8;
+
+    private final CouponStrategyFactory strategyFactory;
+    private final ObjectMapper mapper;
+    private final WarmupProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final List<Coupon> coupons;
+    private final List<byte[]> carts;
+
+    // Written with every evaluation's output so the JIT cannot discard the work
+    private long sink;
+
+    public EvaluationWarmup(CouponStrategyFactory strategyFactory, ObjectMapper mapper,
+                            WarmupProperties properties, MeterRegistry meterRegistry) {
+        this.strategyFactory = strategyFactory;
+        this.mapper = mapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.coupons = syntheticCoupons(mapper);
+        this.carts = syntheticCarts(new SplittableRandom(42));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Result result = warmUp();
+
+        String outcome = result.outcome().tag;
+        TimeGauge.builder("coupons.warmup.duration", result, TimeUnit.NANOSECONDS, Result::nanos)
+                .description("Time spent warming up the evaluation path before readiness")
+                .tag("outcome", outcome)
+                .strongReference(true)
+                .register(meterRegistry);
+        Gauge.builder("coupons.warmup.iterations", result, Result::iterations)
+                .description("Synthetic evaluations run before readiness")
+                .tag("outcome", outcome)
+                .strongReference(true)
+                .register(meterRegistry);
+
+        log.info("Evaluation warm-up: {} iterations in {} ms, stopped on {}",
+                result.iterations(), result.nanos() / 1_000_000, outcome);
+    }
+
+    Result warmUp() {
+        long started = System.nanoTime();
+        long deadline = started + properties.getTimeBudget().toNanos();
+        long fastestBatch = Long.MAX_VALUE;
+        int flatBatches = 0;
+        long iterations = 0;
+
+        while (true) {
+            long batchStarted = System.nanoTime();
+            for (int i = 0; i < properties.getBatchSize(); i++, iterations++) {
+                sink += evaluate(iterations);
+            }
+            long batchNanos = System.nanoTime() - batchStarted;
+
+            // Slower batches (GC, a compile on another thread) count as flat: they are no progress
+            boolean faster = batchNanos < fastestBatch * (1 - properties.getPlateauTolerance());
+            flatBatches = faster ? 0 : flatBatches + 1;
+            fastestBatch = Math.min(fastestBatch, batchNanos);
+
+            Outcome outcome = null;
+            if (flatBatches >= properties.getStableBatches() && iterations >= properties.getMinIterations()) {
+                outcome = Outcome.STABLE;
+            }
+            if (outcome == null && iterations >= properties.getMaxIterations()) {
+                outcome = Outcome.MAX_ITERATIONS;
+            }
+            if (outcome == null && System.nanoTime() - deadline >= 0) {
+                outcome = Outcome.TIME_BUDGET;
+            }
+            if (outcome != null) {
+                return new Result(outcome, iterations, System.nanoTime() - started);
+            }
+        }
+    }
+
+    /**
+     * One request's worth of work: evaluates a cart against every synthetic coupon,
+     * applies one of them and writes both responses.
+     *
+     * @return a value derived from every result, for the caller to keep
+     */
+    int evaluate(long iteration) {
+        try {
+            Cart cart = mapper.readValue(carts.get((int) (iteration % carts.size())), CartRequest.class).getCart();
+
+            CartSummary summary = CartSummary.of(cart.compact());
+            List<ApplicableCoupon> applicable = new ArrayList<>(coupons.size());
+            double estimated = 0;
+            for (Coupon coupon : coupons) {
+                CouponStrategy strategy = strategyFactory.getStrategy(coupon.getType());
+                estimated += strategy.estimateDiscount(coupon, summary);
+                double discount = strategy.calculateDiscount(coupon, cart);
+                if (discount > 0) {
+                    // Alternate between the pre-encoded and the member-by-member coupon writer
+                    applicable.add(new ApplicableCoupon(coupon.getId(), coupon.getType(), discount,
+                            iteration % 2 == 0 ? ApplicableCouponSerializer.prefix(coupon.getId(), coupon.getType()) : null));
+                }
+            }
+            byte[] applicableJson = mapper.writeValueAsBytes(new ApplicableCouponsResponse(applicable, false));
+
+            Coupon coupon = coupons.get((int) (iteration % coupons.size()));
+            CouponStrategy strategy = strategyFactory.getStrategy(coupon.getType());
+            Cart applied = strategy.applyCoupon(coupon, cart);
+            double discount = strategy.calculateDiscount(coupon, applied);
+            double totalPrice = applied.getItems().stream()
+                    .mapToDouble(i -> i.getPrice() * i.getQuantity())
+                    .sum();
+            byte[] appliedJson = mapper.writeValueAsBytes(new ApplyCouponResponse(
+                    new UpdatedCart(applied.getItems(), totalPrice, discount, totalPrice - discount)));
+
+            return applicableJson.length + appliedJson.length + (int) estimated;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Warm-up evaluation failed", e);
+        }
+    }
+
+    // One coupon per strategy, each triggered by products the generated carts hold
+    private static List<Coupon> syntheticCoupons(ObjectMapper mapper) {
+        return List.of(
+                coupon(mapper, -1L, "cart-wise", "{\"threshold\": 100, \"discount\": 10}"),
+                coupon(mapper, -2L, "product-wise", "{\"product_id\": 1, \"discount\": 20}"),
+                coupon(mapper, -3L, "product-wise", "{\"product_id\": 2, \"discount\": 5}"),
+                coupon(mapper, -4L, "bxgy", "{\"buy_products\": [{\"product_id\": 3, \"quantity\": 2},"
+                        + " {\"product_id\": 4, \"quantity\": 1}], \"get_products\": [{\"product_id\": 5,"
+                        + " \"quantity\": 1}], \"repetition_limit\": 2}"));
+    }
+
+    private static Coupon coupon(ObjectMapper mapper, long id, String type, String details) {
+        Coupon coupon = new Coupon();
+        coupon.setId(id);
+        coupon.setType(type);
+        try {
+            coupon.setDetails(mapper.readTree(details));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return coupon;
+    }
+
+    private static List<byte[]> syntheticCarts(SplittableRandom random) {
+        List<byte[]> carts = new ArrayList<>(CART_COUNT);
+        for (int c = 0; c < CART_COUNT; c++) {
+            StringBuilder json = new StringBuilder("{\"cart\": {\"items\": [");
+            int lines = random.nextInt(1, 7);
+            for (int i = 0; i < lines; i++) {
+                if (i > 0) {
+                    json.append(", ");
+                }
+                json.append("{\"product_id\": ").append(random.nextInt(1, PRODUCT_COUNT + 1))
+                        .append(", \"quantity\": ").append(random.nextInt(1, 5))
+                        .append(", \"price\": ").append(random.nextInt(500, 20_000) / 100.0)
+                        .append('}');
+            }
+            json.append("]}}");
+            carts.add(json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return carts;
+    }
+
+    enum Outcome {
+        STABLE("stable"),
+        TIME_BUDGET("time-budget"),
+        MAX_ITERATIONS("max-iterations");
+
+        final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    record Result(Outcome outcome, long iterations, long nanos) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.exception.CartTooLargeException;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.CartRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCartDeserializerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new EvaluationJsonModule(3));
+
+    // ---------------------------------------------------
+    // PARSING
+    // ---------------------------------------------------
+    @Test
+    void testParsesItemsIntoCompactLines() throws Exception {
+        CartRequest request = mapper.readValue("""
+                {"customer_id":"c1","cart":{"items":[
+                  {"product_id":1,"quantity":6,"price":50},
+                  {"price":30.5,"quantity":3,"product_id":2,"note":{"gift":true}}
+                ]}}""", CartRequest.class);
+
+        CompactCart lines = request.getCart().compact();
+
+        assertEquals("c1", request.getCustomerId());
+        assertEquals(2, lines.size());
+        assertEquals(1, lines.productId(0));
+        assertEquals(6, lines.quantity(0));
+        assertEquals(30.5, lines.price(1));
+        assertEquals(391.5, lines.total());
+    }
+
+    @Test
+    void testItemsMaterializedOnDemand() throws Exception {
+        Cart cart = mapper.readValue("{\"items\":[{\"product_id\":1,\"quantity\":2,\"price\":10}]}", Cart.class);
+
+        cart.getItems().get(0).setQuantity(5);
+
+        assertEquals(5, cart.compact().quantity(0));
+        assertEquals(0.0, cart.getItems().get(0).getTotalDiscount());
+    }
+
+    @Test
+    void testMissingItemsStayNull() throws Exception {
+        Cart cart = mapper.readValue("{\"items\":null}", Cart.class);
+
+        assertNull(cart.getItems());
+        assertTrue(cart.compact().isEmpty());
+    }
+
+    // ---------------------------------------------------
+    // REJECTION
+    // ---------------------------------------------------
+    @Test
+    void testIncompleteItemRejected() {
+        assertThrows(MismatchedInputException.class,
+                () -> mapper.readValue("{\"items\":[{\"product_id\":1,\"quantity\":2}]}", Cart.class));
+    }
+
+    @Test
+    void testTooManyItemsRejectedWhileStreaming() {
+        // The fifth line is malformed; the limit is hit before the parser gets there
+        String body = "{\"cart\":{\"items\":["
+                + "{\"product_id\":1,\"quantity\":1,\"price\":1},".repeat(4)
+                + "{oops}]}}";
+
+        JsonMappingException ex = assertThrows(JsonMappingException.class,
+                () -> mapper.readValue(body, CartRequest.class));
+
+        assertInstanceOf(CartTooLargeException.class, ex.getCause());
+    }
+}
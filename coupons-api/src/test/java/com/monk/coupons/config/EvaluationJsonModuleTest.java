@@ -0,0 +1,81 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monk.coupons.model.ApplicableCoupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.model.ApplyCouponResponse.UpdatedCart;
+import com.monk.coupons.model.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The hand-written serializers must produce exactly what bean serialization did.
+ */
+class EvaluationJsonModuleTest {
+
+    private final ObjectMapper reflective = new ObjectMapper();
+    private final ObjectMapper precomputed = new ObjectMapper().registerModule(new EvaluationJsonModule(500));
+
+    // ---------------------------------------------------
+    // APPLICABLE COUPONS
+    // ---------------------------------------------------
+    @Test
+    void testApplicableCouponsMatchBeanOutput() throws Exception {
+        ApplicableCouponsResponse response = new ApplicableCouponsResponse(List.of(
+                new ApplicableCoupon(1L, "cart-wise", 20.0),
+                new ApplicableCoupon(2L, "bx\"gy", 0.1 + 0.2,
+                        ApplicableCouponSerializer.prefix(2L, "bx\"gy")),
+                new ApplicableCoupon(3L, null, null, ApplicableCouponSerializer.prefix(3L, null))
+        ), true);
+
+        assertSameBytes(response);
+        assertSameString(response);
+    }
+
+    @Test
+    void testNullListAndFlag() throws Exception {
+        assertSameBytes(new ApplicableCouponsResponse(null, null));
+    }
+
+    @Test
+    void testPrettyPrintingIgnoresPrefix() throws Exception {
+        ApplicableCouponsResponse response = new ApplicableCouponsResponse(List.of(
+                new ApplicableCoupon(7L, "product-wise", 5.0, ApplicableCouponSerializer.prefix(7L, "product-wise"))));
+
+        assertEquals(reflective.writerWithDefaultPrettyPrinter().writeValueAsString(response),
+                precomputed.writerWithDefaultPrettyPrinter().writeValueAsString(response));
+    }
+
+    // ---------------------------------------------------
+    // APPLY COUPON
+    // ---------------------------------------------------
+    @Test
+    void testApplyCouponMatchesBeanOutput() throws Exception {
+        CartItem item = new CartItem();
+        item.setProductId(1);
+        item.setQuantity(6);
+        item.setPrice(50.0);
+        item.setTotalDiscount(30.0);
+        CartItem blank = new CartItem();
+        blank.setTotalDiscount(null);
+
+        assertSameBytes(new ApplyCouponResponse(new UpdatedCart(Arrays.asList(item, blank, null), 300.0, 30.0, 270.0)));
+        assertSameBytes(new ApplyCouponResponse(new UpdatedCart(null, null, null, null)));
+        assertSameBytes(new ApplyCouponResponse(null));
+    }
+
+    private void assertSameBytes(Object value) throws Exception {
+        assertEquals(new String(reflective.writeValueAsBytes(value), StandardCharsets.UTF_8),
+                new String(precomputed.writeValueAsBytes(value), StandardCharsets.UTF_8));
+    }
+
+    private void assertSameString(Object value) throws Exception {
+        assertEquals(reflective.writeValueAsString(value), precomputed.writeValueAsString(value));
+    }
+}
@@ -0,0 +1,42 @@
+package com.monk.coupons.config;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenApiConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(OpenApiConfig.class);
+
+    @Test
+    void testApiDescriptionByDefault() {
+        runner.run(context -> {
+            OpenAPI api = context.getBean(OpenAPI.class);
+            assertEquals("/", api.getServers().get(0).getUrl());
+        });
+    }
+
+    @Test
+    void testNoApiDescriptionWhenRuntimeDocsAreOff() {
+        runner.withPropertyValues("springdoc.api-docs.enabled=false")
+                .run(context -> assertTrue(context.getBeansOfType(OpenAPI.class).isEmpty()));
+    }
+
+    @Test
+    void testProdProfileTurnsRuntimeDocsOff() throws IOException {
+        Properties prod = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/application-prod.properties")) {
+            prod.load(in);
+        }
+
+        assertEquals("false", prod.getProperty("springdoc.api-docs.enabled"));
+        assertEquals("false", prod.getProperty("springdoc.swagger-ui.enabled"));
+    }
+}
@@ -0,0 +1,203 @@
+package com.monk.coupons.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.model.CouponChangesResponse;
+import com.monk.coupons.repository.CouponRepository;
+import com.monk.coupons.service.CouponService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the service against two separate H2 databases. Nothing replicates between them,
+ * so the database a query hit can be told from the rows it returns.
+ */
+@SpringBootTest(properties = {
+        "coupons.datasource.routing.enabled=true",
+        "coupons.datasource.primary.url=" + ReadWriteRoutingDataSourceTest.PRIMARY_URL,
+        "coupons.datasource.replicas[0].url=" + ReadWriteRoutingDataSourceTest.REPLICA_URL,
+        "coupons.datasource.replica-lag-window=1m",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "coupons.warmup.enabled=false",
+        // The replica only gets its schema in copySchemaToReplica, after the context has started
+        "coupons.catalog.preload=false"
+})
+class ReadWriteRoutingDataSourceTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryTransactions")
+    private TransactionOperations primaryTransactions;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @BeforeEach
+    void copySchemaToReplica() throws Exception {
+        List<String> ddl = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement st = primary.createStatement();
+             ResultSet rs = st.executeQuery("SCRIPT NODATA")) {
+            while (rs.next()) {
+                ddl.add(rs.getString(1));
+            }
+        }
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement st = primary.createStatement()) {
+            st.execute("DELETE FROM coupon");
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement st = replica.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            for (String sql : ddl) {
+                if (!sql.startsWith("CREATE USER")) {
+                    st.execute(sql);
+                }
+            }
+            st.execute("INSERT INTO coupon(type, details) VALUES ('cart-wise', '{\"threshold\":1,\"discount\":1}')");
+        }
+    }
+
+    @AfterEach
+    void clearSession() {
+        ReplicaLagGuard.clearSession();
+    }
+
+    // ---------------------------------------------------
+    // WRITES GO TO THE PRIMARY, READ-ONLY TO THE REPLICA
+    // ---------------------------------------------------
+    @Test
+    void testReadsUseReplicaAndWritesUsePrimary() throws Exception {
+        Coupon created = couponService.createCoupon(cartWise());
+
+        assertEquals(1, count(PRIMARY_URL));
+        List<Coupon> fromReplica = findAllReadOnly();
+        assertEquals(1, fromReplica.size());
+        assertNotEquals(created.getDetails(), fromReplica.get(0).getDetails());
+    }
+
+    // ---------------------------------------------------
+    // RECENT WRITE IN THE SAME SESSION → READ FROM PRIMARY
+    // ---------------------------------------------------
+    @Test
+    void testSessionReadsItsOwnWrites() throws Exception {
+        ReplicaLagGuard.bindSession("session-1");
+        Coupon created = couponService.createCoupon(cartWise());
+
+        List<Coupon> coupons = findAllReadOnly();
+
+        assertEquals(List.of(created.getId()), coupons.stream().map(Coupon::getId).toList());
+        assertEquals(created.getDetails(), coupons.get(0).getDetails());
+
+        ReplicaLagGuard.bindSession("session-2");
+        assertNotEquals(created.getDetails(), findAllReadOnly().get(0).getDetails());
+    }
+
+    // ---------------------------------------------------
+    // ONLY COMMITTED WRITES PIN THE SESSION TO THE PRIMARY
+    // ---------------------------------------------------
+    @Test
+    void testRolledBackWriteDoesNotPinSession() throws Exception {
+        ReplicaLagGuard.bindSession("session-1");
+        Coupon coupon = cartWise();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            repository.save(coupon);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, count(PRIMARY_URL));
+        assertEquals(1, findAllReadOnly().size());
+    }
+
+    @Test
+    void testBookkeepingOnPrimaryDoesNotPinSession() throws Exception {
+        Coupon created = couponService.createCoupon(cartWise());
+        ReplicaLagGuard.bindSession("session-1");
+
+        // What catalog loads and redemption leases do from inside a client request
+        List<Coupon> fromPrimary = primaryTransactions.execute(status -> repository.findAll());
+
+        assertEquals(created.getDetails(), fromPrimary.get(0).getDetails());
+        assertNotEquals(created.getDetails(), findAllReadOnly().get(0).getDetails());
+    }
+
+    // ---------------------------------------------------
+    // FULL CATALOG LISTINGS NEVER COME FROM A STALE REPLICA
+    // ---------------------------------------------------
+    @Test
+    void testCatalogSnapshotIgnoresStaleReplica() throws Exception {
+        Coupon created = couponService.createCoupon(cartWise());
+
+        CouponChangesResponse snapshot = couponService.getCatalogSnapshot();
+
+        assertEquals(created.getDetails(), find(snapshot, created.getId()).getDetails());
+        assertTrue(snapshot.getVersion() <= couponService.getCatalogVersion());
+    }
+
+    @Test
+    void testFullResyncIgnoresStaleReplica() throws Exception {
+        Coupon created = couponService.createCoupon(cartWise());
+
+        CouponChangesResponse changes = couponService.getChangesSince("another-node", 0L);
+
+        assertTrue(changes.getFullResync());
+        assertEquals(created.getDetails(), find(changes, created.getId()).getDetails());
+    }
+
+    // The catalog outlives the rows deleted between tests; only this test's coupon matters
+    private static Coupon find(CouponChangesResponse changes, Long id) {
+        return changes.getUpserted().stream()
+                .filter(coupon -> coupon.getId().equals(id))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("coupon " + id + " missing"));
+    }
+
+    private List<Coupon> findAllReadOnly() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> repository.findAll());
+    }
+
+    private Coupon cartWise() throws Exception {
+        Coupon coupon = new Coupon();
+        coupon.setType("cart-wise");
+        coupon.setDetails(mapper.readTree("{\"threshold\":100,\"discount\":10}"));
+        return coupon;
+    }
+
+    private int count(String url) throws Exception {
+        try (Connection c = DriverManager.getConnection(url, "sa", "");
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM coupon")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.monk.coupons.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaLagGuardTest {
+
+    @AfterEach
+    void clearSession() {
+        ReplicaLagGuard.clearSession();
+    }
+
+    // ---------------------------------------------------
+    // WRITES ARE REMEMBERED PER SESSION FOR THE WINDOW
+    // ---------------------------------------------------
+    @Test
+    void testWriteIsRememberedForItsSession() {
+        ReplicaLagGuard guard = new ReplicaLagGuard(Duration.ofMinutes(1));
+
+        ReplicaLagGuard.bindSession("a");
+        guard.recordWrite();
+        assertTrue(guard.wroteRecently());
+
+        ReplicaLagGuard.bindSession("b");
+        assertFalse(guard.wroteRecently());
+    }
+
+    @Test
+    void testNoSessionIsNeverTracked() {
+        ReplicaLagGuard guard = new ReplicaLagGuard(Duration.ofMinutes(1));
+
+        guard.recordWrite();
+
+        assertFalse(guard.wroteRecently());
+        assertEquals(0, guard.trackedSessions());
+    }
+
+    @Test
+    void testExpiredWritesAreDropped() {
+        ReplicaLagGuard guard = new ReplicaLagGuard(Duration.ZERO);
+
+        ReplicaLagGuard.bindSession("a");
+        guard.recordWrite();
+        ReplicaLagGuard.bindSession("b");
+        guard.recordWrite();
+
+        assertFalse(guard.wroteRecently());
+        assertEquals(0, guard.trackedSessions());
+    }
+
+    // ---------------------------------------------------
+    // TRACKED SESSIONS ARE BOUNDED, OLDEST WRITE EVICTED
+    // ---------------------------------------------------
+    @Test
+    void testOldestWriteIsEvictedWhenFull() {
+        ReplicaLagGuard guard = new ReplicaLagGuard(Duration.ofMinutes(1), 2);
+
+        ReplicaLagGuard.bindSession("a");
+        guard.recordWrite();
+        ReplicaLagGuard.bindSession("b");
+        guard.recordWrite();
+        ReplicaLagGuard.bindSession("a");
+        guard.recordWrite(); // a is now the newest
+        ReplicaLagGuard.bindSession("c");
+        guard.recordWrite();
+
+        assertEquals(2, guard.trackedSessions());
+        assertTrue(guard.wroteRecently());
+        ReplicaLagGuard.bindSession("a");
+        assertTrue(guard.wroteRecently());
+        ReplicaLagGuard.bindSession("b");
+        assertFalse(guard.wroteRecently());
+    }
+
+    @Test
+    void testManySessionsStayWithinBound() {
+        ReplicaLagGuard guard = new ReplicaLagGuard(Duration.ofMinutes(1));
+
+        for (int i = 0; i < ReplicaLagGuard.MAX_TRACKED_SESSIONS * 2; i++) {
+            ReplicaLagGuard.bindSession("session-" + i);
+            guard.recordWrite();
+        }
+
+        assertEquals(ReplicaLagGuard.MAX_TRACKED_SESSIONS, guard.trackedSessions());
+        assertTrue(guard.wroteRecently());
+    }
+}
@@ -0,0 +1,417 @@
+package com.monk.coupons.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import com.monk.coupons.config.BinaryContentConfig;
+import com.monk.coupons.config.DedupConfig;
+import com.monk.coupons.config.EvaluationJsonModule;
+import com.monk.coupons.config.EvaluationConfig;
+import com.monk.coupons.exception.RequestInProgressException;
+import com.monk.coupons.exception.ServiceOverloadedException;
+
+import com.monk.coupons.model.*;
+import com.monk.coupons.model.ApplyCouponResponse.UpdatedCart;
+import com.monk.coupons.service.CouponService;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.monk.coupons.service.Deadline;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ApplyCouponController.class)
+@Import({DedupConfig.class, EvaluationConfig.class, BinaryContentConfig.class})
+class ApplyCouponControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CouponService couponService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private Cart sampleCart() {
+        CartItem item = new CartItem();
+        item.setProductId(1);
+        item.setQuantity(2);
+        item.setPrice(50.0);
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(item));
+        return cart;
+    }
+
+    // --------------------------
+    // TEST 1: applicable coupons
+    // --------------------------
+    @Test
+    void testApplicableCoupons() throws Exception {
+
+        ApplicableCoupon coupon =
+                new ApplicableCoupon(1L, "cart-wise", 20.0);
+
+        ApplicableCouponsResponse response =
+                new ApplicableCouponsResponse(List.of(coupon));
+
+        when(couponService.getApplicableCoupons(any(), any()))
+                .thenReturn(response);
+
+        mockMvc.perform(post("/applicable-coupons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(sampleCart())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applicable_coupons[0].coupon_id").value(1L))
+                .andExpect(jsonPath("$.applicable_coupons[0].type").value("cart-wise"))
+                .andExpect(jsonPath("$.applicable_coupons[0].discount").value(20.0));
+    }
+
+    // ----------------------------------------------
+    // TEST 2: applicable coupons → empty list
+    // ----------------------------------------------
+    @Test
+    void testApplicableCoupons_Empty() throws Exception {
+
+        ApplicableCouponsResponse response =
+                new ApplicableCouponsResponse(List.of());
+
+        when(couponService.getApplicableCoupons(any(), any()))
+                .thenReturn(response);
+
+        mockMvc.perform(post("/applicable-coupons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(sampleCart())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applicable_coupons").isArray())
+                .andExpect(jsonPath("$.applicable_coupons").isEmpty());
+    }
+
+    // ----------------------------------------------
+    // Oversized cart → 413
+    // ----------------------------------------------
+    @Test
+    void testApplicableCoupons_CartTooLarge() throws Exception {
+
+        String body = "{\"cart\":{\"items\":["
+                + "{\"product_id\":1,\"quantity\":1,\"price\":1},".repeat(500)
+                + "{\"product_id\":1,\"quantity\":1,\"price\":1}]}}";
+
+        mockMvc.perform(post("/applicable-coupons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.error").value("Cart Too Large"));
+
+        verify(couponService, never()).getApplicableCoupons(any(), any());
+    }
+
+    // ----------------------------------------------
+    // TEST 3: apply coupon success
+    // ----------------------------------------------
+    @Test
+    void testApplyCoupon() throws Exception {
+
+        UpdatedCart updatedCart = new UpdatedCart(
+                sampleCart().getItems(),
+                100.0,   // total_price
+                20.0,    // total_discount
+                80.0     // final_price
+        );
+
+        ApplyCouponResponse response = new ApplyCouponResponse(updatedCart);
+
+        when(couponService.applyCoupon(eq(1L), any(), any()))
+                .thenReturn(response);
+
+        mockMvc.perform(post("/apply-coupon/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(sampleCart())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated_cart.total_price").value(100.0))
+                .andExpect(jsonPath("$.updated_cart.total_discount").value(20.0))
+                .andExpect(jsonPath("$.updated_cart.final_price").value(80.0))
+                .andExpect(jsonPath("$.updated_cart.items").isArray());
+    }
+
+    // ----------------------------------------------
+    // TEST 4: apply coupon → zero discount
+    // ----------------------------------------------
+    @Test
+    void testApplyCoupon_ZeroDiscount() throws Exception {
+
+        UpdatedCart updatedCart = new UpdatedCart(
+                sampleCart().getItems(),
+                100.0,
+                0.0,
+                100.0
+        );
+
+        ApplyCouponResponse response = new ApplyCouponResponse(updatedCart);
+
+        when(couponService.applyCoupon(eq(1L), any(), any()))
+                .thenReturn(response);
+
+        mockMvc.perform(post("/apply-coupon/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(sampleCart())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated_cart.total_discount").value(0.0))
+                .andExpect(jsonPath("$.updated_cart.final_price").value(100.0));
+    }
+
+    // ----------------------------------------------
+    // TEST 5: apply coupon → coupon not found / error
+    // ----------------------------------------------
+    @Test
+    void testApplyCoupon_CouponNotFound() throws Exception {
+
+        when(couponService.applyCoupon(eq(999L), any(), any()))
+                .thenThrow(new RuntimeException("Coupon not found"));
+
+        mockMvc.perform(post("/apply-coupon/999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(sampleCart())))
+                .andExpect(status().is5xxServerError());
+    }
+
+    // ----------------------------------------------
+    // TEST 6: apply coupon → retry with Idempotency-Key is replayed
+    // ----------------------------------------------
+    @Test
+    void testApplyCoupon_IdempotencyKeyReplaysResponse() throws Exception {
+
+        UpdatedCart updatedCart = new UpdatedCart(sampleCart().getItems(), 100.0, 20.0, 80.0);
+        when(couponService.applyCoupon(eq(1L), any(), any()))
+                .thenReturn(new ApplyCouponResponse(updatedCart));
+
+        CartRequest request = new CartRequest();
+        request.setCart(sampleCart());
+        request.setCustomerId("cust-42");
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/apply-coupon/1")
+                            .header("Idempotency-Key", "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.updated_cart.final_price").value(80.0));
+        }
+
+        verify(couponService, times(1)).applyCoupon(eq(1L), any(), eq("cust-42"));
+    }
+
+    // ----------------------------------------------
+    // TEST 7: apply coupon → Idempotency-Key reused for another coupon
+    // ----------------------------------------------
+    @Test
+    void testApplyCoupon_IdempotencyKeyReusedForDifferentRequest() throws Exception {
+
+        UpdatedCart updatedCart = new UpdatedCart(sampleCart().getItems(), 100.0, 20.0, 80.0);
+        when(couponService.applyCoupon(any(), any(), any()))
+                .thenReturn(new ApplyCouponResponse(updatedCart));
+
+        CartRequest request = new CartRequest();
+        request.setCart(sampleCart());
+
+        mockMvc.perform(post("/apply-coupon/1")
+                        .header("Idempotency-Key", "reused")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/apply-coupon/2")
+                        .header("Idempotency-Key", "reused")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ----------------------------------------------
+    // TEST 7b: apply coupon → Idempotency-Key still in progress → 409
+    // ----------------------------------------------
+    @Test
+    void testApplyCoupon_IdempotencyKeyInProgress() throws Exception {
+
+        when(couponService.applyCoupon(any(), any(), any()))
+                .thenThrow(new RequestInProgressException("busy"));
+
+        CartRequest request = new CartRequest();
+        request.setCart(sampleCart());
+
+        mockMvc.perform(post("/apply-coupon/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Request In Progress"));
+    }
+
+    // ----------------------------------------------
+    // TEST 8: overload → 503 with Retry-After
+    // ----------------------------------------------
+    @Test
+    void testApplicableCoupons_Overloaded() throws Exception {
+
+        when(couponService.getApplicableCoupons(any(), any()))
+                .thenThrow(new ServiceOverloadedException(Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/applicable-coupons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new CartRequest())))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    // ----------------------------------------------
+    // TEST 9: deadline header must be positive
+    // ----------------------------------------------
+    @Test
+    void testApplicableCoupons_InvalidDeadline() throws Exception {
+
+        mockMvc.perform(post("/applicable-coupons")
+                        .header("X-Deadline-Ms", "0")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new CartRequest())))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ----------------------------------------------
+    // TEST 10: partial flag is returned
+    // ----------------------------------------------
+    @Test
+    void testApplicableCoupons_Partial() throws Exception {
+
+        when(couponService.getApplicableCoupons(any(), any()))
+                .thenReturn(new ApplicableCouponsResponse(List.of(), true));
+
+        mockMvc.perform(post("/applicable-coupons")
+                        .header("X-Deadline-Ms", "50")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new CartRequest())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.partial").value(true));
+    }
+
+    // ----------------------------------------------
+    // TEST 11: explanations only with X-Explain
+    // ----------------------------------------------
+    @Test
+    void testApplicableCoupons_Explain() throws Exception {
+        ApplicableCouponsResponse response = new ApplicableCouponsResponse(List.of(), false, List.of(
+                new CouponExplanation(1L, "cart-wise", "BELOW_THRESHOLD", 0.0,
+                        Map.of("threshold", 500.0, "cart_total", 100.0))));
+        when(couponService.getApplicableCoupons(any(), any(), eq(true))).thenReturn(response);
+
+        mockMvc.perform(post("/applicable-coupons")
+                        .header("X-Explain", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new CartRequest())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.explanations[0].coupon_id").value(1))
+                .andExpect(jsonPath("$.explanations[0].reason").value("BELOW_THRESHOLD"))
+                .andExpect(jsonPath("$.explanations[0].values.cart_total").value(100.0));
+
+        // Explained evaluations bypass the shared single-flight evaluation
+        verify(couponService, never()).getApplicableCoupons(any(), any());
+    }
+
+    @Test
+    void testApplicableCoupons_NoExplanationsByDefault() throws Exception {
+        when(couponService.getApplicableCoupons(any(), any()))
+                .thenReturn(new ApplicableCouponsResponse(List.of()));
+
+        mockMvc.perform(post("/applicable-coupons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new CartRequest())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.explanations").doesNotExist());
+    }
+
+    // ----------------------------------------------
+    // Smile and CBOR bodies on request
+    // ----------------------------------------------
+    @Test
+    void testApplicableCoupons_Smile() throws Exception {
+
+        ObjectMapper smile = new ObjectMapper(new SmileFactory()).registerModule(new EvaluationJsonModule(500));
+        ApplicableCouponsResponse response =
+                new ApplicableCouponsResponse(List.of(new ApplicableCoupon(1L, "cart-wise", 20.0)));
+        when(couponService.getApplicableCoupons(any(), any())).thenReturn(response);
+
+        CartRequest request = new CartRequest();
+        request.setCart(sampleCart());
+
+        byte[] body = mockMvc.perform(post("/applicable-coupons")
+                        .contentType(BinaryContentConfig.APPLICATION_SMILE)
+                        .accept(BinaryContentConfig.APPLICATION_SMILE)
+                        .content(smile.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryContentConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(20.0, smile.readTree(body).path("applicable_coupons").path(0).path("discount").asDouble());
+        ArgumentCaptor<Cart> cart = ArgumentCaptor.forClass(Cart.class);
+        verify(couponService).getApplicableCoupons(cart.capture(), any(Deadline.class));
+        assertEquals(100.0, cart.getValue().compact().total());
+    }
+
+    @Test
+    void testApplyCoupon_Cbor() throws Exception {
+
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        ApplyCouponResponse response = new ApplyCouponResponse(
+                new UpdatedCart(sampleCart().getItems(), 100.0, 20.0, 80.0));
+        when(couponService.applyCoupon(eq(1L), any(), any())).thenReturn(response);
+
+        CartRequest request = new CartRequest();
+        request.setCart(sampleCart());
+
+        byte[] body = mockMvc.perform(post("/apply-coupon/1")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(80.0, cbor.readTree(body).path("updated_cart").path("final_price").asDouble());
+    }
+
+    @Test
+    void testErrorsFollowRequestedFormat() throws Exception {
+
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+        byte[] body = mockMvc.perform(post("/applicable-coupons")
+                        .header("X-Deadline-Ms", "0")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(new CartRequest())))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(400, cbor.readTree(body).path("status").asInt());
+    }
+}
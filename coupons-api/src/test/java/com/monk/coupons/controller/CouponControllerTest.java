@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.monk.coupons.exception.CouponNotFoundException;
 import com.monk.coupons.model.Coupon;
+import com.monk.coupons.model.CouponChangesResponse;
 import com.monk.coupons.service.CouponService;
 
 import org.junit.jupiter.api.Test;
@@ -46,6 +47,10 @@ class CouponControllerTest {
         return c;
     }
 
+    private CouponChangesResponse snapshot(long version, Coupon... coupons) {
+        return new CouponChangesResponse(version, "node-a", true, List.of(coupons), List.of());
+    }
+
     // ----------------------------------------------------------
     // CREATE
     // ----------------------------------------------------------
@@ -106,8 +111,7 @@ class CouponControllerTest {
     // ----------------------------------------------------------
     @Test
     void testGetAllCoupons() throws Exception {
-        when(couponService.getAllCoupons())
-                .thenReturn(List.of(mockCoupon(1L), mockCoupon(2L)));
+        when(couponService.getCatalogSnapshot()).thenReturn(snapshot(1L, mockCoupon(1L), mockCoupon(2L)));
 
         mockMvc.perform(get("/coupons"))
                 .andExpect(status().isOk())
@@ -116,7 +120,7 @@ class CouponControllerTest {
 
     @Test
     void testGetAllCoupons_Empty() throws Exception {
-        when(couponService.getAllCoupons()).thenReturn(List.of());
+        when(couponService.getCatalogSnapshot()).thenReturn(snapshot(1L));
 
         mockMvc.perform(get("/coupons"))
                 .andExpect(status().isOk())
@@ -125,7 +129,7 @@ class CouponControllerTest {
 
     @Test
     void testGetAllCoupons_ContentStructure() throws Exception {
-        when(couponService.getAllCoupons()).thenReturn(List.of(mockCoupon(1L)));
+        when(couponService.getCatalogSnapshot()).thenReturn(snapshot(1L, mockCoupon(1L)));
 
         mockMvc.perform(get("/coupons"))
                 .andExpect(status().isOk())
@@ -134,6 +138,65 @@ class CouponControllerTest {
                 .andExpect(jsonPath("$[0].details.threshold").value(100));
     }
 
+    // ----------------------------------------------------------
+    // CONDITIONAL GET / DELTA SYNC
+    // ----------------------------------------------------------
+    @Test
+    void testGetAllCoupons_ReturnsETag() throws Exception {
+        when(couponService.getCatalogNodeId()).thenReturn("node-a");
+        when(couponService.getCatalogVersion()).thenReturn(42L);
+        when(couponService.getCatalogSnapshot()).thenReturn(snapshot(42L, mockCoupon(1L)));
+
+        mockMvc.perform(get("/coupons"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"node-a:42\""))
+                .andExpect(header().string("X-Catalog-Version", "42"))
+                .andExpect(header().string("X-Catalog-Node", "node-a"));
+    }
+
+    @Test
+    void testGetAllCoupons_NotModified() throws Exception {
+        when(couponService.getCatalogNodeId()).thenReturn("node-a");
+        when(couponService.getCatalogVersion()).thenReturn(42L);
+
+        mockMvc.perform(get("/coupons").header("If-None-Match", "\"node-a:42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(couponService, never()).getCatalogSnapshot();
+    }
+
+    @Test
+    void testGetAllCoupons_StaleETag() throws Exception {
+        when(couponService.getCatalogNodeId()).thenReturn("node-a");
+        when(couponService.getCatalogVersion()).thenReturn(43L);
+        when(couponService.getCatalogSnapshot()).thenReturn(snapshot(43L, mockCoupon(1L)));
+
+        mockMvc.perform(get("/coupons").header("If-None-Match", "\"node-a:42\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void testGetChanges() throws Exception {
+        when(couponService.getChangesSince("node-a", 40L)).thenReturn(
+                new CouponChangesResponse(43L, "node-a", false, List.of(mockCoupon(2L)), List.of(5L)));
+
+        mockMvc.perform(get("/coupons/changes").param("since", "40").param("node", "node-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(43))
+                .andExpect(jsonPath("$.node_id").value("node-a"))
+                .andExpect(jsonPath("$.full_resync").value(false))
+                .andExpect(jsonPath("$.upserted[0].id").value(2))
+                .andExpect(jsonPath("$.deleted[0]").value(5));
+    }
+
+    @Test
+    void testGetChanges_MissingSince() throws Exception {
+        mockMvc.perform(get("/coupons/changes"))
+                .andExpect(status().isBadRequest());
+    }
+
     // ----------------------------------------------------------
     // GET BY ID
     // ----------------------------------------------------------
@@ -271,4 +334,15 @@ class CouponControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN));
     }
-}
\ No newline at end of file
+
+    // ----------------------------------------------------------
+    // UNKNOWN PATHS
+    // ----------------------------------------------------------
+    @Test
+    void testUnknownPath_NotFound() throws Exception {
+        mockMvc.perform(get("/v3/api-docs"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Not Found"))
+                .andExpect(jsonPath("$.message").value("No endpoint at '/v3/api-docs'."));
+    }
+}
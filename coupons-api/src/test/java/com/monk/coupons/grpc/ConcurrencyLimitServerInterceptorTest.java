@@ -0,0 +1,130 @@
+package com.monk.coupons.grpc;
+
+import com.monk.coupons.config.EvaluationProperties;
+import com.monk.coupons.grpc.v1.ApplicableCouponsReply;
+import com.monk.coupons.grpc.v1.Cart;
+import com.monk.coupons.grpc.v1.CartItem;
+import com.monk.coupons.grpc.v1.CouponEvaluationGrpc;
+import com.monk.coupons.grpc.v1.EvaluateRequest;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.service.CouponService;
+import com.monk.coupons.service.dedup.IdempotencyCache;
+import com.monk.coupons.service.dedup.SingleFlight;
+import com.monk.coupons.service.limit.AdaptiveConcurrencyLimiter;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitServerInterceptorTest {
+
+    private CouponService couponService;
+    private AdaptiveConcurrencyLimiter limiter;
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+    private Server server;
+    private ManagedChannel channel;
+    private CouponEvaluationGrpc.CouponEvaluationBlockingStub blocking;
+
+    @BeforeEach
+    void setup() throws Exception {
+        couponService = mock(CouponService.class);
+        limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.2, 600);
+        CouponEvaluationGrpcService service = new CouponEvaluationGrpcService(couponService,
+                new IdempotencyCache<>(100, Duration.ofMinutes(5), Duration.ofSeconds(5), Clock.systemUTC()),
+                new SingleFlight<>(), new EvaluationProperties());
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .executor(workers)
+                .addService(ServerInterceptors.intercept(service,
+                        new ConcurrencyLimitServerInterceptor(limiter, Duration.ofSeconds(1))))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        blocking = CouponEvaluationGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // ---------------------------------------------------
+    // ADMISSION
+    // ---------------------------------------------------
+    @Test
+    void testCallOverTheLimitIsUnavailable() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(couponService.getApplicableCoupons(any(), any())).thenAnswer(call -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ApplicableCouponsResponse(List.of());
+        });
+
+        CompletableFuture<ApplicableCouponsReply> first =
+                CompletableFuture.supplyAsync(() -> blocking.getApplicableCoupons(request()));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> blocking.getApplicableCoupons(request()));
+        assertEquals(Status.Code.UNAVAILABLE, ex.getStatus().getCode());
+        assertEquals(1, limiter.getRejected());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testPermitIsReleasedWhenCallEnds() {
+        when(couponService.getApplicableCoupons(any(), any()))
+                .thenReturn(new ApplicableCouponsResponse(List.of()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(new ApplicableCouponsResponse(List.of()));
+
+        blocking.getApplicableCoupons(request());
+        awaitIdle();
+        assertThrows(StatusRuntimeException.class, () -> blocking.getApplicableCoupons(request()));
+        awaitIdle();
+        blocking.getApplicableCoupons(request());
+        awaitIdle();
+
+        assertEquals(0, limiter.getRejected());
+    }
+
+    // The reply reaches the client before the server's listener completes and releases
+    private void awaitIdle() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static EvaluateRequest request() {
+        return EvaluateRequest.newBuilder()
+                .setCart(Cart.newBuilder().addItems(CartItem.newBuilder().setProductId(1).setQuantity(1).setPrice(10.0)))
+                .build();
+    }
+}
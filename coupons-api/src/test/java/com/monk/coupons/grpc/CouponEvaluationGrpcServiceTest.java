@@ -0,0 +1,235 @@
+package com.monk.coupons.grpc;
+
+import com.monk.coupons.config.EvaluationProperties;
+import com.monk.coupons.exception.CouponNotFoundException;
+import com.monk.coupons.grpc.v1.ApplicableCouponsReply;
+import com.monk.coupons.grpc.v1.ApplyCouponReply;
+import com.monk.coupons.grpc.v1.ApplyCouponRequest;
+import com.monk.coupons.grpc.v1.Cart;
+import com.monk.coupons.grpc.v1.CartItem;
+import com.monk.coupons.grpc.v1.CouponEvaluationGrpc;
+import com.monk.coupons.grpc.v1.EvaluateRequest;
+import com.monk.coupons.model.ApplicableCoupon;
+import com.monk.coupons.model.ApplicableCouponsResponse;
+import com.monk.coupons.model.ApplyCouponResponse;
+import com.monk.coupons.service.CouponService;
+import com.monk.coupons.service.Deadline;
+import com.monk.coupons.service.dedup.CartFingerprint;
+import com.monk.coupons.service.dedup.IdempotencyCache;
+import com.monk.coupons.service.dedup.SingleFlight;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CouponEvaluationGrpcServiceTest {
+
+    private CouponService couponService;
+    private SingleFlight<CartFingerprint, ApplicableCouponsResponse> flight;
+    private Server server;
+    private ManagedChannel channel;
+    private CouponEvaluationGrpc.CouponEvaluationBlockingStub blocking;
+    private CouponEvaluationGrpc.CouponEvaluationStub async;
+
+    @BeforeEach
+    void setup() throws Exception {
+        couponService = mock(CouponService.class);
+        flight = new SingleFlight<>();
+        EvaluationProperties properties = new EvaluationProperties();
+        properties.setMaxCartItems(3);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new CouponEvaluationGrpcService(couponService,
+                        new IdempotencyCache<>(100, Duration.ofMinutes(5), Duration.ofSeconds(5), Clock.systemUTC()),
+                        flight, properties))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        blocking = CouponEvaluationGrpc.newBlockingStub(channel);
+        async = CouponEvaluationGrpc.newStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    // ---------------------------------------------------
+    // UNARY CALLS
+    // ---------------------------------------------------
+    @Test
+    void testGetApplicableCoupons() {
+        when(couponService.getApplicableCoupons(any(), any())).thenReturn(
+                new ApplicableCouponsResponse(List.of(new ApplicableCoupon(1L, "cart-wise", 20.0)), true));
+
+        ApplicableCouponsReply reply = blocking.getApplicableCoupons(
+                EvaluateRequest.newBuilder().setCart(cart(2)).setRequestId("r1").build());
+
+        assertEquals(1, reply.getApplicableCouponsCount());
+        assertEquals(1L, reply.getApplicableCoupons(0).getCouponId());
+        assertEquals(20.0, reply.getApplicableCoupons(0).getDiscount());
+        assertTrue(reply.getPartial());
+        assertEquals("r1", reply.getRequestId());
+
+        ArgumentCaptor<com.monk.coupons.model.Cart> cart = ArgumentCaptor.forClass(com.monk.coupons.model.Cart.class);
+        verify(couponService).getApplicableCoupons(cart.capture(), any(Deadline.class));
+        assertEquals(2, cart.getValue().compact().size());
+        assertEquals(150.0, cart.getValue().compact().total());
+    }
+
+    @Test
+    void testCallDeadlineBoundsEvaluation() {
+        when(couponService.getApplicableCoupons(any(), any())).thenAnswer(call -> {
+            Deadline deadline = call.getArgument(1);
+            return new ApplicableCouponsResponse(List.of(), deadline.isExpired());
+        });
+
+        ApplicableCouponsReply reply = blocking.withDeadlineAfter(1, TimeUnit.MINUTES)
+                .getApplicableCoupons(EvaluateRequest.newBuilder().setCart(cart(1)).build());
+
+        assertFalse(reply.getPartial());
+    }
+
+    @Test
+    void testPartialResultIsNotSharedWithConcurrentCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(couponService.getApplicableCoupons(any(), any()))
+                .thenAnswer(call -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return new ApplicableCouponsResponse(List.of(), true);
+                })
+                .thenReturn(new ApplicableCouponsResponse(List.of(new ApplicableCoupon(1L, "cart-wise", 20.0)), false));
+        EvaluateRequest request = EvaluateRequest.newBuilder().setCart(cart(1)).build();
+
+        CompletableFuture<ApplicableCouponsReply> leader =
+                CompletableFuture.supplyAsync(() -> blocking.getApplicableCoupons(request));
+        while (flight.getInFlight() == 0) {
+            Thread.onSpinWait();
+        }
+        CompletableFuture<ApplicableCouponsReply> follower =
+                CompletableFuture.supplyAsync(() -> blocking.getApplicableCoupons(request));
+        while (flight.getCoalesced() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertTrue(leader.get(5, TimeUnit.SECONDS).getPartial());
+        assertFalse(follower.get(5, TimeUnit.SECONDS).getPartial());
+        assertEquals(1, follower.get().getApplicableCouponsCount());
+        assertEquals(2, flight.getExecutions());
+    }
+
+    @Test
+    void testApplyCouponReplaysIdempotentRetry() {
+        when(couponService.applyCoupon(eq(7L), any(), eq("cust-1"))).thenReturn(new ApplyCouponResponse(
+                new ApplyCouponResponse.UpdatedCart(List.of(), 100.0, 10.0, 90.0)));
+        ApplyCouponRequest request = ApplyCouponRequest.newBuilder()
+                .setCouponId(7L)
+                .setCart(cart(2))
+                .setCustomerId("cust-1")
+                .setIdempotencyKey("key-1")
+                .build();
+
+        ApplyCouponReply first = blocking.applyCoupon(request);
+        ApplyCouponReply retry = blocking.applyCoupon(request);
+
+        assertEquals(90.0, first.getFinalPrice());
+        assertEquals(first, retry);
+        verify(couponService, times(1)).applyCoupon(eq(7L), any(), eq("cust-1"));
+    }
+
+    // ---------------------------------------------------
+    // ERRORS MAP TO STATUS CODES
+    // ---------------------------------------------------
+    @Test
+    void testUnknownCouponIsNotFound() {
+        when(couponService.applyCoupon(eq(99L), any(), any())).thenThrow(new CouponNotFoundException(99L));
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> blocking.applyCoupon(ApplyCouponRequest.newBuilder().setCouponId(99L).setCart(cart(1)).build()));
+
+        assertEquals(Status.Code.NOT_FOUND, ex.getStatus().getCode());
+    }
+
+    @Test
+    void testOversizedCartIsInvalid() {
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> blocking.getApplicableCoupons(EvaluateRequest.newBuilder().setCart(cart(4)).build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+        verifyNoInteractions(couponService);
+    }
+
+    // ---------------------------------------------------
+    // STREAMING
+    // ---------------------------------------------------
+    @Test
+    void testEvaluateCartsStreamsRepliesInOrder() throws Exception {
+        when(couponService.getApplicableCoupons(any(), any())).thenAnswer(call -> {
+            com.monk.coupons.model.Cart cart = call.getArgument(0);
+            double total = cart.compact().total();
+            return new ApplicableCouponsResponse(List.of(new ApplicableCoupon(1L, "cart-wise", total / 10)));
+        });
+
+        List<ApplicableCouponsReply> replies = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        StreamObserver<EvaluateRequest> requests = async.evaluateCarts(new StreamObserver<>() {
+            @Override
+            public void onNext(ApplicableCouponsReply reply) {
+                replies.add(reply);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                done.complete(null);
+            }
+        });
+        for (int i = 1; i <= 3; i++) {
+            requests.onNext(EvaluateRequest.newBuilder().setCart(cart(i)).setRequestId("cart-" + i).build());
+        }
+        requests.onCompleted();
+        done.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("cart-1", "cart-2", "cart-3"),
+                replies.stream().map(ApplicableCouponsReply::getRequestId).toList());
+        assertEquals(5.0, replies.get(0).getApplicableCoupons(0).getDiscount());
+        assertEquals(30.0, replies.get(2).getApplicableCoupons(0).getDiscount());
+    }
+
+    // Lines 1..n, each one unit at 50 × line number
+    private static Cart cart(int lines) {
+        Cart.Builder cart = Cart.newBuilder();
+        for (int i = 1; i <= lines; i++) {
+            cart.addItems(CartItem.newBuilder().setProductId(i).setQuantity(1).setPrice(50.0 * i));
+        }
+        return cart.build();
+    }
+}
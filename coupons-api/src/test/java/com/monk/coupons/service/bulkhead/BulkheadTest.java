@@ -0,0 +1,77 @@
+package com.monk.coupons.service.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    // ---------------------------------------------------
+    // CONCURRENCY CAP
+    // ---------------------------------------------------
+    @Test
+    void testRejectsImmediatelyWithoutQueue() {
+        Bulkhead bulkhead = new Bulkhead("checkout", 2, 0, Duration.ZERO);
+
+        assertTrue(bulkhead.tryEnter());
+        assertTrue(bulkhead.tryEnter());
+        assertFalse(bulkhead.tryEnter());
+        assertEquals(2, bulkhead.getActive());
+        assertEquals(1, bulkhead.getRejected());
+
+        bulkhead.exit();
+        assertTrue(bulkhead.tryEnter());
+        assertEquals(3, bulkhead.getAdmitted());
+    }
+
+    // ---------------------------------------------------
+    // QUEUEING
+    // ---------------------------------------------------
+    @Test
+    void testQueuedCallerGetsFreedSlot() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("admin", 1, 1, Duration.ofSeconds(5));
+        assertTrue(bulkhead.tryEnter());
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(bulkhead::tryEnter);
+        while (bulkhead.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        bulkhead.exit();
+
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getQueued());
+        assertEquals(1, bulkhead.getActive());
+    }
+
+    @Test
+    void testRejectsWhenQueueFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("admin", 1, 1, Duration.ofSeconds(5));
+        assertTrue(bulkhead.tryEnter());
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(bulkhead::tryEnter);
+        while (bulkhead.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertFalse(bulkhead.tryEnter());
+        assertEquals(1, bulkhead.getRejected());
+
+        bulkhead.exit();
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testQueuedCallerTimesOut() {
+        Bulkhead bulkhead = new Bulkhead("admin", 1, 1, Duration.ofMillis(20));
+        assertTrue(bulkhead.tryEnter());
+
+        assertFalse(bulkhead.tryEnter());
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(0, bulkhead.getQueued());
+        assertTrue(bulkhead.getQueueWaitTotal().toMillis() >= 15);
+    }
+}
@@ -0,0 +1,42 @@
+package com.monk.coupons.service.bulkhead;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrafficClassRoutingDataSourceTest {
+
+    private final DataSource checkout = mock(DataSource.class);
+    private final DataSource admin = mock(DataSource.class);
+    private final TrafficClassRoutingDataSource dataSource = new TrafficClassRoutingDataSource(checkout, admin);
+
+    @AfterEach
+    void clear() {
+        TrafficClass.clear();
+    }
+
+    @Test
+    void testUnboundThreadUsesCheckoutPool() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(checkout.getConnection()).thenReturn(connection);
+
+        assertSame(connection, dataSource.getConnection());
+        verifyNoInteractions(admin);
+    }
+
+    @Test
+    void testAdminThreadUsesAdminPool() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(admin.getConnection()).thenReturn(connection);
+
+        TrafficClass.bind(TrafficClass.ADMIN);
+
+        assertSame(connection, dataSource.getConnection());
+        verifyNoInteractions(checkout);
+    }
+}
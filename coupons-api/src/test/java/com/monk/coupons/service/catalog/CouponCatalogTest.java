@@ -0,0 +1,519 @@
+package com.monk.coupons.service.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monk.coupons.config.CatalogProperties;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.CartItem;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CouponCatalogTest {
+
+    private CouponRepository repository;
+    private CatalogChangeBus bus;
+    private ObjectMapper mapper;
+
+    // Counts the transactions the catalog starts for its loads
+    private final AtomicInteger transactionsStarted = new AtomicInteger();
+    private final TransactionOperations transactions = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            transactionsStarted.incrementAndGet();
+            return action.doInTransaction(null);
+        }
+    };
+
+    @BeforeEach
+    void setup() {
+        repository = mock(CouponRepository.class);
+        bus = new InProcessCatalogChangeBus();
+        mapper = new ObjectMapper();
+    }
+
+    // ---------------------------------------------------
+    // PRODUCT INDEX — ONLY MATCHING COUPONS ARE CANDIDATES
+    // ---------------------------------------------------
+    @Test
+    void testCandidatesUseProductIndex() throws Exception {
+        Coupon cartWise = coupon(1L, "cart-wise", "{\"threshold\":100,\"discount\":10}");
+        Coupon product1 = coupon(2L, "product-wise", "{\"product_id\":1,\"discount\":20}");
+        Coupon product9 = coupon(3L, "product-wise", "{\"product_id\":9,\"discount\":20}");
+        Coupon bxgy = coupon(4L, "bxgy",
+                "{\"buy_products\":[{\"product_id\":1,\"quantity\":2}],\"get_products\":[{\"product_id\":5,\"quantity\":1}],\"repetition_limit\":1}");
+
+        when(repository.findAll()).thenReturn(List.of(cartWise, product1, product9, bxgy));
+
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+
+        List<Long> ids = catalog.candidatesFor(cart(1)).stream().map(Coupon::getId).toList();
+
+        assertEquals(List.of(1L, 2L, 4L), ids);
+    }
+
+    @Test
+    void testEmptyCart_OnlyCartWideCandidates() throws Exception {
+        Coupon cartWise = coupon(1L, "cart-wise", "{\"threshold\":100,\"discount\":10}");
+        Coupon product1 = coupon(2L, "product-wise", "{\"product_id\":1,\"discount\":20}");
+
+        when(repository.findAll()).thenReturn(List.of(cartWise, product1));
+
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+
+        assertEquals(List.of(cartWise), catalog.candidatesFor(new Cart()));
+    }
+
+    // ---------------------------------------------------
+    // LOCAL WRITES RE-INDEX AND BUMP THE VERSION
+    // ---------------------------------------------------
+    @Test
+    void testUpsertMovesIndexEntry() throws Exception {
+        Coupon product1 = coupon(2L, "product-wise", "{\"product_id\":1,\"discount\":20}");
+        when(repository.findAll()).thenReturn(List.of(product1));
+
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        catalog.size();
+        long before = catalog.getVersion();
+
+        long after = catalog.upsert(coupon(2L, "product-wise", "{\"product_id\":7,\"discount\":20}"));
+
+        assertTrue(after > before);
+        assertTrue(catalog.candidatesFor(cart(1)).isEmpty());
+        assertEquals(1, catalog.candidatesFor(cart(7)).size());
+    }
+
+    // ---------------------------------------------------
+    // REMOTE CHANGES INVALIDATE ONLY THE AFFECTED COUPON
+    // ---------------------------------------------------
+    @Test
+    void testRemoteChangeInvalidatesSingleCoupon() throws Exception {
+        Coupon product1 = coupon(2L, "product-wise", "{\"product_id\":1,\"discount\":20}");
+        Coupon product3 = coupon(3L, "product-wise", "{\"product_id\":3,\"discount\":20}");
+        when(repository.findAll()).thenReturn(List.of(product1, product3));
+
+        CouponCatalog local = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        CouponCatalog remote = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        local.size();
+
+        Coupon moved = coupon(2L, "product-wise", "{\"product_id\":8,\"discount\":20}");
+        when(repository.findById(2L)).thenReturn(Optional.of(moved));
+
+        bus.publish(new CatalogChangeEvent(remote.getNodeId(), remote.upsert(moved), 2L,
+                CatalogChangeEvent.Type.UPSERTED));
+
+        assertTrue(local.candidatesFor(cart(1)).isEmpty());
+        assertEquals(List.of(moved), local.candidatesFor(cart(8)));
+        assertEquals(1, local.candidatesFor(cart(3)).size());
+        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).findById(2L);
+    }
+
+    @Test
+    void testOwnEventsAreIgnored() throws Exception {
+        Coupon product1 = coupon(2L, "product-wise", "{\"product_id\":1,\"discount\":20}");
+        when(repository.findAll()).thenReturn(List.of(product1));
+
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        long version = catalog.upsert(product1);
+
+        bus.publish(new CatalogChangeEvent(catalog.getNodeId(), version, 2L, CatalogChangeEvent.Type.UPSERTED));
+
+        assertEquals(version, catalog.getVersion());
+        verify(repository, never()).findById(any());
+    }
+
+    // ---------------------------------------------------
+    // UNKNOWN IDS ARE ANSWERED WITHOUT THE REPOSITORY
+    // ---------------------------------------------------
+    @Test
+    void testUnknownIdSkipsRepositoryOnceLoaded() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(coupon(1L, "cart-wise", "{\"threshold\":100,\"discount\":10}")));
+
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        catalog.size();
+
+        assertTrue(catalog.find(424242L).isEmpty());
+        assertFalse(catalog.mightExist(424242L));
+        assertTrue(catalog.mightExist(1L));
+        verify(repository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testDeletedIdBecomesUnknown() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(coupon(1L, "cart-wise", "{\"threshold\":100,\"discount\":10}")));
+
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        catalog.size();
+        catalog.remove(1L);
+
+        assertTrue(catalog.find(1L).isEmpty());
+        verify(repository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testIdAnnouncedByPeerIsLookedUp() throws Exception {
+        when(repository.findAll()).thenReturn(List.of());
+
+        CouponCatalog local = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        CouponCatalog remote = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        local.size();
+
+        Coupon created = coupon(7L, "cart-wise", "{\"threshold\":100,\"discount\":10}");
+        when(repository.findById(7L)).thenReturn(Optional.of(created));
+        bus.publish(new CatalogChangeEvent(remote.getNodeId(), remote.upsert(created), 7L,
+                CatalogChangeEvent.Type.UPSERTED));
+
+        assertEquals(Optional.of(created), local.find(7L));
+    }
+
+    @Test
+    void testLostAnnouncementIsConfirmedOnPrimary() throws Exception {
+        when(repository.findAll()).thenReturn(List.of());
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        catalog.size();
+
+        // Created on another node whose bus message never arrived
+        Coupon created = coupon(7L, "cart-wise", "{\"threshold\":100,\"discount\":10}");
+        when(repository.existsById(7L)).thenReturn(true);
+        when(repository.findById(7L)).thenReturn(Optional.of(created));
+
+        assertEquals(Optional.of(created), catalog.find(7L));
+        assertTrue(catalog.mightExist(7L));
+        verify(repository, times(1)).existsById(7L);
+    }
+
+    @Test
+    void testMissConfirmationsAreRateLimited() throws Exception {
+        when(repository.findAll()).thenReturn(List.of());
+        MutableClock clock = new MutableClock(Instant.parse("2025-11-28T09:00:00Z"));
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), clock);
+        catalog.size();
+
+        assertFalse(catalog.mightExist(1L));
+        assertFalse(catalog.mightExist(2L));
+        clock.set(clock.instant().plusMillis(100));
+        assertFalse(catalog.mightExist(3L));
+
+        verify(repository).existsById(1L);
+        verify(repository, never()).existsById(2L);
+        verify(repository).existsById(3L);
+    }
+
+    @Test
+    void testResyncRebuildsKnownIds() throws Exception {
+        CatalogProperties properties = new CatalogProperties();
+        properties.setMissConfirmationsPerSecond(0);
+        when(repository.findAll()).thenReturn(List.of(coupon(1L, "cart-wise", "{\"threshold\":100,\"discount\":10}")));
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, properties, Clock.systemUTC());
+        catalog.size();
+        catalog.invalidate(3L);
+
+        // 7 was created and 1 deleted elsewhere without a message; 3 changed here during the read
+        when(repository.findAllIds()).thenAnswer(invocation -> {
+            catalog.remove(3L);
+            return List.of(3L, 7L);
+        });
+        catalog.resyncKnownIds();
+
+        assertTrue(catalog.mightExist(7L));
+        assertFalse(catalog.mightExist(1L));
+        assertFalse(catalog.mightExist(3L));
+        verify(repository, never()).existsById(anyLong());
+    }
+
+    // ---------------------------------------------------
+    // LOADS READ THE PRIMARY AND DO NOT RACE WRITERS
+    // ---------------------------------------------------
+    @Test
+    void testLoadsRunInTheirOwnTransaction() throws Exception {
+        when(repository.findAll()).thenReturn(List.of());
+        when(repository.findById(7L)).thenReturn(Optional.empty());
+
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        catalog.size();
+        catalog.invalidate(7L);
+        catalog.find(7L);
+
+        // Initial load, stale reload, and the primary confirming 7 is gone
+        assertEquals(3, transactionsStarted.get());
+    }
+
+    @Test
+    void testLoadRacingDeleteDoesNotResurrectCoupon() throws Exception {
+        when(repository.findAll()).thenReturn(List.of());
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        catalog.size();
+        catalog.invalidate(7L);
+
+        // The row is read, then the coupon is deleted on this node before the read is indexed
+        Coupon created = coupon(7L, "cart-wise", "{\"threshold\":100,\"discount\":10}");
+        when(repository.findById(7L)).thenAnswer(invocation -> {
+            catalog.remove(7L);
+            return Optional.of(created);
+        });
+
+        assertTrue(catalog.find(7L).isEmpty());
+        assertEquals(0, catalog.size());
+        assertFalse(catalog.mightExist(7L));
+    }
+
+    @Test
+    void testRefreshRacingInvalidateReadsAgain() throws Exception {
+        when(repository.findAll()).thenReturn(List.of());
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        catalog.size();
+        catalog.invalidate(7L);
+
+        // The first read misses the row; the coupon is created and announced before it is applied
+        Coupon created = coupon(7L, "cart-wise", "{\"threshold\":100,\"discount\":10}");
+        when(repository.findById(7L))
+                .thenAnswer(invocation -> {
+                    catalog.invalidate(7L);
+                    return Optional.empty();
+                })
+                .thenReturn(Optional.of(created));
+
+        catalog.size();
+        assertTrue(catalog.mightExist(7L));
+        assertEquals(Optional.of(created), catalog.find(7L));
+    }
+
+    // ---------------------------------------------------
+    // VALIDITY WINDOWS — ONLY ACTIVE COUPONS ARE CANDIDATES
+    // ---------------------------------------------------
+    @Test
+    void testValidityWindowActivatesAndExpires() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2025-11-28T09:00:00Z"));
+
+        Coupon flashSale = coupon(1L, "cart-wise", "{\"threshold\":1,\"discount\":50}");
+        flashSale.setStartsAt(Instant.parse("2025-11-28T10:00:00Z"));
+        flashSale.setEndsAt(Instant.parse("2025-11-28T11:00:00Z"));
+        Coupon expired = coupon(2L, "cart-wise", "{\"threshold\":1,\"discount\":5}");
+        expired.setEndsAt(Instant.parse("2025-11-27T00:00:00Z"));
+        Coupon always = coupon(3L, "cart-wise", "{\"threshold\":1,\"discount\":5}");
+
+        when(repository.findAll()).thenReturn(List.of(flashSale, expired, always));
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), clock);
+
+        assertEquals(List.of(always), catalog.candidatesFor(cart(1)));
+        assertFalse(catalog.isActive(1L));
+        assertFalse(catalog.isActive(2L));
+
+        clock.set(Instant.parse("2025-11-28T10:00:00Z"));
+        long beforeStart = catalog.getVersion();
+        catalog.advanceValidity();
+        assertEquals(List.of(flashSale, always), catalog.candidatesFor(cart(1)));
+        assertEquals(Set.of(1L), catalog.changesSince(beforeStart).changedIds());
+
+        clock.set(Instant.parse("2025-11-28T11:00:00.500Z"));
+        catalog.advanceValidity();
+        assertEquals(List.of(always), catalog.candidatesFor(cart(1)));
+        assertFalse(catalog.isActive(1L));
+    }
+
+    @Test
+    void testRescheduledCouponIgnoresOldTransitions() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2025-11-28T09:00:00Z"));
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), clock);
+
+        Coupon coupon = coupon(1L, "cart-wise", "{\"threshold\":1,\"discount\":50}");
+        coupon.setStartsAt(Instant.parse("2025-11-28T10:00:00Z"));
+        catalog.upsert(coupon);
+
+        Coupon moved = coupon(1L, "cart-wise", "{\"threshold\":1,\"discount\":50}");
+        moved.setStartsAt(Instant.parse("2025-11-28T12:00:00Z"));
+        catalog.upsert(moved);
+
+        clock.set(Instant.parse("2025-11-28T10:30:00Z"));
+        catalog.advanceValidity();
+        assertFalse(catalog.isActive(1L));
+
+        clock.set(Instant.parse("2025-11-28T12:00:00Z"));
+        catalog.advanceValidity();
+        assertTrue(catalog.isActive(1L));
+    }
+
+    // ---------------------------------------------------
+    // CHANGE LOG
+    // ---------------------------------------------------
+    @Test
+    void testChangedSince() throws Exception {
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        long start = catalog.getVersion();
+
+        long afterFirst = catalog.upsert(coupon(1L, "cart-wise", "{\"threshold\":1,\"discount\":1}"));
+        catalog.remove(2L);
+        catalog.invalidate(3L);
+
+        assertEquals(Set.of(1L, 2L, 3L), catalog.changesSince(start).changedIds());
+        assertEquals(Set.of(2L, 3L), catalog.changesSince(afterFirst).changedIds());
+        assertTrue(catalog.changesSince(catalog.getVersion()).changedIds().isEmpty());
+    }
+
+    @Test
+    void testChangedSince_OlderThanLog() throws Exception {
+        CatalogProperties properties = new CatalogProperties();
+        properties.setChangeLogSize(2);
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, properties, Clock.systemUTC());
+        long start = catalog.getVersion();
+
+        catalog.remove(1L);
+        long afterFirst = catalog.getVersion();
+        catalog.remove(2L);
+        catalog.remove(3L);
+
+        assertNull(catalog.changesSince(start).changedIds());
+        assertEquals(Set.of(2L, 3L), catalog.changesSince(afterFirst).changedIds());
+        assertNull(catalog.changesSince(start - 1).changedIds());
+    }
+
+    @Test
+    void testChangesSince_NewerThanCurrent_Resync() throws Exception {
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        catalog.remove(1L);
+
+        // A version issued by another node, or a later incarnation of this one
+        CouponCatalog.ChangeSet changes = catalog.changesSince(catalog.getVersion() + 1);
+
+        assertEquals(catalog.getVersion(), changes.version());
+        assertNull(changes.changedIds());
+    }
+
+    @Test
+    void testChangesSince_VersionMatchesIds() throws Exception {
+        CatalogProperties properties = new CatalogProperties();
+        properties.setChangeLogSize(100_000);
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, properties, Clock.systemUTC());
+        long start = catalog.getVersion();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (long id = 1; id <= 100_000 && !done.get(); id++) {
+                catalog.remove(id);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                CouponCatalog.ChangeSet changes = catalog.changesSince(start);
+                // Each remove is one version and one id, so a torn read shows up as a mismatch
+                assertEquals(changes.version() - start, changes.changedIds().size());
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+    }
+
+    // ---------------------------------------------------
+    // UDP BUS DELIVERS TO PEERS ON LOCALHOST
+    // ---------------------------------------------------
+    @Test
+    void testUdpBusDeliversToPeer() throws Exception {
+        try (UdpCatalogChangeBus receiver = new UdpCatalogChangeBus(0, List.of());
+             UdpCatalogChangeBus sender = new UdpCatalogChangeBus(0,
+                     List.of(new InetSocketAddress("localhost", receiver.getLocalPort())))) {
+
+            CompletableFuture<CatalogChangeEvent> received =
+                    new CompletableFuture<>();
+            receiver.subscribe(received::complete);
+
+            CatalogChangeEvent event = new CatalogChangeEvent("node-a", 5, 42L, CatalogChangeEvent.Type.DELETED);
+            sender.publish(event);
+
+            assertEquals(event, received.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    // ---------------------------------------------------
+    // PRELOAD — THE FIRST EVALUATION DOES NOT SCAN THE TABLE
+    // ---------------------------------------------------
+    @Test
+    void testPreloaderLoadsCatalogBeforeFirstEvaluation() throws Exception {
+        Coupon product1 = coupon(1L, "product-wise", "{\"product_id\":1,\"discount\":20}");
+        when(repository.findAll()).thenReturn(List.of(product1));
+
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+        new CatalogPreloader(catalog).run(null);
+        verify(repository).findAll();
+
+        assertEquals(List.of(product1), catalog.candidatesFor(cart(1)));
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void testLoadedSizeDoesNotLoadCatalog() throws Exception {
+        when(repository.findAll()).thenReturn(List.of(coupon(1L, "cart-wise", "{\"threshold\":100,\"discount\":10}")));
+        CouponCatalog catalog = new CouponCatalog(repository, transactions, bus, new CatalogProperties(), Clock.systemUTC());
+
+        assertEquals(0, catalog.loadedSize());
+        verifyNoInteractions(repository);
+
+        assertEquals(1, catalog.size());
+        assertEquals(1, catalog.loadedSize());
+    }
+
+    private Coupon coupon(Long id, String type, String details) throws Exception {
+        Coupon coupon = new Coupon();
+        coupon.setId(id);
+        coupon.setType(type);
+        coupon.setDetails(mapper.readTree(details));
+        return coupon;
+    }
+
+    private Cart cart(int productId) {
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        item.setPrice(10.0);
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(item));
+        return cart;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
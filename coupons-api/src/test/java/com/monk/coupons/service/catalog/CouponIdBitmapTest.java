@@ -0,0 +1,70 @@
+package com.monk.coupons.service.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponIdBitmapTest {
+
+    // ---------------------------------------------------
+    // MEMBERSHIP
+    // ---------------------------------------------------
+    @Test
+    void testAddAndRemove() {
+        CouponIdBitmap ids = new CouponIdBitmap(64, 1L << 40);
+
+        ids.add(1);
+        ids.add(63);
+
+        assertTrue(ids.contains(1));
+        assertTrue(ids.contains(63));
+        assertFalse(ids.contains(2));
+
+        ids.remove(1);
+        assertFalse(ids.contains(1));
+        assertTrue(ids.contains(63));
+    }
+
+    @Test
+    void testGrowsForHigherIds() {
+        CouponIdBitmap ids = new CouponIdBitmap(64, 1L << 40);
+        ids.add(5);
+
+        ids.add(1_000_000);
+
+        assertTrue(ids.contains(5));
+        assertTrue(ids.contains(1_000_000));
+        assertFalse(ids.contains(999_999));
+        assertFalse(ids.contains(50_000_000));
+    }
+
+    @Test
+    void testOutOfRangeIds() {
+        CouponIdBitmap ids = new CouponIdBitmap(64, 1L << 40);
+
+        ids.add(-3);
+        ids.add(Long.MAX_VALUE);
+
+        assertTrue(ids.contains(-3));
+        assertTrue(ids.contains(Long.MAX_VALUE));
+        assertFalse(ids.contains(Long.MAX_VALUE - 1));
+
+        ids.remove(Long.MAX_VALUE);
+        assertFalse(ids.contains(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testIdsBeyondRangeDoNotGrowBitmap() {
+        CouponIdBitmap ids = new CouponIdBitmap(64, 1024);
+
+        ids.add(1023);
+        ids.add(5_000_000_000L);
+
+        assertTrue(ids.contains(1023));
+        assertTrue(ids.contains(5_000_000_000L));
+        assertFalse(ids.contains(1024));
+
+        ids.remove(5_000_000_000L);
+        assertFalse(ids.contains(5_000_000_000L));
+    }
+}
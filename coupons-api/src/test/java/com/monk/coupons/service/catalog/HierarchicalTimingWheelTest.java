@@ -0,0 +1,88 @@
+package com.monk.coupons.service.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    // ---------------------------------------------------
+    // PAST DEADLINE → NOT SCHEDULED
+    // ---------------------------------------------------
+    @Test
+    void testPastDeadlineIsRejected() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 60, START);
+
+        assertFalse(wheel.schedule(START - 5000, "past"));
+        assertFalse(wheel.schedule(START, "now"));
+        assertEquals(0, wheel.size());
+    }
+
+    // ---------------------------------------------------
+    // FIRES ON THE FIRST TICK AT OR AFTER THE DEADLINE
+    // ---------------------------------------------------
+    @Test
+    void testFiresNeverEarly() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 60, START);
+        List<String> fired = new ArrayList<>();
+
+        wheel.schedule(START + 2500, "a");
+
+        wheel.advanceTo(START + 2999, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advanceTo(START + 3000, fired::add);
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    // ---------------------------------------------------
+    // ITEMS ON HIGHER LEVELS CASCADE DOWN AND FIRE ON TIME
+    // ---------------------------------------------------
+    @Test
+    void testCascadesAcrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1000, 60, START);
+        long[] offsets = {5, 59, 60, 61, 3599, 3600, 3601, 7 * 3600 + 13, 3 * 86400 + 1};
+        for (long offset : offsets) {
+            assertTrue(wheel.schedule(START + offset * 1000, offset));
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long second = 1; second <= 3 * 86400 + 2; second++) {
+            long now = START + second * 1000;
+            int before = fired.size();
+            wheel.advanceTo(now, fired::add);
+            for (int i = before; i < fired.size(); i++) {
+                assertEquals(second, fired.get(i), "item fired at the wrong tick");
+            }
+        }
+
+        assertEquals(offsets.length, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    // ---------------------------------------------------
+    // A LARGE JUMP FIRES EVERYTHING DUE, IN ORDER
+    // ---------------------------------------------------
+    @Test
+    void testLargeJump() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1000, 8, START);
+        for (int i = 1; i <= 100; i++) {
+            wheel.schedule(START + i * 7_000L, i);
+        }
+
+        List<Integer> fired = new ArrayList<>();
+        wheel.advanceTo(START + 350_000, fired::add);
+
+        assertEquals(50, fired.size());
+        for (int i = 0; i < fired.size(); i++) {
+            assertEquals(i + 1, fired.get(i));
+        }
+        assertEquals(50, wheel.size());
+    }
+}
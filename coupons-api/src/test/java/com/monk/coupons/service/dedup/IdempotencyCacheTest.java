@@ -0,0 +1,175 @@
+package com.monk.coupons.service.dedup;
+
+import com.monk.coupons.exception.RequestInProgressException;
+import com.monk.coupons.service.Deadline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final IdempotencyCache<String> cache = new IdempotencyCache<>(100, Duration.ofMinutes(5), Duration.ofSeconds(5), Clock.systemUTC());
+
+    // ---------------------------------------------------
+    // REPLAY
+    // ---------------------------------------------------
+    @Test
+    void testRetryReturnsStoredResult() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("r1", cache.execute("k", "req", () -> "r" + calls.incrementAndGet()));
+        assertEquals("r1", cache.execute("k", "req", () -> "r" + calls.incrementAndGet()));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequest() {
+        cache.execute("k", "req-1", () -> "r");
+
+        assertThrows(IllegalArgumentException.class, () -> cache.execute("k", "req-2", () -> "r"));
+    }
+
+    @Test
+    void testFailureIsNotRemembered() {
+        assertThrows(IllegalStateException.class,
+                () -> cache.execute("k", "req", () -> { throw new IllegalStateException("boom"); }));
+
+        assertEquals("ok", cache.execute("k", "req", () -> "ok"));
+    }
+
+    // ---------------------------------------------------
+    // EXPIRY AND BOUNDS
+    // ---------------------------------------------------
+    @Test
+    void testExpiredEntryIsRecomputed() {
+        IdempotencyCache<String> shortLived = new IdempotencyCache<>(100, Duration.ZERO, Duration.ofSeconds(5), Clock.systemUTC());
+        AtomicInteger calls = new AtomicInteger();
+
+        shortLived.execute("k", "req", () -> "r" + calls.incrementAndGet());
+        assertEquals("r2", shortLived.execute("k", "req", () -> "r" + calls.incrementAndGet()));
+    }
+
+    @Test
+    void testExpiredEntriesAreSweptOnInsert() {
+        IdempotencyCache<String> shortLived = new IdempotencyCache<>(100, Duration.ZERO, Duration.ofSeconds(5), Clock.systemUTC());
+
+        shortLived.execute("a", "req", () -> "a");
+        shortLived.execute("b", "req", () -> "b");
+        shortLived.execute("c", "req", () -> "c");
+
+        assertEquals(1, shortLived.size());
+    }
+
+    @Test
+    void testOldestEntriesEvicted() {
+        IdempotencyCache<String> small = new IdempotencyCache<>(2, Duration.ofMinutes(5), Duration.ofSeconds(5), Clock.systemUTC());
+        AtomicInteger calls = new AtomicInteger();
+
+        small.execute("a", "req", () -> "a" + calls.incrementAndGet());
+        small.execute("b", "req", () -> "b" + calls.incrementAndGet());
+        small.execute("c", "req", () -> "c" + calls.incrementAndGet());
+
+        assertEquals(2, small.size());
+        assertEquals("a4", small.execute("a", "req", () -> "a" + calls.incrementAndGet()));
+    }
+
+    // ---------------------------------------------------
+    // CONCURRENT DUPLICATES
+    // ---------------------------------------------------
+    @Test
+    void testConcurrentDuplicatesWaitForInFlight() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = pool.submit(() -> cache.execute("k", "req", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "done";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> retries = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                retries.add(pool.submit(() -> cache.execute("k", "req", () -> "r" + calls.incrementAndGet())));
+            }
+            release.countDown();
+
+            assertEquals("done", first.get(5, TimeUnit.SECONDS));
+            for (Future<String> retry : retries) {
+                assertEquals("done", retry.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDuplicateGivesUpAfterMaxWait() throws Exception {
+        IdempotencyCache<String> impatient = new IdempotencyCache<>(100, Duration.ofMinutes(5), Duration.ofMillis(50), Clock.systemUTC());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = pool.submit(() -> impatient.execute("k", "req", () -> {
+                started.countDown();
+                await(release);
+                return "done";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(RequestInProgressException.class, () -> impatient.execute("k", "req", () -> "again"));
+
+            release.countDown();
+            assertEquals("done", first.get(5, TimeUnit.SECONDS));
+            assertEquals("done", impatient.execute("k", "req", () -> "again"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDuplicateGivesUpAtItsDeadline() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> cache.execute("k", "req", () -> {
+                started.countDown();
+                await(release);
+                return "done";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertThrows(RequestInProgressException.class,
+                    () -> cache.execute("k", "req", Deadline.after(Duration.ofMillis(50)), () -> "again"));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.monk.coupons.service.dedup;
+
+import com.monk.coupons.service.Deadline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+
+    // ---------------------------------------------------
+    // SEQUENTIAL CALLS ARE NOT CACHED
+    // ---------------------------------------------------
+    @Test
+    void testSequentialCallsEachExecute() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("r1", flight.execute("k", () -> "r" + calls.incrementAndGet()));
+        assertEquals("r2", flight.execute("k", () -> "r" + calls.incrementAndGet()));
+        assertEquals(2, flight.getExecutions());
+        assertEquals(0, flight.getCoalesced());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    // ---------------------------------------------------
+    // CONCURRENT IDENTICAL CALLS SHARE ONE EXECUTION
+    // ---------------------------------------------------
+    @Test
+    void testConcurrentCallsCoalesce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("k", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "shared";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                followers.add(pool.submit(() -> flight.execute("k", () -> "own-" + calls.incrementAndGet())));
+            }
+            // Followers are parked on the leader's future once they are counted
+            while (flight.getCoalesced() < 4) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("shared", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("shared", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(1, flight.getExecutions());
+            assertEquals(4, flight.getCoalesced());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDifferentKeysDoNotCoalesce() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> a = pool.submit(() -> flight.execute("a", () -> {
+                bothStarted.countDown();
+                await(bothStarted);
+                return "a";
+            }));
+            Future<String> b = pool.submit(() -> flight.execute("b", () -> {
+                bothStarted.countDown();
+                await(bothStarted);
+                return "b";
+            }));
+
+            assertEquals("a", a.get(5, TimeUnit.SECONDS));
+            assertEquals("b", b.get(5, TimeUnit.SECONDS));
+            assertEquals(2, flight.getExecutions());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ---------------------------------------------------
+    // FAILURES ARE SHARED, NOT REMEMBERED
+    // ---------------------------------------------------
+    @Test
+    void testFailureIsNotRemembered() {
+        assertThrows(IllegalStateException.class,
+                () -> flight.execute("k", () -> { throw new IllegalStateException("boom"); }));
+
+        assertEquals("ok", flight.execute("k", () -> "ok"));
+    }
+
+    // ---------------------------------------------------
+    // FOLLOWERS KEEP THEIR OWN DEADLINE
+    // ---------------------------------------------------
+    @Test
+    void testFollowerDoesNotWaitPastItsDeadline() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("k", Deadline.none(), () -> {
+                started.countDown();
+                await(release);
+                return "slow";
+            }, r -> true));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            String own = flight.execute("k", Deadline.after(Duration.ofMillis(20)), () -> "own", r -> true);
+
+            assertEquals("own", own);
+            assertEquals(2, flight.getExecutions());
+            assertEquals(0, flight.getCoalesced());
+            release.countDown();
+            assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUnshareableResultIsNotShared() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("k", Deadline.none(), () -> {
+                started.countDown();
+                await(release);
+                return "partial";
+            }, r -> !r.equals("partial")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<String> follower = pool.submit(() ->
+                    flight.execute("k", Deadline.none(), () -> "complete", r -> !r.equals("partial")));
+            while (flight.getCoalesced() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("partial", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("complete", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(2, flight.getExecutions());
+            assertEquals(0, flight.getCoalesced());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testShareableResultIsShared() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("k", Deadline.none(), () -> {
+                started.countDown();
+                await(release);
+                return "complete";
+            }, r -> true));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<String> follower = pool.submit(() ->
+                    flight.execute("k", Deadline.after(Duration.ofSeconds(5)), () -> "own", r -> true));
+            while (flight.getCoalesced() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("complete", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("complete", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, flight.getExecutions());
+            assertEquals(1, flight.getCoalesced());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
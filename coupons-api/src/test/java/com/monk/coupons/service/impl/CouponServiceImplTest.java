@@ -0,0 +1,771 @@
+package com.monk.coupons.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.monk.coupons.config.CatalogProperties;
+import com.monk.coupons.config.EvaluationProperties;
+import com.monk.coupons.config.ProfilingProperties;
+import com.monk.coupons.config.RedemptionProperties;
+import com.monk.coupons.exception.CouponNotFoundException;
+import com.monk.coupons.exception.RedemptionLimitExceededException;
+import com.monk.coupons.model.*;
+import com.monk.coupons.repository.CouponRepository;
+import com.monk.coupons.repository.CustomerRedemptionRepository;
+import com.monk.coupons.service.Deadline;
+import com.monk.coupons.service.catalog.CatalogChangeBus;
+import com.monk.coupons.service.catalog.CouponCatalog;
+import com.monk.coupons.service.catalog.InProcessCatalogChangeBus;
+import com.monk.coupons.service.dedup.SingleFlight;
+import com.monk.coupons.service.metrics.EvaluationMetrics;
+import com.monk.coupons.service.profiling.CatalogRebuildEvent;
+import com.monk.coupons.service.profiling.EvaluationEvent;
+import com.monk.coupons.service.profiling.SlowCouponEvaluationEvent;
+import com.monk.coupons.service.redemption.CustomerRedemptionStore;
+import com.monk.coupons.service.redemption.RedemptionLedger;
+import com.monk.coupons.service.strategy.CartWiseStrategy;
+import com.monk.coupons.service.strategy.CouponStrategy;
+import com.monk.coupons.service.strategy.CouponStrategyFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CouponServiceImplTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private CustomerRedemptionRepository customerRedemptionRepository;
+
+    @Mock
+    private CouponStrategyFactory strategyFactory;
+
+    @Mock
+    private CouponStrategy couponStrategy;
+
+    private CouponServiceImpl service;
+
+    private CouponCatalog catalog;
+
+    private ObjectMapper mapper;
+
+    private SimpleMeterRegistry registry;
+
+    private ProfilingProperties profiling;
+
+    private EvaluationProperties evaluation;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        mapper = new ObjectMapper();
+
+        CatalogChangeBus changeBus = new InProcessCatalogChangeBus();
+        catalog = new CouponCatalog(couponRepository, TransactionOperations.withoutTransaction(), changeBus, new CatalogProperties(), Clock.systemUTC());
+        RedemptionLedger ledger = new RedemptionLedger(
+                couponRepository, TransactionOperations.withoutTransaction(), new RedemptionProperties());
+        CustomerRedemptionStore customerRedemptions = new CustomerRedemptionStore(
+                customerRedemptionRepository, TransactionOperations.withoutTransaction(), new RedemptionProperties(),
+                Clock.systemUTC());
+        registry = new SimpleMeterRegistry();
+        profiling = new ProfilingProperties();
+        evaluation = new EvaluationProperties();
+        service = new CouponServiceImpl(couponRepository, strategyFactory, mapper, catalog, changeBus, ledger,
+                customerRedemptions, new EvaluationMetrics(registry, catalog, new SingleFlight<>()), profiling, evaluation);
+    }
+
+    private Coupon mockCoupon(Long id, String type) {
+        Coupon coupon = new Coupon();
+        coupon.setId(id);
+        coupon.setType(type);
+
+        ObjectNode details = mapper.createObjectNode();
+        details.put("sample", "value");
+        coupon.setDetails(details);
+
+        return coupon;
+    }
+
+    // --------------------------------------------------------
+    // CREATE COUPON
+    // --------------------------------------------------------
+    @Test
+    void testCreateCoupon() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+
+        when(couponRepository.save(any(Coupon.class))).thenReturn(coupon);
+
+        Coupon saved = service.createCoupon(coupon);
+
+        assertNotNull(saved);
+        assertEquals(1L, saved.getId());
+        verify(couponRepository, times(1)).save(coupon);
+    }
+
+    @Test
+    void testCreateCoupon_EndBeforeStart() {
+        Coupon coupon = mockCoupon(null, "cart-wise");
+        coupon.setStartsAt(Instant.parse("2025-12-01T00:00:00Z"));
+        coupon.setEndsAt(Instant.parse("2025-11-01T00:00:00Z"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.createCoupon(coupon));
+        verify(couponRepository, never()).save(any());
+    }
+
+    // --------------------------------------------------------
+    // GET ALL COUPONS
+    // --------------------------------------------------------
+    @Test
+    void testGetCatalogSnapshot() {
+        when(couponRepository.findAll()).thenReturn(
+                List.of(mockCoupon(1L, "cart-wise"))
+        );
+
+        CouponChangesResponse snapshot = service.getCatalogSnapshot();
+
+        assertEquals(1, snapshot.getUpserted().size());
+        assertTrue(snapshot.getFullResync());
+        assertEquals(service.getCatalogNodeId(), snapshot.getNodeId());
+        verify(couponRepository, times(1)).findAll();
+
+        // Served from the catalog from then on
+        service.getCatalogSnapshot();
+        verify(couponRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testGetCatalogSnapshot_Empty() {
+        when(couponRepository.findAll()).thenReturn(List.of());
+
+        CouponChangesResponse snapshot = service.getCatalogSnapshot();
+
+        assertTrue(snapshot.getUpserted().isEmpty());
+    }
+
+    @Test
+    void testGetCatalogSnapshot_VersionCoversChanges() {
+        when(couponRepository.findAll()).thenReturn(List.of());
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+        when(couponRepository.save(any(Coupon.class))).thenReturn(coupon);
+
+        service.createCoupon(coupon);
+        CouponChangesResponse snapshot = service.getCatalogSnapshot();
+
+        assertEquals(List.of(coupon), snapshot.getUpserted());
+        assertEquals(service.getCatalogVersion(), snapshot.getVersion());
+        assertTrue(service.getChangesSince(snapshot.getNodeId(), snapshot.getVersion()).getUpserted().isEmpty());
+    }
+
+    // --------------------------------------------------------
+    // GET COUPON BY ID
+    // --------------------------------------------------------
+    @Test
+    void testGetCouponById() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+
+        Coupon result = service.getCouponById(1L);
+
+        assertNotNull(result);
+        assertEquals(1L, result.getId());
+    }
+
+    @Test
+    void testGetCoupon_NotFound() {
+        when(couponRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(CouponNotFoundException.class, () -> service.getCouponById(1L));
+    }
+
+    // --------------------------------------------------------
+    // UPDATE COUPON
+    // --------------------------------------------------------
+    @Test
+    void testUpdateCoupon() {
+        Coupon oldData = mockCoupon(1L, "cart-wise");
+        Coupon newData = mockCoupon(null, "product-wise");
+
+        ObjectNode newDetails = mapper.createObjectNode().put("x", "y");
+        newData.setDetails(newDetails);
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(oldData));
+        when(couponRepository.save(any(Coupon.class))).thenReturn(oldData);
+
+        Coupon updated = service.updateCoupon(1L, newData);
+
+        assertEquals("product-wise", updated.getType());
+        assertEquals("y", updated.getDetails().get("x").asText());
+    }
+
+    @Test
+    void testUpdateCoupon_NotFound() {
+        when(couponRepository.findById(99L)).thenReturn(Optional.empty());
+
+        Coupon newData = mockCoupon(null, "bxgy");
+
+        assertThrows(CouponNotFoundException.class,
+                () -> service.updateCoupon(99L, newData));
+    }
+
+    // --------------------------------------------------------
+    // DELETE COUPON
+    // --------------------------------------------------------
+    @Test
+    void testDeleteCoupon() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+
+        service.deleteCoupon(1L);
+
+        verify(couponRepository, times(1)).delete(coupon);
+    }
+
+    @Test
+    void testDeleteCoupon_NotFound() {
+        when(couponRepository.findById(5L)).thenReturn(Optional.empty());
+
+        assertThrows(CouponNotFoundException.class,
+                () -> service.deleteCoupon(5L));
+    }
+
+    // --------------------------------------------------------
+    // CHANGES SINCE VERSION
+    // --------------------------------------------------------
+    @Test
+    void testGetChangesSince() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+        long since = service.getCatalogVersion();
+
+        when(couponRepository.save(any(Coupon.class))).thenReturn(coupon);
+        when(couponRepository.findById(2L)).thenReturn(Optional.of(mockCoupon(2L, "cart-wise")));
+        service.createCoupon(coupon);
+        service.deleteCoupon(2L);
+        when(couponRepository.findById(2L)).thenReturn(Optional.empty());
+        long version = service.getCatalogVersion();
+
+        CouponChangesResponse changes = service.getChangesSince(service.getCatalogNodeId(), since);
+
+        assertFalse(changes.getFullResync());
+        assertEquals(version, changes.getVersion());
+        assertEquals(service.getCatalogNodeId(), changes.getNodeId());
+        assertEquals(List.of(coupon), changes.getUpserted());
+        assertEquals(List.of(2L), changes.getDeleted());
+    }
+
+    @Test
+    void testGetChangesSince_TooOld_FullResync() {
+        when(couponRepository.findAll()).thenReturn(List.of(mockCoupon(1L, "cart-wise")));
+
+        CouponChangesResponse changes = service.getChangesSince(service.getCatalogNodeId(), 0L);
+
+        assertTrue(changes.getFullResync());
+        assertEquals(1, changes.getUpserted().size());
+        assertTrue(changes.getDeleted().isEmpty());
+    }
+
+    @Test
+    void testGetChangesSince_OtherNode_FullResync() {
+        when(couponRepository.findAll()).thenReturn(List.of(mockCoupon(1L, "cart-wise")));
+        long version = service.getCatalogVersion();
+
+        assertTrue(service.getChangesSince("another-node", version).getFullResync());
+        assertTrue(service.getChangesSince(null, version).getFullResync());
+        assertFalse(service.getChangesSince(service.getCatalogNodeId(), version).getFullResync());
+    }
+
+    // --------------------------------------------------------
+    // GET APPLICABLE COUPONS
+    // --------------------------------------------------------
+    @Test
+    void testGetApplicableCoupons() {
+
+        Coupon c1 = mockCoupon(1L, "cart-wise");
+        Coupon c2 = mockCoupon(2L, "product-wise");
+
+        when(couponRepository.findAll()).thenReturn(List.of(c1, c2));
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(20.0);
+
+        ApplicableCouponsResponse response = service.getApplicableCoupons(new Cart(), Deadline.none());
+
+        assertEquals(2, response.getApplicableCoupons().size());
+        assertEquals(20.0, response.getApplicableCoupons().get(0).getDiscount());
+    }
+
+    @Test
+    void testGetApplicableCoupons_DiscountZero_Excluded() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+
+        when(couponRepository.findAll()).thenReturn(List.of(coupon));
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(0.0);
+
+        ApplicableCouponsResponse response = service.getApplicableCoupons(new Cart(), Deadline.none());
+
+        assertTrue(response.getApplicableCoupons().isEmpty());
+    }
+
+    @Test
+    void testGetApplicableCoupons_NullDetails_Excluded() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+        coupon.setDetails(null);
+
+        when(couponRepository.findAll()).thenReturn(List.of(coupon));
+        when(strategyFactory.getStrategy(nullable(String.class)))
+                .thenReturn(couponStrategy);
+
+        ApplicableCouponsResponse response = service.getApplicableCoupons(new Cart(), Deadline.none());
+
+        assertTrue(response.getApplicableCoupons().isEmpty());
+    }
+
+    @Test
+    void testGetApplicableCoupons_StrategyCalledWithCorrectType() {
+        Coupon coupon = mockCoupon(1L, "product-wise");
+
+        when(couponRepository.findAll()).thenReturn(List.of(coupon));
+        when(strategyFactory.getStrategy("product-wise")).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(10.0);
+
+        ApplicableCouponsResponse result = service.getApplicableCoupons(new Cart(), Deadline.none());
+
+        assertEquals(1, result.getApplicableCoupons().size());
+        verify(strategyFactory).getStrategy("product-wise");
+    }
+
+    @Test
+    void testGetApplicableCoupons_MostValuableFirst() {
+        Coupon low = mockCoupon(1L, "cart-wise");
+        Coupon high = mockCoupon(2L, "cart-wise");
+
+        when(couponRepository.findAll()).thenReturn(List.of(low, high));
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+        when(couponStrategy.estimateDiscount(eq(low), any())).thenReturn(5.0);
+        when(couponStrategy.estimateDiscount(eq(high), any())).thenReturn(50.0);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(10.0);
+
+        ApplicableCouponsResponse response = service.getApplicableCoupons(new Cart(), Deadline.none());
+
+        assertEquals(List.of(2L, 1L),
+                response.getApplicableCoupons().stream().map(ApplicableCoupon::getCouponId).toList());
+        assertFalse(response.getPartial());
+    }
+
+    @Test
+    void testGetApplicableCoupons_DeadlinePassed_Partial() {
+        when(couponRepository.findAll()).thenReturn(List.of(mockCoupon(1L, "cart-wise")));
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+
+        ApplicableCouponsResponse response =
+                service.getApplicableCoupons(new Cart(), Deadline.after(Duration.ZERO));
+
+        assertTrue(response.getPartial());
+        assertTrue(response.getApplicableCoupons().isEmpty());
+        verify(couponStrategy, never()).calculateDiscount(any(), any());
+    }
+
+    // --------------------------------------------------------
+    // EXPLAIN
+    // --------------------------------------------------------
+    @Test
+    void testGetApplicableCoupons_Explain_ReasonPerCoupon() {
+        Coupon reached = cartWiseCoupon(1L, 100, 10);
+        Coupon missed = cartWiseCoupon(2L, 500, 10);
+
+        when(couponRepository.findAll()).thenReturn(List.of(reached, missed));
+        when(strategyFactory.getStrategy("cart-wise")).thenReturn(new CartWiseStrategy());
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50), createItem(2, 1, 10)));
+
+        ApplicableCouponsResponse response = service.getApplicableCoupons(cart, Deadline.none(), true);
+
+        assertEquals(1, response.getApplicableCoupons().size());
+        assertEquals(2, response.getExplanations().size());
+        CouponExplanation applied = explanation(response, 1L);
+        assertEquals("APPLIED", applied.getReason());
+        assertEquals(11.0, applied.getDiscount());
+        CouponExplanation below = explanation(response, 2L);
+        assertEquals("BELOW_THRESHOLD", below.getReason());
+        assertEquals(0.0, below.getDiscount());
+        assertEquals(Map.of("threshold", 500.0, "percent", 10.0, "cart_total", 110.0), below.getValues());
+    }
+
+    @Test
+    void testGetApplicableCoupons_Explain_CouponsLeftOutByTheIndex() {
+        Coupon evaluated = cartWiseCoupon(1L, 100, 10);
+        Coupon otherProduct = mockCoupon(2L, "product-wise");
+        otherProduct.setDetails(mapper.createObjectNode().put("product_id", 9).put("discount", 20));
+        Coupon expired = cartWiseCoupon(3L, 100, 10);
+        expired.setEndsAt(Instant.parse("2020-01-01T00:00:00Z"));
+
+        when(couponRepository.findAll()).thenReturn(List.of(evaluated, otherProduct, expired));
+        when(strategyFactory.getStrategy("cart-wise")).thenReturn(new CartWiseStrategy());
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50)));
+
+        ApplicableCouponsResponse response = service.getApplicableCoupons(cart, Deadline.none(), true);
+
+        assertEquals(List.of(1L, 2L, 3L), response.getExplanations().stream().map(CouponExplanation::getCouponId).toList());
+        assertEquals("PRODUCT_NOT_IN_CART", explanation(response, 2L).getReason());
+        // Ids stay integers in the response
+        assertEquals(Map.of("product_id", 9), explanation(response, 2L).getValues());
+        assertEquals(CouponServiceImpl.NOT_ACTIVE, explanation(response, 3L).getReason());
+    }
+
+    @Test
+    void testGetApplicableCoupons_NotExplained_NoTrace() {
+        when(couponRepository.findAll()).thenReturn(List.of(mockCoupon(1L, "cart-wise")));
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(20.0);
+
+        ApplicableCouponsResponse response = service.getApplicableCoupons(new Cart(), Deadline.none());
+
+        assertNull(response.getExplanations());
+        verify(couponStrategy, never()).calculateDiscount(any(), any(), any());
+    }
+
+    @Test
+    void testGetApplicableCoupons_Explain_DeadlineAndExhausted() {
+        Coupon exhausted = mockCoupon(1L, "cart-wise");
+        exhausted.setMaxRedemptions(1L);
+        Coupon skipped = mockCoupon(2L, "cart-wise");
+
+        when(couponRepository.findAll()).thenReturn(List.of(exhausted, skipped));
+        when(couponRepository.findUnleasedRedemptions(1L)).thenReturn(0L);
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+
+        ApplicableCouponsResponse response =
+                service.getApplicableCoupons(new Cart(), Deadline.after(Duration.ZERO), true);
+
+        assertEquals(CouponServiceImpl.REDEMPTION_LIMIT_REACHED, explanation(response, 1L).getReason());
+        assertEquals(CouponServiceImpl.DEADLINE_EXCEEDED, explanation(response, 2L).getReason());
+        assertNull(explanation(response, 2L).getDiscount());
+    }
+
+    @Test
+    void testGetApplicableCoupons_Sampled_TracedButNotReturned() {
+        evaluation.setExplainSampleRate(1.0);
+
+        when(couponRepository.findAll()).thenReturn(List.of(mockCoupon(1L, "cart-wise")));
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any(), any())).thenReturn(20.0);
+
+        ApplicableCouponsResponse response = service.getApplicableCoupons(new Cart(), Deadline.none());
+
+        assertEquals(1, response.getApplicableCoupons().size());
+        assertNull(response.getExplanations());
+        verify(couponStrategy).calculateDiscount(any(), any(), any());
+        verify(couponStrategy, never()).calculateDiscount(any(), any());
+    }
+
+    private Coupon cartWiseCoupon(Long id, double threshold, double percent) {
+        Coupon coupon = mockCoupon(id, "cart-wise");
+        ObjectNode details = mapper.createObjectNode();
+        details.put("threshold", threshold);
+        details.put("discount", percent);
+        coupon.setDetails(details);
+        return coupon;
+    }
+
+    private static CouponExplanation explanation(ApplicableCouponsResponse response, Long couponId) {
+        return response.getExplanations().stream()
+                .filter(e -> e.getCouponId().equals(couponId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // --------------------------------------------------------
+    // APPLY COUPON
+    // --------------------------------------------------------
+    @Test
+    void testApplyCoupon() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50)));
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+        when(strategyFactory.getStrategy("cart-wise")).thenReturn(couponStrategy);
+
+        // Mock calculateDiscount
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(30.0);
+
+        // Mock applyCoupon to return the same cart
+        when(couponStrategy.applyCoupon(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        ApplyCouponResponse response = service.applyCoupon(1L, cart, null);
+
+        assertNotNull(response.getUpdatedCart());
+        assertEquals(30.0, response.getUpdatedCart().getTotalDiscount());
+    }
+
+
+    @Test
+    void testApplyCoupon_MultipleItems() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+
+        CartItem i1 = new CartItem();
+        i1.setProductId(1);
+        i1.setQuantity(2);
+        i1.setPrice(50.0);
+
+        CartItem i2 = new CartItem();
+        i2.setProductId(2);
+        i2.setQuantity(1);
+        i2.setPrice(100.0);
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(i1, i2));
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+        when(strategyFactory.getStrategy("cart-wise")).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(30.0);
+        when(couponStrategy.applyCoupon(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        ApplyCouponResponse response = service.applyCoupon(1L, cart, null);
+
+        assertEquals(200.0, response.getUpdatedCart().getTotalPrice());
+        assertEquals(30.0, response.getUpdatedCart().getTotalDiscount());
+        assertEquals(170.0, response.getUpdatedCart().getFinalPrice());
+    }
+
+    @Test
+    void testApplyCoupon_Expired() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+        coupon.setEndsAt(Instant.parse("2020-01-01T00:00:00Z"));
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.applyCoupon(1L, new Cart(), null));
+        verifyNoInteractions(couponStrategy);
+    }
+
+    @Test
+    void testApplyCoupon_MaxRedemptionsReached() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+        coupon.setMaxRedemptions(1L);
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50)));
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+        // The full lease is refused; the one redemption left is leased, then nothing is
+        when(couponRepository.findUnleasedRedemptions(1L)).thenReturn(1L, 0L);
+        when(couponRepository.leaseRedemptions(1L, 1L)).thenReturn(1);
+        when(strategyFactory.getStrategy("cart-wise")).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(30.0);
+        when(couponStrategy.applyCoupon(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        service.applyCoupon(1L, cart, null);
+
+        assertThrows(RedemptionLimitExceededException.class, () -> service.applyCoupon(1L, cart, null));
+    }
+
+    @Test
+    void testApplyCoupon_BudgetExhausted_ExcludedFromApplicable() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+        coupon.setDiscountBudget(50.0);
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50)));
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+        when(couponRepository.findAll()).thenReturn(List.of(coupon));
+        when(couponRepository.findUnleasedBudget(1L)).thenReturn(50.0, 20.0);
+        when(couponRepository.leaseBudget(1L, 50.0)).thenReturn(1);
+        when(strategyFactory.getStrategy("cart-wise")).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(30.0);
+        when(couponStrategy.applyCoupon(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        service.applyCoupon(1L, cart, null);
+        assertThrows(RedemptionLimitExceededException.class, () -> service.applyCoupon(1L, cart, null));
+
+        // 30 of 50 spent: a further 30 does not fit, but the coupon is not exhausted yet
+        assertEquals(1, service.getApplicableCoupons(cart, Deadline.none()).getApplicableCoupons().size());
+    }
+
+    @Test
+    void testApplyCoupon_OncePerCustomer() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+        coupon.setMaxPerCustomer(1L);
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50)));
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+        // alice's and bob's rows are created; alice's second lease finds her row
+        when(customerRedemptionRepository.insertLeased(anyString(), anyLong(), anyLong()))
+                .thenReturn(1, 1)
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(strategyFactory.getStrategy("cart-wise")).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(30.0);
+        when(couponStrategy.applyCoupon(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        service.applyCoupon(1L, cart, "alice");
+        service.applyCoupon(1L, cart, "bob");
+
+        assertThrows(RedemptionLimitExceededException.class, () -> service.applyCoupon(1L, cart, "alice"));
+    }
+
+    @Test
+    void testApplyCoupon_PerCustomerWithoutCustomerId() {
+        Coupon coupon = mockCoupon(1L, "cart-wise");
+        coupon.setMaxPerCustomer(1L);
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+
+        assertThrows(IllegalArgumentException.class, () -> service.applyCoupon(1L, new Cart(), null));
+        verifyNoInteractions(couponStrategy);
+    }
+
+    @Test
+    void testApplyCoupon_NotFound() {
+        when(couponRepository.findById(123L)).thenReturn(Optional.empty());
+
+        assertThrowsExactly(
+                CouponNotFoundException.class,
+                () -> service.applyCoupon(123L, new Cart(), null)
+        );
+    }
+
+    // --------------------------------------------------------
+    // METRICS
+    // --------------------------------------------------------
+    @Test
+    void testGetApplicableCoupons_RecordsMetrics() {
+        Coupon c1 = mockCoupon(1L, "cart-wise");
+        Coupon c2 = mockCoupon(2L, "product-wise");
+
+        when(couponRepository.findAll()).thenReturn(List.of(c1, c2));
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(eq(c1), any())).thenReturn(20.0);
+        when(couponStrategy.calculateDiscount(eq(c2), any())).thenReturn(0.0);
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50), createItem(2, 1, 10)));
+        service.getApplicableCoupons(cart, Deadline.none());
+
+        assertEquals(1, registry.get("coupons.evaluation")
+                .tags("operation", "applicable-coupons", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("coupons.strategy.evaluation").tag("strategy", "cart-wise").functionTimer().count());
+        assertEquals(1, registry.get("coupons.strategy.evaluation").tag("strategy", "product-wise").functionTimer().count());
+        assertEquals(1, registry.get("coupons.strategy.discounts").tag("strategy", "cart-wise").functionCounter().count());
+        assertEquals(0, registry.get("coupons.strategy.discounts").tag("strategy", "product-wise").functionCounter().count());
+        assertEquals(2, registry.get("coupons.evaluation.cart.items").summary().totalAmount());
+        assertEquals(2, registry.get("coupons.evaluation.coupons").summary().totalAmount());
+        assertEquals(2, registry.get("coupons.catalog.size").gauge().value());
+    }
+
+    @Test
+    void testApplyCoupon_RecordsMetrics() {
+        Coupon coupon = mockCoupon(1L, "bxgy");
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50)));
+
+        when(couponRepository.findById(1L)).thenReturn(Optional.of(coupon));
+        when(strategyFactory.getStrategy("bxgy")).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(any(), any())).thenReturn(30.0);
+        when(couponStrategy.applyCoupon(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(couponRepository.findById(123L)).thenReturn(Optional.empty());
+
+        service.applyCoupon(1L, cart, null);
+        assertThrows(CouponNotFoundException.class, () -> service.applyCoupon(123L, cart, null));
+
+        assertEquals(1, registry.get("coupons.evaluation")
+                .tags("operation", "apply-coupon", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("coupons.evaluation")
+                .tags("operation", "apply-coupon", "outcome", "error").timer().count());
+        assertEquals(1, registry.get("coupons.strategy.discounts").tag("strategy", "bxgy").functionCounter().count());
+    }
+
+    // --------------------------------------------------------
+    // JFR EVENTS
+    // --------------------------------------------------------
+    @Test
+    void testGetApplicableCoupons_EmitsJfrEvents() throws Exception {
+        Coupon c1 = mockCoupon(1L, "cart-wise");
+        Coupon c2 = mockCoupon(2L, "product-wise");
+
+        when(couponRepository.findAll()).thenReturn(List.of(c1, c2));
+        when(strategyFactory.getStrategy(anyString())).thenReturn(couponStrategy);
+        when(couponStrategy.calculateDiscount(eq(c1), any())).thenReturn(20.0);
+        when(couponStrategy.calculateDiscount(eq(c2), any())).thenReturn(0.0);
+        // Every coupon counts as slow
+        profiling.setSlowCouponThreshold(Duration.ZERO);
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 2, 50), createItem(2, 1, 10)));
+
+        Path file = Files.createTempFile("coupons", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EvaluationEvent.class);
+            recording.enable(SlowCouponEvaluationEvent.class);
+            recording.enable(CatalogRebuildEvent.class);
+            recording.start();
+            service.getApplicableCoupons(cart, Deadline.none());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        RecordedEvent rebuild = single(events, "com.monk.coupons.CatalogRebuild");
+        assertEquals("initial-load", rebuild.getString("reason"));
+        assertEquals(2, rebuild.getInt("couponsLoaded"));
+
+        RecordedEvent evaluation = single(events, "com.monk.coupons.Evaluation");
+        assertEquals(catalog.getVersion(), evaluation.getLong("catalogVersion"));
+        assertEquals(2, evaluation.getInt("cartLines"));
+        assertEquals(2, evaluation.getInt("couponsConsidered"));
+        assertEquals(2, evaluation.getInt("couponsEvaluated"));
+        assertEquals(1, evaluation.getInt("couponsMatched"));
+        assertFalse(evaluation.getBoolean("partial"));
+
+        assertEquals(2, events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.monk.coupons.SlowCouponEvaluation"))
+                .count());
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    private CartItem createItem(int id, int qty, double price) {
+        CartItem item = new CartItem();
+        item.setProductId(id);
+        item.setQuantity(qty);
+        item.setPrice(price);
+        return item;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.monk.coupons.service.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000;
+
+    // ---------------------------------------------------
+    // ADMISSION
+    // ---------------------------------------------------
+    @Test
+    void testRejectsOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.2, 100);
+
+        assertNotNull(limiter.tryAcquire());
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+        assertNotNull(second);
+        assertNull(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release(second);
+        assertEquals(1, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    // ---------------------------------------------------
+    // LIMIT FOLLOWS LATENCY
+    // ---------------------------------------------------
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 4, 100, 0.2, 100);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(10 * MS, 50);
+        }
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 30; i++) {
+            limiter.onSample(40 * MS, 50);
+        }
+
+        assertTrue(limiter.getLimit() < before / 2, "limit " + limiter.getLimit() + " from " + before);
+        assertTrue(limiter.getLimit() >= 4);
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyStaysFlatUnderLoad() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 100, 0.2, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(10 * MS, limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= 100);
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0.2, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(10 * MS, 1);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void testPermitsReleasedConcurrently() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8, 0.2, 100);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+                    if (permit != null) {
+                        limiter.release(permit);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, limiter.getInFlight());
+        // Samples dropped under contention still leave a limit within bounds
+        assertTrue(limiter.getLimit() >= 1 && limiter.getLimit() <= 8);
+    }
+}
@@ -0,0 +1,36 @@
+package com.monk.coupons.service.metrics;
+
+import com.monk.coupons.service.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadMetricsTest {
+
+    // ---------------------------------------------------
+    // ONE SET OF METERS PER BULKHEAD
+    // ---------------------------------------------------
+    @Test
+    void testMetersFollowBulkheadCounts() {
+        Bulkhead checkout = new Bulkhead("checkout", 1, 0, Duration.ZERO);
+        Bulkhead admin = new Bulkhead("admin", 1, 0, Duration.ZERO);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new BulkheadMetrics(List.of(checkout, admin)).bindTo(registry);
+
+        assertTrue(checkout.tryEnter());
+        assertFalse(checkout.tryEnter());
+
+        assertEquals(1, registry.get("coupons.bulkhead.active").tag("bulkhead", "checkout").gauge().value());
+        assertEquals(0, registry.get("coupons.bulkhead.queued").tag("bulkhead", "checkout").gauge().value());
+        assertEquals(1, registry.get("coupons.bulkhead.admitted").tag("bulkhead", "checkout").functionCounter().count());
+        assertEquals(1, registry.get("coupons.bulkhead.rejected").tag("bulkhead", "checkout").functionCounter().count());
+        assertEquals(0, registry.get("coupons.bulkhead.rejected").tag("bulkhead", "admin").functionCounter().count());
+
+        checkout.exit();
+        assertEquals(0, registry.get("coupons.bulkhead.active").tag("bulkhead", "checkout").gauge().value());
+    }
+}
@@ -0,0 +1,118 @@
+package com.monk.coupons.service.profiling;
+
+import com.monk.coupons.config.ProfilingProperties;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingEndpointTest {
+
+    @TempDir
+    private Path directory;
+
+    private JfrRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setup() {
+        ProfilingProperties properties = new ProfilingProperties();
+        properties.setRecordingDirectory(directory.resolve("jfr"));
+        properties.setRecordingSettings("default");
+        endpoint = new JfrRecordingEndpoint(properties);
+    }
+
+    @AfterEach
+    void stopRecording() {
+        if (!"NONE".equals(endpoint.status().state())) {
+            endpoint.control("stop");
+        }
+    }
+
+    // -----------------------------
+    // LIFECYCLE
+    // -----------------------------
+    @Test
+    void testNoRecordingByDefault() {
+        JfrRecordingEndpoint.RecordingStatus status = endpoint.status();
+
+        assertEquals("NONE", status.state());
+        assertNull(status.startedAt());
+    }
+
+    @Test
+    void testStartDumpStop() throws Exception {
+        JfrRecordingEndpoint.RecordingStatus started = endpoint.control("start");
+        assertEquals("RUNNING", started.state());
+        assertEquals("default", started.settings());
+        assertNotNull(started.startedAt());
+
+        EvaluationEvent event = new EvaluationEvent();
+        event.cartLines = 3;
+        event.couponsMatched = 1;
+        event.commit();
+
+        JfrRecordingEndpoint.RecordingStatus dumped = endpoint.control("dump");
+        assertEquals("RUNNING", dumped.state());
+        Path dump = Path.of(dumped.file());
+        assertTrue(dump.startsWith(directory.resolve("jfr")));
+        assertTrue(evaluations(dump).stream().anyMatch(e -> e.getInt("cartLines") == 3));
+
+        JfrRecordingEndpoint.RecordingStatus stopped = endpoint.control("stop");
+        assertEquals("CLOSED", stopped.state());
+        Path recording = Path.of(stopped.file());
+        assertEquals(dump, recording);
+        assertTrue(evaluations(recording).stream().anyMatch(e -> e.getInt("couponsMatched") == 1));
+        assertEquals("NONE", endpoint.status().state());
+    }
+
+    @Test
+    void testDumpsReplaceOneFile() throws Exception {
+        endpoint.control("start");
+        for (int i = 0; i < 3; i++) {
+            endpoint.control("dump");
+        }
+        endpoint.control("stop");
+
+        try (Stream<Path> files = Files.list(directory.resolve("jfr"))) {
+            assertEquals(List.of(directory.resolve("jfr").resolve(JfrRecordingEndpoint.FILE_NAME)), files.toList());
+        }
+    }
+
+    // -----------------------------
+    // INVALID REQUESTS
+    // -----------------------------
+    @Test
+    void testStartTwice_Rejected() {
+        endpoint.control("start");
+
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("start"));
+    }
+
+    @Test
+    void testDumpOrStopWithoutRecording_Rejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("dump"));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("stop"));
+    }
+
+    @Test
+    void testUnknownAction_Rejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("restart"));
+    }
+
+    private static List<RecordedEvent> evaluations(Path file) throws Exception {
+        assertTrue(Files.size(file) > 0);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.monk.coupons.Evaluation"))
+                .toList();
+    }
+}
@@ -0,0 +1,330 @@
+package com.monk.coupons.service.redemption;
+
+import com.monk.coupons.config.RedemptionProperties;
+import com.monk.coupons.model.CustomerRedemption;
+import com.monk.coupons.repository.CustomerRedemptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CustomerRedemptionStoreTest {
+
+    @Mock
+    private CustomerRedemptionRepository repository;
+
+    private CustomerRedemptionStore store;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-11-28T09:00:00Z"));
+
+    // The customer_redemption table the repository mock reads and updates: redemptions, leased
+    private final Map<CustomerRedemption.Key, long[]> rows = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.leaseWithin(anyString(), anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            CustomerRedemption.Key key = new CustomerRedemption.Key(invocation.getArgument(0), invocation.getArgument(1));
+            long count = invocation.getArgument(2);
+            long limit = invocation.getArgument(3);
+            int[] updated = {0};
+            rows.computeIfPresent(key, (k, row) -> {
+                if (row[0] + row[1] + count <= limit) {
+                    updated[0] = 1;
+                    return new long[]{row[0], row[1] + count};
+                }
+                return row;
+            });
+            return updated[0];
+        });
+        when(repository.insertLeased(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            CustomerRedemption.Key key = new CustomerRedemption.Key(invocation.getArgument(0), invocation.getArgument(1));
+            if (rows.putIfAbsent(key, new long[]{0, invocation.getArgument(2)}) != null) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return 1;
+        });
+        when(repository.findTaken(anyString(), anyLong())).thenAnswer(invocation -> {
+            long[] row = rows.get(new CustomerRedemption.Key(invocation.getArgument(0), invocation.getArgument(1)));
+            return row == null ? null : row[0] + row[1];
+        });
+        when(repository.addRedemptions(anyString(), anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            CustomerRedemption.Key key = new CustomerRedemption.Key(invocation.getArgument(0), invocation.getArgument(1));
+            long count = invocation.getArgument(2);
+            long leased = invocation.getArgument(3);
+            return rows.computeIfPresent(key, (k, row) -> new long[]{row[0] + count, row[1] + leased}) == null ? 0 : 1;
+        });
+        when(repository.findById(any())).thenAnswer(invocation -> {
+            CustomerRedemption.Key key = invocation.getArgument(0);
+            return Optional.ofNullable(rows.get(key))
+                    .map(row -> new CustomerRedemption(key.getCustomerId(), key.getCouponId(), row[0], row[1]));
+        });
+        store = newStore(new RedemptionProperties());
+    }
+
+    private CustomerRedemptionStore newStore(RedemptionProperties properties) {
+        return new CustomerRedemptionStore(repository, TransactionOperations.withoutTransaction(), properties, clock);
+    }
+
+    private long[] row(String customer, long couponId) {
+        return rows.get(new CustomerRedemption.Key(customer, couponId));
+    }
+
+    // ---------------------------------------------------
+    // LIMITS
+    // ---------------------------------------------------
+    @Test
+    void testLimitPerCustomer() {
+        assertTrue(store.tryAcquire("alice", 1L, 2));
+        assertTrue(store.tryAcquire("alice", 1L, 2));
+        assertFalse(store.tryAcquire("alice", 1L, 2));
+
+        assertTrue(store.tryAcquire("bob", 1L, 2));
+        assertTrue(store.tryAcquire("alice", 2L, 2));
+        assertEquals(2, store.count("alice", 1L));
+    }
+
+    @Test
+    void testRelease() {
+        assertTrue(store.tryAcquire("alice", 1L, 1));
+        store.release("alice", 1L);
+        assertTrue(store.tryAcquire("alice", 1L, 1));
+    }
+
+    @Test
+    void testConcurrentAcquireNeverExceedsLimit() throws InterruptedException {
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (store.tryAcquire("alice", 1L, 5)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(5, granted.get());
+    }
+
+    // ---------------------------------------------------
+    // LEASES AND WRITE-BEHIND
+    // ---------------------------------------------------
+    @Test
+    void testRepeatAppliesAreServedFromMemory() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.tryAcquire("alice", 1L, 5));
+        }
+        assertFalse(store.tryAcquire("alice", 1L, 5));
+
+        verify(repository, times(1)).insertLeased("alice", 1L, 5);
+        verify(repository, never()).addRedemptions(anyString(), anyLong(), anyLong(), anyLong());
+        assertArrayEquals(new long[]{0, 5}, row("alice", 1L));
+    }
+
+    @Test
+    void testFlushMovesUsedOutOfTheLease() {
+        assertTrue(store.tryAcquire("alice", 1L, 5));
+        assertTrue(store.tryAcquire("alice", 1L, 5));
+
+        // Redeemed since the last flush: used redemptions are written, the rest of the lease is kept
+        store.flush();
+        assertArrayEquals(new long[]{2, 3}, row("alice", 1L));
+
+        // Idle: the lease goes back, then the customer is dropped from memory
+        store.flush();
+        assertArrayEquals(new long[]{2, 0}, row("alice", 1L));
+        store.flush();
+        clearInvocations(repository);
+
+        assertTrue(store.tryAcquire("alice", 1L, 5));
+        verify(repository).leaseWithin("alice", 1L, 5, 5);
+        verify(repository).leaseWithin("alice", 1L, 3, 5);
+        assertArrayEquals(new long[]{2, 3}, row("alice", 1L));
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        assertTrue(store.tryAcquire("alice", 1L, 5));
+        when(repository.addRedemptions(anyString(), anyLong(), anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(1);
+
+        store.flush();
+        store.flush();
+
+        // The retry finds the customer idle and also gives back the rest of the lease
+        verify(repository).addRedemptions("alice", 1L, 1, -1);
+        verify(repository).addRedemptions("alice", 1L, 1, -5);
+    }
+
+    @Test
+    void testShutdownReturnsLeases() {
+        assertTrue(store.tryAcquire("alice", 1L, 5));
+
+        store.returnLeases();
+
+        assertArrayEquals(new long[]{1, 0}, row("alice", 1L));
+    }
+
+    // ---------------------------------------------------
+    // ACROSS NODES
+    // ---------------------------------------------------
+    @Test
+    void testNodesNeverGrantPastTheLimit() {
+        RedemptionProperties properties = new RedemptionProperties();
+        properties.setCustomerLease(1);
+        store = newStore(properties);
+        CustomerRedemptionStore other = newStore(properties);
+
+        assertTrue(store.tryAcquire("alice", 1L, 2));
+        assertTrue(other.tryAcquire("alice", 1L, 2));
+
+        assertFalse(store.tryAcquire("alice", 1L, 2));
+        assertFalse(other.tryAcquire("alice", 1L, 2));
+    }
+
+    @Test
+    void testLeaseReturnedByAnotherNodeIsUsedAfterTtl() {
+        CustomerRedemptionStore other = newStore(new RedemptionProperties());
+
+        // This node leases alice's whole allowance; the other node has nothing left to lease
+        assertTrue(store.tryAcquire("alice", 1L, 2));
+        assertFalse(other.tryAcquire("alice", 1L, 2));
+
+        store.flush();
+        store.flush();
+        assertArrayEquals(new long[]{1, 0}, row("alice", 1L));
+
+        clock.set(clock.instant().plus(new RedemptionProperties().getCustomerCacheTtl()));
+        assertTrue(other.tryAcquire("alice", 1L, 2));
+        assertFalse(store.tryAcquire("alice", 1L, 2));
+    }
+
+    @Test
+    void testConcurrentFirstRedemptionOnAnotherNode() {
+        // The other node inserts between our failed update and our insert
+        when(repository.insertLeased("alice", 1L, 2))
+                .thenAnswer(invocation -> {
+                    rows.put(new CustomerRedemption.Key("alice", 1L), new long[]{0, 1});
+                    throw new DataIntegrityViolationException("duplicate key");
+                });
+
+        assertTrue(store.tryAcquire("alice", 1L, 2));
+        assertFalse(store.tryAcquire("alice", 1L, 2));
+        assertArrayEquals(new long[]{0, 2}, row("alice", 1L));
+    }
+
+    // ---------------------------------------------------
+    // USED-UP CACHE
+    // ---------------------------------------------------
+    @Test
+    void testUsedUpCustomerIsTurnedAwayFromMemory() {
+        rows.put(new CustomerRedemption.Key("alice", 1L), new long[]{1, 0});
+
+        assertFalse(store.tryAcquire("alice", 1L, 1));
+        assertFalse(store.tryAcquire("alice", 1L, 1));
+
+        verify(repository, times(1)).insertLeased("alice", 1L, 1);
+    }
+
+    @Test
+    void testUsedUpCustomerIsCheckedAgainAfterTtl() {
+        rows.put(new CustomerRedemption.Key("alice", 1L), new long[]{1, 0});
+        assertFalse(store.tryAcquire("alice", 1L, 1));
+
+        // Given back on another node
+        rows.put(new CustomerRedemption.Key("alice", 1L), new long[]{0, 0});
+        assertFalse(store.tryAcquire("alice", 1L, 1));
+
+        clock.set(clock.instant().plus(new RedemptionProperties().getCustomerCacheTtl()));
+        assertTrue(store.tryAcquire("alice", 1L, 1));
+    }
+
+    @Test
+    void testRaisedLimitIsCheckedAgain() {
+        assertTrue(store.tryAcquire("alice", 1L, 1));
+        assertFalse(store.tryAcquire("alice", 1L, 1));
+
+        assertTrue(store.tryAcquire("alice", 1L, 2));
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        RedemptionProperties properties = new RedemptionProperties();
+        properties.setCustomerShards(1);
+        properties.setCustomerCacheSize(2);
+        store = newStore(properties);
+
+        for (String customer : List.of("alice", "bob", "carol")) {
+            rows.put(new CustomerRedemption.Key(customer, 1L), new long[]{1, 0});
+            assertFalse(store.tryAcquire(customer, 1L, 1));
+        }
+        clearInvocations(repository);
+
+        // alice was evicted, bob and carol are still remembered
+        assertFalse(store.tryAcquire("bob", 1L, 1));
+        assertFalse(store.tryAcquire("carol", 1L, 1));
+        verifyNoInteractions(repository);
+        assertFalse(store.tryAcquire("alice", 1L, 1));
+        verify(repository, atLeastOnce()).leaseWithin("alice", 1L, 1, 1);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.monk.coupons.service.redemption;
+
+import com.monk.coupons.config.RedemptionProperties;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RedemptionLedgerTest {
+
+    @Mock
+    private CouponRepository repository;
+
+    private RedemptionLedger ledger;
+
+    // The coupon row the repository mock reads and updates
+    private Long maxRedemptions;
+    private Double discountBudget;
+    private long redemptionCount;
+    private double discountSpent;
+    private long redemptionsLeased;
+    private double discountLeased;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ledger = newLedger();
+
+        when(repository.leaseRedemptions(eq(1L), anyLong())).thenAnswer(invocation -> {
+            synchronized (this) {
+                long count = invocation.getArgument(1);
+                if (maxRedemptions != null && redemptionCount + redemptionsLeased + count > maxRedemptions) {
+                    return 0;
+                }
+                redemptionsLeased += count;
+                return 1;
+            }
+        });
+        when(repository.leaseBudget(eq(1L), anyDouble())).thenAnswer(invocation -> {
+            synchronized (this) {
+                double discount = invocation.getArgument(1);
+                if (discountBudget != null && discountSpent + discountLeased + discount > discountBudget + 0.005) {
+                    return 0;
+                }
+                discountLeased += discount;
+                return 1;
+            }
+        });
+        when(repository.findUnleasedRedemptions(1L)).thenAnswer(invocation -> {
+            synchronized (this) {
+                return maxRedemptions == null ? null : maxRedemptions - redemptionCount - redemptionsLeased;
+            }
+        });
+        when(repository.findUnleasedBudget(1L)).thenAnswer(invocation -> {
+            synchronized (this) {
+                return discountBudget == null ? null : discountBudget - discountSpent - discountLeased;
+            }
+        });
+        when(repository.addRedemptions(eq(1L), anyLong(), anyDouble(), anyLong(), anyDouble())).thenAnswer(invocation -> {
+            synchronized (this) {
+                redemptionCount += (long) invocation.getArgument(1);
+                discountSpent += (double) invocation.getArgument(2);
+                redemptionsLeased += (long) invocation.getArgument(3);
+                discountLeased += (double) invocation.getArgument(4);
+                return 1;
+            }
+        });
+    }
+
+    private RedemptionLedger newLedger() {
+        return new RedemptionLedger(repository, TransactionOperations.withoutTransaction(), new RedemptionProperties());
+    }
+
+    private Coupon coupon(Long maxRedemptions, Double budget) {
+        this.maxRedemptions = maxRedemptions;
+        this.discountBudget = budget;
+        Coupon coupon = new Coupon();
+        coupon.setId(1L);
+        coupon.setType("cart-wise");
+        coupon.setMaxRedemptions(maxRedemptions);
+        coupon.setDiscountBudget(budget);
+        return coupon;
+    }
+
+    // ---------------------------------------------------
+    // LIMITS
+    // ---------------------------------------------------
+    @Test
+    void testUnlimitedCoupon() {
+        Coupon coupon = coupon(null, null);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ledger.tryRedeem(coupon, 10));
+        }
+        assertFalse(ledger.isExhausted(coupon));
+        verify(repository, never()).leaseRedemptions(anyLong(), anyLong());
+    }
+
+    @Test
+    void testDiscountBudget() {
+        Coupon coupon = coupon(null, 25.0);
+
+        assertTrue(ledger.tryRedeem(coupon, 10));
+        assertTrue(ledger.tryRedeem(coupon, 10));
+        assertFalse(ledger.tryRedeem(coupon, 10));
+        assertTrue(ledger.tryRedeem(coupon, 5));
+        assertFalse(ledger.tryRedeem(coupon, 5));
+        assertTrue(ledger.isExhausted(coupon));
+    }
+
+    @Test
+    void testRejectedBudgetDoesNotConsumeRedemption() {
+        Coupon coupon = coupon(2L, 15.0);
+
+        assertTrue(ledger.tryRedeem(coupon, 10));
+        assertFalse(ledger.tryRedeem(coupon, 10));
+        assertTrue(ledger.tryRedeem(coupon, 5));
+    }
+
+    @Test
+    void testPersistedTotalsCountTowardsLimit() {
+        Coupon coupon = coupon(5L, null);
+        redemptionCount = 5;
+
+        assertTrue(ledger.isExhausted(coupon));
+        assertFalse(ledger.tryRedeem(coupon, 1));
+    }
+
+    @Test
+    void testRelease() {
+        Coupon coupon = coupon(1L, null);
+
+        assertTrue(ledger.tryRedeem(coupon, 10));
+        ledger.release(coupon, 10);
+        assertTrue(ledger.tryRedeem(coupon, 10));
+    }
+
+    // ---------------------------------------------------
+    // LEASES
+    // ---------------------------------------------------
+    @Test
+    void testLeaseServesFromMemory() {
+        Coupon coupon = coupon(1000L, null);
+
+        for (int i = 0; i < 16; i++) {
+            assertTrue(ledger.tryRedeem(coupon, 1));
+        }
+
+        verify(repository, times(1)).leaseRedemptions(1L, 16);
+        assertEquals(16, redemptionsLeased);
+        assertEquals(0, redemptionCount);
+    }
+
+    @Test
+    void testLeaseShrinksToWhatIsLeft() {
+        Coupon coupon = coupon(20L, null);
+        redemptionCount = 14;
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(ledger.tryRedeem(coupon, 1));
+        }
+        assertFalse(ledger.tryRedeem(coupon, 1));
+
+        verify(repository).leaseRedemptions(1L, 6);
+        assertEquals(6, redemptionsLeased);
+    }
+
+    @Test
+    void testNodesNeverSellPastTheCap() throws InterruptedException {
+        Coupon coupon = coupon(500L, null);
+        List<RedemptionLedger> nodes = List.of(ledger, newLedger(), newLedger());
+        AtomicInteger granted = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            RedemptionLedger node = nodes.get(t % nodes.size());
+            pool.execute(() -> {
+                for (int i = 0; i < 200; i++) {
+                    if (node.tryRedeem(coupon, 1)) {
+                        granted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertTrue(granted.get() <= 500 + nodes.size() * 16L, "granted " + granted.get());
+        assertTrue(redemptionCount + redemptionsLeased <= 500);
+    }
+
+    @Test
+    void testRefusedLeaseIsRetriedAfterFlush() {
+        Coupon coupon = coupon(1L, null);
+        redemptionCount = 1;
+
+        assertFalse(ledger.tryRedeem(coupon, 1));
+        assertFalse(ledger.tryRedeem(coupon, 1));
+        verify(repository, times(1)).findUnleasedRedemptions(1L);
+
+        // Another node gave its lease back
+        redemptionCount = 0;
+        ledger.flush();
+
+        assertTrue(ledger.tryRedeem(coupon, 1));
+    }
+
+    @Test
+    void testLeaseReturnedByAnotherNodeIsSeen() {
+        Coupon coupon = coupon(10L, null);
+        RedemptionLedger other = newLedger();
+
+        // This node leases the last 10 and uses one; the other node has nothing left to lease
+        assertTrue(ledger.tryRedeem(coupon, 1));
+        assertEquals(10, redemptionsLeased);
+        assertTrue(other.isExhausted(coupon));
+        assertFalse(other.tryRedeem(coupon, 1));
+
+        // The lease goes idle and 9 are handed back
+        ledger.flush();
+        ledger.flush();
+        assertEquals(1, redemptionCount);
+        assertEquals(0, redemptionsLeased);
+
+        other.flush();
+        assertFalse(other.isExhausted(coupon));
+        assertTrue(other.tryRedeem(coupon, 1));
+    }
+
+    @Test
+    void testIdleLeaseIsReturned() {
+        Coupon coupon = coupon(100L, null);
+
+        ledger.tryRedeem(coupon, 1);
+        ledger.tryRedeem(coupon, 1);
+        assertEquals(16, redemptionsLeased);
+
+        // Redeemed since the last flush: the used part moves out of the lease, the rest is kept
+        ledger.flush();
+        verify(repository).addRedemptions(1L, 2, 2.0, -2, 0.0);
+        assertEquals(2, redemptionCount);
+        assertEquals(14, redemptionsLeased);
+
+        ledger.flush();
+        verify(repository).addRedemptions(1L, 0, 0.0, -14, 0.0);
+        assertEquals(2, redemptionCount);
+        assertEquals(0, redemptionsLeased);
+
+        // The next redemption leases again
+        assertTrue(ledger.tryRedeem(coupon, 1));
+        assertEquals(16, redemptionsLeased);
+    }
+
+    @Test
+    void testShutdownReturnsLeases() {
+        Coupon coupon = coupon(100L, 500.0);
+
+        ledger.tryRedeem(coupon, 10);
+        ledger.returnLeases();
+
+        assertEquals(1, redemptionCount);
+        assertEquals(10.0, discountSpent, 0.001);
+        assertEquals(0, redemptionsLeased);
+        assertEquals(0.0, discountLeased, 0.001);
+    }
+
+    // ---------------------------------------------------
+    // FLUSH
+    // ---------------------------------------------------
+    @Test
+    void testFlushWritesBatchedDeltas() {
+        Coupon coupon = coupon(null, null);
+
+        ledger.tryRedeem(coupon, 10.25);
+        ledger.tryRedeem(coupon, 4.75);
+        ledger.flush();
+
+        verify(repository).addRedemptions(1L, 2, 15.0, 0, 0.0);
+
+        // Nothing new since the last flush
+        ledger.flush();
+        verify(repository, times(1)).addRedemptions(anyLong(), anyLong(), anyDouble(), anyLong(), anyDouble());
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        Coupon coupon = coupon(null, null);
+        when(repository.addRedemptions(anyLong(), anyLong(), anyDouble(), anyLong(), anyDouble()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(1);
+
+        ledger.tryRedeem(coupon, 10);
+        ledger.flush();
+        ledger.flush();
+
+        verify(repository, times(2)).addRedemptions(1L, 1, 10.0, 0, 0.0);
+    }
+
+    @Test
+    void testFailedLeaseReturnIsRetried() {
+        Coupon coupon = coupon(100L, null);
+        ledger.tryRedeem(coupon, 1);
+        ledger.flush();
+
+        List<Long> returned = new ArrayList<>();
+        when(repository.addRedemptions(anyLong(), anyLong(), anyDouble(), anyLong(), anyDouble()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenAnswer(invocation -> {
+                    returned.add(invocation.getArgument(3));
+                    return 1;
+                });
+
+        ledger.flush();
+        ledger.flush();
+
+        assertEquals(List.of(-15L), returned);
+    }
+}
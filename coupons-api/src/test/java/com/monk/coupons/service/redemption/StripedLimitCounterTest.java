@@ -0,0 +1,107 @@
+package com.monk.coupons.service.redemption;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLimitCounterTest {
+
+    // ---------------------------------------------------
+    // ZERO TOLERANCE → EXACT
+    // ---------------------------------------------------
+    @Test
+    void testExactWithoutTolerance() {
+        StripedLimitCounter counter = new StripedLimitCounter(3, 0, 4, 0);
+
+        assertTrue(counter.tryAcquire(1));
+        assertTrue(counter.tryAcquire(2));
+        assertFalse(counter.tryAcquire(1));
+        assertEquals(3, counter.used());
+        assertTrue(counter.isExhausted());
+    }
+
+    @Test
+    void testStartsFromPersistedUsage() {
+        StripedLimitCounter counter = new StripedLimitCounter(10, 9, 4, 0);
+
+        assertTrue(counter.tryAcquire(1));
+        assertFalse(counter.tryAcquire(1));
+    }
+
+    // ---------------------------------------------------
+    // RELEASE AND CORRECTIONS
+    // ---------------------------------------------------
+    @Test
+    void testAddReturnsUnits() {
+        StripedLimitCounter counter = new StripedLimitCounter(1, 0, 4, 0);
+
+        assertTrue(counter.tryAcquire(1));
+        counter.add(-1);
+        assertTrue(counter.tryAcquire(1));
+    }
+
+    @Test
+    void testRaisedLimitAllowsMore() {
+        StripedLimitCounter counter = new StripedLimitCounter(1, 1, 4, 0);
+        assertFalse(counter.tryAcquire(1));
+
+        counter.setLimit(2);
+        assertTrue(counter.tryAcquire(1));
+    }
+
+    // ---------------------------------------------------
+    // CONCURRENT ACQUISITION
+    // ---------------------------------------------------
+    @Test
+    void testConcurrentExactNeverOversells() throws InterruptedException {
+        StripedLimitCounter counter = new StripedLimitCounter(1000, 0, 8, 0);
+
+        assertEquals(1000, acquireConcurrently(counter, 8, 500));
+        assertEquals(1000, counter.used());
+    }
+
+    @Test
+    void testConcurrentOversellBoundedByTolerance() throws InterruptedException {
+        long tolerance = 64;
+        StripedLimitCounter counter = new StripedLimitCounter(1000, 0, 8, tolerance);
+
+        long granted = acquireConcurrently(counter, 8, 500);
+
+        assertTrue(granted >= 1000, "granted " + granted);
+        assertTrue(granted <= 1000 + tolerance, "granted " + granted);
+        assertEquals(granted, counter.used());
+    }
+
+    private static long acquireConcurrently(StripedLimitCounter counter, int threads, int attemptsPerThread)
+            throws InterruptedException {
+        AtomicLong granted = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (counter.tryAcquire(1)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return granted.get();
+    }
+}
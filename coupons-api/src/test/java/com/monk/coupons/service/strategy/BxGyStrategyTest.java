@@ -1,6 +1,7 @@
 package com.monk.coupons.service.strategy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monk.coupons.engine.CartSummary;
 import com.monk.coupons.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,7 +18,7 @@ class BxGyStrategyTest {
     @BeforeEach
     void setup() {
         mapper = new ObjectMapper();
-        strategy = new BxGyStrategy(mapper);
+        strategy = new BxGyStrategy();
     }
 
     // -----------------------------
@@ -123,6 +124,31 @@ class BxGyStrategyTest {
         // even though buy=10 → 5 reps, limit=2 → only 2 free items → 2×30=60
     }
 
+    // -----------------------------
+    // ESTIMATE IS AN UPPER BOUND
+    // -----------------------------
+    @Test
+    void testEstimateAssumesFullRepetitionLimit() {
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(
+                createItem(1, 2, 50),
+                createItem(5, 10, 30)
+        ));
+
+        BxGyDetails details = new BxGyDetails();
+        details.setBuyProducts(List.of(createBx(1, 2)));
+        details.setGetProducts(List.of(createBxGet(5, 1)));
+        details.setRepetitionLimit(3);
+
+        Coupon coupon = new Coupon();
+        coupon.setType("bxgy");
+        coupon.setDetails(mapper.valueToTree(details));
+
+        assertEquals(90.0, strategy.estimateDiscount(coupon, CartSummary.of(cart.compact())));
+        assertEquals(30.0, strategy.calculateDiscount(coupon, cart));
+    }
+
     private CartItem createItem(int id, int qty, double price) {
         CartItem item = new CartItem();
         item.setProductId(id);
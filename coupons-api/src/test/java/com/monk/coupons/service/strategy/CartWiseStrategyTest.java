@@ -1,6 +1,7 @@
 package com.monk.coupons.service.strategy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monk.coupons.engine.CartSummary;
 import com.monk.coupons.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,7 +18,7 @@ class CartWiseStrategyTest {
     @BeforeEach
     void setup() {
         mapper = new ObjectMapper();
-        strategy = new CartWiseStrategy(mapper);
+        strategy = new CartWiseStrategy();
     }
 
     // ---------------------------------------------------
@@ -45,6 +46,24 @@ class CartWiseStrategyTest {
         assertEquals(15.0, discount);  // 150 * 10% = 15
     }
 
+    @Test
+    void testEstimateIgnoresThreshold() {
+
+        Cart cart = new Cart();
+        cart.setItems(List.of(createItem(1, 1, 50)));
+
+        CartWiseDetails details = new CartWiseDetails();
+        details.setThreshold(100.0);
+        details.setDiscount(10.0);
+
+        Coupon coupon = new Coupon();
+        coupon.setType("cart-wise");
+        coupon.setDetails(mapper.valueToTree(details));
+
+        assertEquals(5.0, strategy.estimateDiscount(coupon, CartSummary.of(cart.compact())));
+        assertEquals(0.0, strategy.calculateDiscount(coupon, cart));
+    }
+
     // ---------------------------------------------------
     // BELOW THRESHOLD → DISCOUNT = 0
     // ---------------------------------------------------
@@ -17,7 +17,7 @@ class ProductWiseStrategyTest {
     @BeforeEach
     void setup() {
         mapper = new ObjectMapper();
-        strategy = new ProductWiseStrategy(mapper);
+        strategy = new ProductWiseStrategy();
     }
 
     // ---------------------------------------------------
@@ -0,0 +1,133 @@
+package com.monk.coupons.service.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monk.coupons.config.EvaluationJsonModule;
+import com.monk.coupons.config.WarmupProperties;
+import com.monk.coupons.model.Cart;
+import com.monk.coupons.model.Coupon;
+import com.monk.coupons.service.strategy.BxGyStrategy;
+import com.monk.coupons.service.strategy.CartWiseStrategy;
+import com.monk.coupons.service.strategy.CouponStrategyFactory;
+import com.monk.coupons.service.strategy.ProductWiseStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationWarmupTest {
+
+    private ObjectMapper mapper;
+    private WarmupProperties properties;
+    private SimpleMeterRegistry registry;
+    private EvaluationWarmup warmup;
+
+    @BeforeEach
+    void setup() {
+        mapper = new ObjectMapper().registerModule(new EvaluationJsonModule(500));
+        properties = new WarmupProperties();
+        properties.setBatchSize(50);
+        properties.setMinIterations(0);
+        registry = new SimpleMeterRegistry();
+        warmup = new EvaluationWarmup(
+                new CouponStrategyFactory(new CartWiseStrategy(), new ProductWiseStrategy(), new BxGyStrategy()),
+                mapper, properties, registry);
+    }
+
+    // -----------------------------
+    // STOP CONDITIONS
+    // -----------------------------
+    @Test
+    void testStopsAtMaxIterations() {
+        properties.setMaxIterations(200);
+        properties.setStableBatches(Integer.MAX_VALUE);
+
+        EvaluationWarmup.Result result = warmup.warmUp();
+
+        assertEquals(EvaluationWarmup.Outcome.MAX_ITERATIONS, result.outcome());
+        assertEquals(200, result.iterations());
+    }
+
+    @Test
+    void testStopsWhenTimeBudgetRunsOut() {
+        properties.setTimeBudget(Duration.ZERO);
+        properties.setStableBatches(Integer.MAX_VALUE);
+
+        EvaluationWarmup.Result result = warmup.warmUp();
+
+        // Always finishes the batch it started
+        assertEquals(EvaluationWarmup.Outcome.TIME_BUDGET, result.outcome());
+        assertEquals(50, result.iterations());
+    }
+
+    @Test
+    void testStopsOnceBatchTimePlateaus() {
+        properties.setStableBatches(1);
+        properties.setTimeBudget(Duration.ofMinutes(1));
+        properties.setMaxIterations(Integer.MAX_VALUE);
+
+        EvaluationWarmup.Result result = warmup.warmUp();
+
+        assertEquals(EvaluationWarmup.Outcome.STABLE, result.outcome());
+    }
+
+    // -----------------------------
+    // EVALUATION PATH
+    // -----------------------------
+    @Test
+    void testSyntheticCartsEarnDiscountFromEveryCouponType() {
+        Set<String> discounted = new HashSet<>();
+        warmup = new EvaluationWarmup(new CouponStrategyFactory(
+                new CartWiseStrategy() {
+                    @Override
+                    public double calculateDiscount(Coupon coupon, Cart cart) {
+                        return record(discounted, coupon, super.calculateDiscount(coupon, cart));
+                    }
+                },
+                new ProductWiseStrategy() {
+                    @Override
+                    public double calculateDiscount(Coupon coupon, Cart cart) {
+                        return record(discounted, coupon, super.calculateDiscount(coupon, cart));
+                    }
+                },
+                new BxGyStrategy() {
+                    @Override
+                    public double calculateDiscount(Coupon coupon, Cart cart) {
+                        return record(discounted, coupon, super.calculateDiscount(coupon, cart));
+                    }
+                }), mapper, properties, registry);
+
+        for (int i = 0; i < 64; i++) {
+            assertTrue(warmup.evaluate(i) > 0);
+        }
+
+        assertEquals(Set.of("cart-wise", "product-wise", "bxgy"), discounted);
+    }
+
+    // -----------------------------
+    // METRICS
+    // -----------------------------
+    @Test
+    void testRunPublishesDurationAndIterations() {
+        properties.setMaxIterations(100);
+        properties.setStableBatches(Integer.MAX_VALUE);
+
+        warmup.run(null);
+
+        assertEquals(100, registry.get("coupons.warmup.iterations").tag("outcome", "max-iterations").gauge().value());
+        assertTrue(registry.get("coupons.warmup.duration").tag("outcome", "max-iterations")
+                .timeGauge().value(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    private static double record(Set<String> discounted, Coupon coupon, double discount) {
+        if (discount > 0) {
+            discounted.add(coupon.getType());
+        }
+        return discount;
+    }
+}
@@ -0,0 +1,82 @@
+package com.monk.coupons.engine;
+
+/**
+ * Buy {@code buyQuantity} of one product, get {@code getQuantity} of another free, up to
+ * {@code repetitionLimit} times per cart. The free units are priced at the first cart
+ * line holding the free product; without such a line the rule does not apply.
+ *
+ * @param buyProductId    the product to buy
+ * @param buyQuantity     units to buy per repetition
+ * @param getProductId    the product given free
+ * @param getQuantity     free units per repetition
+ * @param repetitionLimit most repetitions per cart
+ */
+public record BxGyRule(int buyProductId, int buyQuantity, int getProductId, int getQuantity,
+                       int repetitionLimit) implements CouponRule {
+
+    @Override
+    public double discount(CompactCart cart) {
+        return discount(cart, null);
+    }
+
+    @Override
+    public double discount(CompactCart cart, RuleTrace trace) {
+        int freeQuantity = freeQuantity(cart, trace);
+        if (freeQuantity == 0) {
+            return 0;
+        }
+        int freeLine = cart.indexOf(getProductId);
+        if (freeLine < 0) {
+            return RuleTrace.none(trace, DiscountReason.FREE_PRODUCT_NOT_IN_CART);
+        }
+        double discount = freeQuantity * cart.price(freeLine);
+        if (trace != null) {
+            trace.value("free_unit_price", cart.price(freeLine));
+            trace.reason(discount > 0 ? DiscountReason.APPLIED
+                    : getQuantity <= 0 ? DiscountReason.INVALID_RULE
+                    : DiscountReason.ZERO_DISCOUNT);
+        }
+        return discount;
+    }
+
+    /**
+     * Assumes the full repetition limit.
+     */
+    @Override
+    public double estimate(CartSummary cart) {
+        return cart.price(getProductId) * getQuantity * repetitionLimit;
+    }
+
+    @Override
+    public Integer triggerProduct() {
+        return buyProductId;
+    }
+
+    /**
+     * Free units of the get product the cart earns.
+     */
+    public int freeQuantity(CompactCart cart) {
+        return freeQuantity(cart, null);
+    }
+
+    // Records the reason when no units are earned
+    private int freeQuantity(CompactCart cart, RuleTrace trace) {
+        if (buyQuantity <= 0) {
+            RuleTrace.none(trace, DiscountReason.INVALID_RULE);
+            return 0;
+        }
+        int bought = cart.quantityOf(buyProductId);
+        int repetitions = Math.min(bought / buyQuantity, repetitionLimit);
+        int freeQuantity = repetitions <= 0 ? 0 : repetitions * getQuantity;
+        if (trace != null) {
+            trace.value("buy_product_quantity", bought).value("buy_quantity", buyQuantity)
+                    .value("repetitions", repetitions).value("free_quantity", freeQuantity);
+            if (freeQuantity == 0) {
+                trace.reason(cart.isEmpty() ? DiscountReason.EMPTY_CART
+                        : bought < buyQuantity ? DiscountReason.BUY_QUANTITY_NOT_MET
+                        : DiscountReason.INVALID_RULE);
+            }
+        }
+        return freeQuantity;
+    }
+}
@@ -0,0 +1,55 @@
+package com.monk.coupons.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-product totals of a cart, computed once per evaluation so rules can estimate
+ * a coupon's value with map lookups instead of scanning the items.
+ */
+public final class CartSummary {
+
+    private final double total;
+    private final Map<Integer, Double> valueByProduct = new HashMap<>();
+    private final Map<Integer, Double> priceByProduct = new HashMap<>();
+    private final Map<Integer, Integer> quantityByProduct = new HashMap<>();
+
+    private CartSummary(CompactCart lines) {
+        double sum = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            int productId = lines.productId(i);
+            double value = lines.price(i) * lines.quantity(i);
+            sum += value;
+            valueByProduct.merge(productId, value, Double::sum);
+            priceByProduct.putIfAbsent(productId, lines.price(i));
+            quantityByProduct.merge(productId, lines.quantity(i), Integer::sum);
+        }
+        this.total = sum;
+    }
+
+    public static CartSummary of(CompactCart cart) {
+        return new CartSummary(cart != null ? cart : CompactCart.EMPTY);
+    }
+
+    public double total() {
+        return total;
+    }
+
+    /**
+     * Price times quantity over all lines of the product.
+     */
+    public double value(int productId) {
+        return valueByProduct.getOrDefault(productId, 0.0);
+    }
+
+    /**
+     * Unit price of the product's first line, as the rules use it.
+     */
+    public double price(int productId) {
+        return priceByProduct.getOrDefault(productId, 0.0);
+    }
+
+    public int quantity(int productId) {
+        return quantityByProduct.getOrDefault(productId, 0);
+    }
+}
@@ -0,0 +1,54 @@
+package com.monk.coupons.engine;
+
+/**
+ * Percentage off the whole cart once its total reaches the threshold. A rule with a
+ * threshold or percentage of 0 or less never applies.
+ *
+ * @param threshold minimum cart total
+ * @param percent   discount in percent of the cart total
+ */
+public record CartWiseRule(double threshold, double percent) implements CouponRule {
+
+    @Override
+    public double discount(CompactCart cart) {
+        return discount(cart, null);
+    }
+
+    @Override
+    public double discount(CompactCart cart, RuleTrace trace) {
+        if (cart.isEmpty()) {
+            return RuleTrace.none(trace, DiscountReason.EMPTY_CART);
+        }
+        if (trace != null) {
+            trace.value("threshold", threshold).value("percent", percent);
+        }
+        if (threshold <= 0 || percent <= 0) {
+            return RuleTrace.none(trace, DiscountReason.INVALID_RULE);
+        }
+        double total = cart.total();
+        if (trace != null) {
+            trace.value("cart_total", total);
+        }
+        if (total < threshold) {
+            return RuleTrace.none(trace, DiscountReason.BELOW_THRESHOLD);
+        }
+        double discount = total * (percent / 100.0);
+        if (trace != null) {
+            trace.reason(discount > 0 ? DiscountReason.APPLIED : DiscountReason.ZERO_DISCOUNT);
+        }
+        return discount;
+    }
+
+    /**
+     * Ignores the threshold.
+     */
+    @Override
+    public double estimate(CartSummary cart) {
+        return cart.total() * percent / 100.0;
+    }
+
+    @Override
+    public Integer triggerProduct() {
+        return null;
+    }
+}
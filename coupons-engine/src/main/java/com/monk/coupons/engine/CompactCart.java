@@ -0,0 +1,149 @@
+package com.monk.coupons.engine;
+
+import java.util.Arrays;
+
+/**
+ * Cart lines held as parallel primitive arrays, the form the evaluation engine reads.
+ * <p>
+ * Build one with {@link Builder}, one line per cart item. Instances are immutable and
+ * compare by content.
+ */
+public final class CompactCart {
+
+    public static final CompactCart EMPTY = new CompactCart(new int[0], new int[0], new double[0]);
+
+    private final int[] productIds;
+    private final int[] quantities;
+    private final double[] prices;
+    private final double total;
+
+    private CompactCart(int[] productIds, int[] quantities, double[] prices) {
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.prices = prices;
+        double sum = 0;
+        for (int i = 0; i < prices.length; i++) {
+            sum += prices[i] * quantities[i];
+        }
+        this.total = sum;
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    public boolean isEmpty() {
+        return productIds.length == 0;
+    }
+
+    public int productId(int line) {
+        return productIds[line];
+    }
+
+    public int quantity(int line) {
+        return quantities[line];
+    }
+
+    public double price(int line) {
+        return prices[line];
+    }
+
+    /**
+     * Price times quantity over all lines; computed once when the cart is built.
+     */
+    public double total() {
+        return total;
+    }
+
+    /**
+     * Quantity of the product over all its lines.
+     */
+    public int quantityOf(int productId) {
+        int quantity = 0;
+        for (int i = 0; i < productIds.length; i++) {
+            if (productIds[i] == productId) {
+                quantity += quantities[i];
+            }
+        }
+        return quantity;
+    }
+
+    /**
+     * First line holding the product, or -1.
+     */
+    public int indexOf(int productId) {
+        for (int i = 0; i < productIds.length; i++) {
+            if (productIds[i] == productId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof CompactCart other
+                && Arrays.equals(productIds, other.productIds)
+                && Arrays.equals(quantities, other.quantities)
+                && Arrays.equals(prices, other.prices);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(productIds);
+        result = 31 * result + Arrays.hashCode(quantities);
+        return 31 * result + Arrays.hashCode(prices);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactCart(lines=" + productIds.length + ")";
+    }
+
+    /**
+     * Appends lines into growing arrays; the arrays are trimmed once on {@link #build()}.
+     */
+    public static final class Builder {
+
+        private int[] productIds;
+        private int[] quantities;
+        private double[] prices;
+        private int size;
+
+        public Builder(int expectedLines) {
+            int capacity = Math.max(4, expectedLines);
+            productIds = new int[capacity];
+            quantities = new int[capacity];
+            prices = new double[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public Builder add(int productId, int quantity, double price) {
+            if (size == productIds.length) {
+                int capacity = size * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+            }
+            productIds[size] = productId;
+            quantities[size] = quantity;
+            prices[size] = price;
+            size++;
+            return this;
+        }
+
+        public CompactCart build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new CompactCart(Arrays.copyOf(productIds, size), Arrays.copyOf(quantities, size),
+                    Arrays.copyOf(prices, size));
+        }
+    }
+}
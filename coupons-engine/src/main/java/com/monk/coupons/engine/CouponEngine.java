@@ -0,0 +1,154 @@
+package com.monk.coupons.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process coupon evaluation for services that embed the engine instead of calling
+ * the coupons API.
+ * <p>
+ * Keep it in sync from {@code GET /coupons/changes}: {@link #put} every upserted coupon
+ * with its compiled rule and validity window, {@link #remove} every deleted id. Like the
+ * API, evaluation only looks at coupons triggered by a product in the cart plus those
+ * that apply to any cart.
+ * <p>
+ * Evaluation never blocks on writes. Writes are cheap; the product index is rebuilt once
+ * by the first evaluation after a batch of them. Redemption limits are not known here and
+ * are enforced by the API when the coupon is applied.
+ */
+public final class CouponEngine {
+
+    private static final Comparator<Discount> BEST_FIRST =
+            Comparator.comparingDouble(Discount::amount).reversed().thenComparingLong(Discount::couponId);
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+    private volatile Index index = new Index(List.of(), 0);
+
+    /**
+     * Adds or replaces a coupon that is always valid.
+     */
+    public void put(long couponId, String type, CouponRule rule) {
+        put(couponId, type, rule, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Adds or replaces a coupon valid from {@code startsAtMillis} (inclusive) until
+     * {@code endsAtMillis} (exclusive), in epoch milliseconds.
+     */
+    public void put(long couponId, String type, CouponRule rule, long startsAtMillis, long endsAtMillis) {
+        entries.put(couponId, new Entry(couponId, type, rule, startsAtMillis, endsAtMillis));
+        modifications.incrementAndGet();
+    }
+
+    public void remove(long couponId) {
+        if (entries.remove(couponId) != null) {
+            modifications.incrementAndGet();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Coupons valid now that give the cart a discount, largest discount first.
+     */
+    public List<Discount> evaluate(CompactCart cart) {
+        return evaluate(cart, System.currentTimeMillis());
+    }
+
+    /**
+     * Coupons valid at {@code nowMillis} that give the cart a discount, largest discount first.
+     */
+    public List<Discount> evaluate(CompactCart cart, long nowMillis) {
+        Index current = index();
+        List<Discount> discounts = new ArrayList<>();
+        collect(current.anyCart, cart, nowMillis, discounts);
+
+        // Sorted so a product on several lines is next to itself and triggers its coupons once
+        int[] products = new int[cart.size()];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = cart.productId(i);
+        }
+        Arrays.sort(products);
+        for (int i = 0; i < products.length; i++) {
+            if (i > 0 && products[i] == products[i - 1]) {
+                continue;
+            }
+            Entry[] triggered = current.byProduct.get(products[i]);
+            if (triggered != null) {
+                collect(triggered, cart, nowMillis, discounts);
+            }
+        }
+        discounts.sort(BEST_FIRST);
+        return discounts;
+    }
+
+    private static void collect(Entry[] candidates, CompactCart cart, long nowMillis, List<Discount> discounts) {
+        for (Entry entry : candidates) {
+            if (nowMillis < entry.startsAtMillis || nowMillis >= entry.endsAtMillis) {
+                continue;
+            }
+            double amount = entry.rule.discount(cart);
+            if (amount > 0) {
+                discounts.add(new Discount(entry.couponId, entry.type, amount));
+            }
+        }
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current.modifications == modifications.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            long seen = modifications.get();
+            if (current.modifications != seen) {
+                // Writes racing with the rebuild leave the count ahead, so the next call rebuilds
+                current = new Index(entries.values(), seen);
+                index = current;
+            }
+            return current;
+        }
+    }
+
+    private record Entry(long couponId, String type, CouponRule rule, long startsAtMillis, long endsAtMillis) {
+    }
+
+    private static final class Index {
+
+        private static final Entry[] NONE = new Entry[0];
+
+        private final long modifications;
+        private final Entry[] anyCart;
+        private final Map<Integer, Entry[]> byProduct;
+
+        private Index(Iterable<Entry> entries, long modifications) {
+            this.modifications = modifications;
+            List<Entry> any = new ArrayList<>();
+            Map<Integer, List<Entry>> grouped = new HashMap<>();
+            for (Entry entry : entries) {
+                if (entry.rule == CouponRule.NONE) {
+                    continue;
+                }
+                Integer product = entry.rule.triggerProduct();
+                if (product == null) {
+                    any.add(entry);
+                } else {
+                    grouped.computeIfAbsent(product, k -> new ArrayList<>()).add(entry);
+                }
+            }
+            this.anyCart = any.toArray(NONE);
+            this.byProduct = new HashMap<>(grouped.size() * 2);
+            grouped.forEach((product, list) -> byProduct.put(product, list.toArray(NONE)));
+        }
+    }
+}
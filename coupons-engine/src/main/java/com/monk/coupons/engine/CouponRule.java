@@ -0,0 +1,46 @@
+package com.monk.coupons.engine;
+
+/**
+ * A coupon's discount rule, read once from the coupon's details and then evaluated
+ * against any number of carts without parsing anything again.
+ * <p>
+ * Rules are immutable and safe to share between threads. Build them from raw details
+ * with {@link CouponRules#compile}, or directly with the rule records.
+ */
+public interface CouponRule {
+
+    /**
+     * Rule of a coupon whose details cannot be read; it never discounts.
+     */
+    CouponRule NONE = new NoDiscountRule();
+
+    /**
+     * The discount this rule gives the cart.
+     *
+     * @return the discount amount; 0 or less when the rule does not apply
+     */
+    double discount(CompactCart cart);
+
+    /**
+     * {@link #discount(CompactCart)}, also recording in {@code trace} why the rule gave the
+     * cart that discount. Both run the same code: rules implement the plain call by passing
+     * a null trace, and only touch the trace behind a null check, so the JIT removes the
+     * tracing from plain calls.
+     *
+     * @param trace receives the reason and the values behind it; null records nothing
+     * @return the same discount as {@link #discount(CompactCart)}
+     */
+    double discount(CompactCart cart, RuleTrace trace);
+
+    /**
+     * Cheap upper bound of {@link #discount}, used to evaluate the most valuable coupons
+     * first when evaluation is under a deadline.
+     */
+    double estimate(CartSummary cart);
+
+    /**
+     * Product whose presence in the cart is required for the rule to apply, or null when
+     * the rule can apply to any cart.
+     */
+    Integer triggerProduct();
+}
@@ -0,0 +1,94 @@
+package com.monk.coupons.engine;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a coupon's type and details into a {@link CouponRule}.
+ * <p>
+ * Details are the coupon's {@code details} object as a map, the way any JSON library
+ * reads it: snake_case keys, numbers (or numeric strings), and lists of maps for the
+ * BxGy product lists. Details missing a required field compile to {@link CouponRule#NONE}.
+ */
+public final class CouponRules {
+
+    private CouponRules() {
+    }
+
+    /**
+     * @throws IllegalArgumentException when the type is null or unknown
+     */
+    public static CouponRule compile(String type, Map<String, ?> details) {
+        if (type == null) {
+            throw new IllegalArgumentException("Coupon type cannot be null");
+        }
+        return switch (type.toLowerCase()) {
+            case "cart-wise" -> details == null ? CouponRule.NONE : cartWise(details);
+            case "product-wise" -> details == null ? CouponRule.NONE : productWise(details);
+            case "bxgy" -> details == null ? CouponRule.NONE : bxGy(details);
+            default -> throw new IllegalArgumentException("Unknown coupon type: " + type);
+        };
+    }
+
+    private static CouponRule cartWise(Map<String, ?> details) {
+        Double threshold = number(details.get("threshold"));
+        Double percent = number(details.get("discount"));
+        if (threshold == null || percent == null) {
+            return CouponRule.NONE;
+        }
+        return new CartWiseRule(threshold, percent);
+    }
+
+    private static CouponRule productWise(Map<String, ?> details) {
+        Integer productId = integer(details.get("product_id"));
+        Double percent = number(details.get("discount"));
+        if (productId == null || percent == null) {
+            return CouponRule.NONE;
+        }
+        return new ProductWiseRule(productId, percent);
+    }
+
+    // Only the first buy and get product take part, as documented for the API
+    private static CouponRule bxGy(Map<String, ?> details) {
+        Map<?, ?> buy = first(details.get("buy_products"));
+        Map<?, ?> get = first(details.get("get_products"));
+        if (buy == null || get == null) {
+            return CouponRule.NONE;
+        }
+        Integer buyProductId = integer(buy.get("product_id"));
+        Integer buyQuantity = integer(buy.get("quantity"));
+        Integer getProductId = integer(get.get("product_id"));
+        Integer getQuantity = integer(get.get("quantity"));
+        Integer repetitionLimit = integer(details.get("repetition_limit"));
+        if (buyProductId == null || buyQuantity == null || getProductId == null || getQuantity == null
+                || repetitionLimit == null) {
+            return CouponRule.NONE;
+        }
+        return new BxGyRule(buyProductId, buyQuantity, getProductId, getQuantity, repetitionLimit);
+    }
+
+    private static Map<?, ?> first(Object value) {
+        return value instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof Map<?, ?> map
+                ? map
+                : null;
+    }
+
+    private static Double number(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Integer integer(Object value) {
+        Double number = number(value);
+        return number == null ? null : number.intValue();
+    }
+}
@@ -0,0 +1,7 @@
+package com.monk.coupons.engine;
+
+/**
+ * A coupon that applies to a cart and the discount it gives.
+ */
+public record Discount(long couponId, String type, double amount) {
+}
@@ -0,0 +1,48 @@
+package com.monk.coupons.engine;
+
+/**
+ * Why a {@link CouponRule} gave a cart the discount it did, as recorded in a {@link RuleTrace}.
+ */
+public enum DiscountReason {
+
+    /**
+     * The rule applies and the discount is above 0.
+     */
+    APPLIED,
+
+    /**
+     * The cart has no lines.
+     */
+    EMPTY_CART,
+
+    /**
+     * The rule can never discount: its details could not be read, or a threshold,
+     * percentage or quantity is 0 or less.
+     */
+    INVALID_RULE,
+
+    /**
+     * The cart total is below the cart-wise threshold.
+     */
+    BELOW_THRESHOLD,
+
+    /**
+     * No line holds the product the rule discounts.
+     */
+    PRODUCT_NOT_IN_CART,
+
+    /**
+     * The cart holds fewer units of the buy product than one repetition needs.
+     */
+    BUY_QUANTITY_NOT_MET,
+
+    /**
+     * The cart earns free units, but no line holds the free product to price them.
+     */
+    FREE_PRODUCT_NOT_IN_CART,
+
+    /**
+     * The rule applies, but the discount comes to 0 or less, e.g. because the lines are free.
+     */
+    ZERO_DISCOUNT
+}
@@ -0,0 +1,29 @@
+package com.monk.coupons.engine;
+
+final class NoDiscountRule implements CouponRule {
+
+    @Override
+    public double discount(CompactCart cart) {
+        return 0;
+    }
+
+    @Override
+    public double discount(CompactCart cart, RuleTrace trace) {
+        return RuleTrace.none(trace, DiscountReason.INVALID_RULE);
+    }
+
+    @Override
+    public double estimate(CartSummary cart) {
+        return 0;
+    }
+
+    @Override
+    public Integer triggerProduct() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "NoDiscountRule";
+    }
+}
@@ -0,0 +1,47 @@
+package com.monk.coupons.engine;
+
+/**
+ * Percentage off every line of one product.
+ *
+ * @param productId the discounted product
+ * @param percent   discount in percent of the product's lines
+ */
+public record ProductWiseRule(int productId, double percent) implements CouponRule {
+
+    @Override
+    public double discount(CompactCart cart) {
+        return discount(cart, null);
+    }
+
+    @Override
+    public double discount(CompactCart cart, RuleTrace trace) {
+        double fraction = percent / 100.0;
+        double discount = 0;
+        int lines = 0;
+        for (int i = 0; i < cart.size(); i++) {
+            if (cart.productId(i) == productId) {
+                discount += cart.price(i) * cart.quantity(i) * fraction;
+                lines++;
+            }
+        }
+        if (trace != null) {
+            trace.value("product_id", productId).value("product_lines", lines).value("percent", percent);
+            trace.reason(cart.isEmpty() ? DiscountReason.EMPTY_CART
+                    : lines == 0 ? DiscountReason.PRODUCT_NOT_IN_CART
+                    : percent <= 0 ? DiscountReason.INVALID_RULE
+                    : discount > 0 ? DiscountReason.APPLIED
+                    : DiscountReason.ZERO_DISCOUNT);
+        }
+        return discount;
+    }
+
+    @Override
+    public double estimate(CartSummary cart) {
+        return cart.value(productId) * percent / 100.0;
+    }
+
+    @Override
+    public Integer triggerProduct() {
+        return productId;
+    }
+}
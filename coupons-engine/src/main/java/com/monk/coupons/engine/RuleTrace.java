@@ -0,0 +1,64 @@
+package com.monk.coupons.engine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What one {@link CouponRule#discount(CompactCart, RuleTrace)} call decided: the reason,
+ * and the values the rule compared to reach it, in the order it read them.
+ * <p>
+ * A trace belongs to one evaluation and is not thread-safe.
+ */
+public final class RuleTrace {
+
+    private DiscountReason reason;
+    private final Map<String, Number> values = new LinkedHashMap<>();
+
+    /**
+     * The reason, or null before the trace was passed to a rule.
+     */
+    public DiscountReason reason() {
+        return reason;
+    }
+
+    /**
+     * Values the rule read, by snake_case name. Ids and counts are {@link Integer}s, amounts
+     * {@link Double}s.
+     */
+    public Map<String, Number> values() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    RuleTrace reason(DiscountReason reason) {
+        this.reason = reason;
+        return this;
+    }
+
+    RuleTrace value(String name, double value) {
+        values.put(name, value);
+        return this;
+    }
+
+    RuleTrace value(String name, int value) {
+        values.put(name, value);
+        return this;
+    }
+
+    /**
+     * Records {@code reason} when there is a trace, for rules returning early with no discount.
+     *
+     * @return 0
+     */
+    static double none(RuleTrace trace, DiscountReason reason) {
+        if (trace != null) {
+            trace.reason = reason;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return reason + " " + values;
+    }
+}
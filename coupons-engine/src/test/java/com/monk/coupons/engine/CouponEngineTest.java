@@ -0,0 +1,85 @@
+package com.monk.coupons.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.monk.coupons.engine.CouponRulesTest.cart;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponEngineTest {
+
+    private CouponEngine engine;
+
+    @BeforeEach
+    void setup() {
+        engine = new CouponEngine();
+    }
+
+    // ---------------------------------------------------
+    // EVALUATION
+    // ---------------------------------------------------
+    @Test
+    void testReturnsApplicableCouponsBestFirst() {
+        engine.put(1, "cart-wise", new CartWiseRule(100, 10));
+        engine.put(2, "product-wise", new ProductWiseRule(1, 50));
+        engine.put(3, "product-wise", new ProductWiseRule(9, 50));
+        engine.put(4, "bxgy", new BxGyRule(1, 2, 2, 1, 1));
+
+        List<Discount> discounts = engine.evaluate(cart(1, 2, 50, 2, 1, 40));
+
+        assertEquals(List.of(
+                new Discount(2, "product-wise", 50.0),
+                new Discount(4, "bxgy", 40.0),
+                new Discount(1, "cart-wise", 14.0)), discounts);
+    }
+
+    @Test
+    void testProductOnSeveralLinesCountsOnce() {
+        engine.put(1, "product-wise", new ProductWiseRule(1, 10));
+
+        List<Discount> discounts = engine.evaluate(cart(1, 1, 100, 1, 1, 100));
+
+        assertEquals(List.of(new Discount(1, "product-wise", 20.0)), discounts);
+
+        // Lines of the same product need not be next to each other
+        engine.put(2, "product-wise", new ProductWiseRule(2, 10));
+        discounts = engine.evaluate(cart(1, 1, 100, 2, 1, 50, 1, 1, 100));
+        assertEquals(List.of(new Discount(1, "product-wise", 20.0), new Discount(2, "product-wise", 5.0)), discounts);
+    }
+
+    @Test
+    void testRespectsValidityWindow() {
+        engine.put(1, "cart-wise", new CartWiseRule(1, 10), 1_000, 2_000);
+
+        assertTrue(engine.evaluate(cart(1, 1, 100), 999).isEmpty());
+        assertEquals(1, engine.evaluate(cart(1, 1, 100), 1_000).size());
+        assertTrue(engine.evaluate(cart(1, 1, 100), 2_000).isEmpty());
+    }
+
+    // ---------------------------------------------------
+    // UPDATES
+    // ---------------------------------------------------
+    @Test
+    void testUpdatesAreSeenByTheNextEvaluation() {
+        engine.put(1, "product-wise", new ProductWiseRule(1, 10));
+        assertEquals(1, engine.evaluate(cart(1, 1, 100)).size());
+
+        engine.put(1, "product-wise", new ProductWiseRule(2, 10));
+        assertTrue(engine.evaluate(cart(1, 1, 100)).isEmpty());
+
+        engine.put(2, "cart-wise", new CartWiseRule(1, 10));
+        engine.remove(1);
+        assertEquals(List.of(new Discount(2, "cart-wise", 10.0)), engine.evaluate(cart(2, 1, 100)));
+        assertEquals(1, engine.size());
+    }
+
+    @Test
+    void testSkipsRulesThatNeverDiscount() {
+        engine.put(1, "cart-wise", CouponRule.NONE);
+
+        assertTrue(engine.evaluate(cart(1, 1, 100)).isEmpty());
+        assertEquals(1, engine.size());
+    }
+}
@@ -0,0 +1,164 @@
+package com.monk.coupons.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponRulesTest {
+
+    // ---------------------------------------------------
+    // COMPILING DETAILS
+    // ---------------------------------------------------
+    @Test
+    void testCompilesEachType() {
+        assertEquals(new CartWiseRule(100, 10),
+                CouponRules.compile("cart-wise", Map.of("threshold", 100, "discount", 10)));
+        assertEquals(new ProductWiseRule(1, 20.5),
+                CouponRules.compile("Product-Wise", Map.of("product_id", 1, "discount", 20.5)));
+        assertEquals(new BxGyRule(1, 2, 5, 1, 3),
+                CouponRules.compile("bxgy", Map.of(
+                        "buy_products", List.of(Map.of("product_id", 1, "quantity", 2)),
+                        "get_products", List.of(Map.of("product_id", 5, "quantity", 1)),
+                        "repetition_limit", 3)));
+    }
+
+    @Test
+    void testAcceptsNumericStrings() {
+        assertEquals(new CartWiseRule(100, 10),
+                CouponRules.compile("cart-wise", Map.of("threshold", "100", "discount", " 10 ")));
+    }
+
+    @Test
+    void testIncompleteDetailsNeverDiscount() {
+        assertSame(CouponRule.NONE, CouponRules.compile("cart-wise", null));
+        assertSame(CouponRule.NONE, CouponRules.compile("cart-wise", Map.of("threshold", 100)));
+        assertSame(CouponRule.NONE, CouponRules.compile("product-wise", Map.of("product_id", "abc", "discount", 5)));
+        assertSame(CouponRule.NONE, CouponRules.compile("bxgy", Map.of(
+                "buy_products", List.of(),
+                "get_products", List.of(Map.of("product_id", 5, "quantity", 1)),
+                "repetition_limit", 3)));
+    }
+
+    @Test
+    void testRejectsUnknownType() {
+        assertThrows(IllegalArgumentException.class, () -> CouponRules.compile("free-shipping", Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> CouponRules.compile(null, Map.of()));
+    }
+
+    // ---------------------------------------------------
+    // RULE SEMANTICS
+    // ---------------------------------------------------
+    @Test
+    void testCartWiseNeedsThreshold() {
+        CartWiseRule rule = new CartWiseRule(100, 10);
+
+        assertEquals(15.0, rule.discount(cart(1, 2, 50, 2, 1, 50)));
+        assertEquals(0.0, rule.discount(cart(1, 1, 50)));
+        assertEquals(5.0, rule.estimate(CartSummary.of(cart(1, 1, 50))));
+        assertEquals(0.0, new CartWiseRule(0, 10).discount(cart(1, 2, 50)));
+    }
+
+    @Test
+    void testProductWiseSumsAllLinesOfTheProduct() {
+        ProductWiseRule rule = new ProductWiseRule(1, 20);
+
+        assertEquals(60.0, rule.discount(cart(1, 2, 100, 2, 1, 50, 1, 1, 100)));
+        assertEquals(0.0, rule.discount(cart(2, 1, 50)));
+        assertEquals(1, rule.triggerProduct());
+    }
+
+    @Test
+    void testBxGyHonoursRepetitionLimit() {
+        BxGyRule rule = new BxGyRule(1, 2, 5, 1, 2);
+        CompactCart cart = cart(1, 10, 50, 5, 10, 30);
+
+        assertEquals(2, rule.freeQuantity(cart));
+        assertEquals(60.0, rule.discount(cart));
+        assertEquals(0.0, rule.discount(cart(1, 10, 50)));
+        assertEquals(0.0, new BxGyRule(1, 0, 5, 1, 2).discount(cart));
+    }
+
+    // ---------------------------------------------------
+    // EXPLAINING DISCOUNTS
+    // ---------------------------------------------------
+    @Test
+    void testCartWiseTellsItsZeroesApart() {
+        CartWiseRule rule = new CartWiseRule(100, 10);
+
+        RuleTrace below = new RuleTrace();
+        assertEquals(0.0, rule.discount(cart(1, 1, 50), below));
+        assertEquals(DiscountReason.BELOW_THRESHOLD, below.reason());
+        assertEquals(Map.of("threshold", 100.0, "percent", 10.0, "cart_total", 50.0), below.values());
+
+        assertEquals(DiscountReason.EMPTY_CART, reason(rule, CompactCart.EMPTY));
+        assertEquals(DiscountReason.INVALID_RULE, reason(new CartWiseRule(0, 10), cart(1, 2, 50)));
+        assertEquals(DiscountReason.APPLIED, reason(rule, cart(1, 2, 50, 2, 1, 50)));
+    }
+
+    @Test
+    void testProductWiseExplainsMissingProduct() {
+        ProductWiseRule rule = new ProductWiseRule(1, 20);
+
+        RuleTrace applied = new RuleTrace();
+        assertEquals(60.0, rule.discount(cart(1, 2, 100, 2, 1, 50, 1, 1, 100), applied));
+        assertEquals(DiscountReason.APPLIED, applied.reason());
+        assertEquals(Map.of("product_id", 1, "product_lines", 2, "percent", 20.0), applied.values());
+
+        assertEquals(DiscountReason.PRODUCT_NOT_IN_CART, reason(rule, cart(2, 1, 50)));
+        assertEquals(DiscountReason.INVALID_RULE, reason(new ProductWiseRule(1, 0), cart(1, 1, 50)));
+        assertEquals(DiscountReason.ZERO_DISCOUNT, reason(rule, cart(1, 1, 0)));
+    }
+
+    @Test
+    void testBxGyExplainsEachCondition() {
+        BxGyRule rule = new BxGyRule(1, 2, 5, 1, 2);
+
+        RuleTrace notEnough = new RuleTrace();
+        assertEquals(0.0, rule.discount(cart(1, 1, 50, 5, 1, 30), notEnough));
+        assertEquals(DiscountReason.BUY_QUANTITY_NOT_MET, notEnough.reason());
+        assertEquals(1, notEnough.values().get("buy_product_quantity"));
+        assertEquals(2, notEnough.values().get("buy_quantity"));
+
+        assertEquals(DiscountReason.FREE_PRODUCT_NOT_IN_CART, reason(rule, cart(1, 10, 50)));
+        assertEquals(DiscountReason.INVALID_RULE, reason(new BxGyRule(1, 0, 5, 1, 2), cart(1, 10, 50)));
+        assertEquals(DiscountReason.INVALID_RULE, reason(new BxGyRule(1, 2, 5, 1, 0), cart(1, 10, 50)));
+        assertEquals(DiscountReason.APPLIED, reason(rule, cart(1, 10, 50, 5, 10, 30)));
+        assertEquals(DiscountReason.INVALID_RULE, reason(CouponRule.NONE, cart(1, 10, 50)));
+    }
+
+    @Test
+    void testTracedAndPlainDiscountsMatch() {
+        List<CouponRule> rules = List.of(new CartWiseRule(100, 10), new CartWiseRule(100, -5),
+                new ProductWiseRule(1, 20), new ProductWiseRule(1, -10),
+                new BxGyRule(1, 2, 5, 1, 2), new BxGyRule(1, 2, 5, -1, 2), CouponRule.NONE);
+        List<CompactCart> carts = List.of(CompactCart.EMPTY, cart(1, 1, 50), cart(1, 10, 50, 5, 10, 30),
+                cart(2, 3, 40, 1, 4, 25, 5, 1, 0));
+
+        for (CouponRule rule : rules) {
+            for (CompactCart cart : carts) {
+                RuleTrace trace = new RuleTrace();
+                assertEquals(rule.discount(cart), rule.discount(cart, trace), rule + " on " + cart);
+                assertNotNull(trace.reason(), rule + " on " + cart);
+                assertEquals(rule.discount(cart) > 0, trace.reason() == DiscountReason.APPLIED, rule + " on " + cart);
+            }
+        }
+    }
+
+    private static DiscountReason reason(CouponRule rule, CompactCart cart) {
+        RuleTrace trace = new RuleTrace();
+        rule.discount(cart, trace);
+        return trace.reason();
+    }
+
+    // productId, quantity, price triples
+    static CompactCart cart(double... lines) {
+        CompactCart.Builder builder = new CompactCart.Builder(lines.length / 3);
+        for (int i = 0; i < lines.length; i += 3) {
+            builder.add((int) lines[i], (int) lines[i + 1], lines[i + 2]);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.monk.coupons.evaluator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.engine.CouponEngine;
+import com.monk.coupons.engine.Discount;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * {@code POST /applicable-coupons}, answered from the mirrored catalog.
+ * <p>
+ * The body matches the API's: every coupon is checked, so {@code partial} is always false
+ * and {@code X-Deadline-Ms} is accepted but has nothing to cut short.
+ */
+class ApplicableCouponsHandler extends JsonHandler {
+
+    private final CouponEngine engine;
+    private final CartReader reader;
+
+    ApplicableCouponsHandler(JsonFactory factory, CouponEngine engine, CartReader reader) {
+        super(factory);
+        this.engine = engine;
+        this.reader = reader;
+    }
+
+    @Override
+    void respond(HttpExchange exchange) throws Exception {
+        CompactCart cart;
+        try (InputStream body = exchange.getRequestBody()) {
+            cart = reader.read(body);
+        }
+        List<Discount> discounts = engine.evaluate(cart);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64 + 64 * discounts.size());
+        try (JsonGenerator gen = factory.createGenerator(body, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("applicable_coupons");
+            for (Discount discount : discounts) {
+                gen.writeStartObject();
+                gen.writeNumberField("coupon_id", discount.couponId());
+                gen.writeStringField("type", discount.type());
+                gen.writeNumberField("discount", discount.amount());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeBooleanField("partial", false);
+            gen.writeEndObject();
+        }
+        send(exchange, 200, JSON, body.toByteArray());
+    }
+}
@@ -0,0 +1,88 @@
+package com.monk.coupons.evaluator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code POST /apply-coupon/{id}}, forwarded to the coupons API.
+ * <p>
+ * Applying redeems the coupon against its limits, idempotency keys and per-customer
+ * counts, which only the API holds; this node passes the request and the answer through
+ * unchanged.
+ */
+class ApplyCouponForwarder extends JsonHandler {
+
+    static final String PATH = "/apply-coupon/";
+
+    private static final List<String> FORWARDED_HEADERS = List.of("Idempotency-Key", "Accept");
+
+    private final URI upstream;
+    private final Duration timeout;
+
+    ApplyCouponForwarder(JsonFactory factory, URI upstream, Duration timeout) {
+        super(factory);
+        this.upstream = upstream;
+        this.timeout = timeout;
+    }
+
+    @Override
+    void respond(HttpExchange exchange) throws Exception {
+        String id = exchange.getRequestURI().getPath().substring(PATH.length());
+        if (id.isEmpty() || !id.chars().allMatch(Character::isDigit)) {
+            throw new RequestException(400, "Invalid Input", "Invalid ID format. Expected a numeric value.");
+        }
+        if (upstream == null) {
+            throw new RequestException(503, "Service Unavailable", "Applying coupons needs 'coupons.evaluator.upstream-url'.");
+        }
+
+        byte[] cart;
+        try (InputStream body = exchange.getRequestBody()) {
+            cart = body.readAllBytes();
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) upstream.resolve("apply-coupon/" + id).toURL().openConnection();
+        connection.setConnectTimeout((int) timeout.toMillis());
+        connection.setReadTimeout((int) timeout.toMillis());
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", JSON);
+        for (String header : FORWARDED_HEADERS) {
+            String value = exchange.getRequestHeaders().getFirst(header);
+            if (value != null) {
+                connection.setRequestProperty(header, value);
+            }
+        }
+
+        int status;
+        byte[] answer;
+        try {
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(cart);
+            }
+            status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                answer = body == null ? new byte[0] : body.readAllBytes();
+            }
+        } catch (SocketTimeoutException e) {
+            throw new RequestException(504, "Gateway Timeout", "The coupons API did not answer in time.");
+        } catch (IOException e) {
+            throw new RequestException(502, "Bad Gateway", "The coupons API could not be reached.");
+        }
+
+        String retryAfter = connection.getHeaderField("Retry-After");
+        if (retryAfter != null) {
+            exchange.getResponseHeaders().set("Retry-After", retryAfter);
+        }
+        String contentType = connection.getContentType();
+        send(exchange, status, contentType != null ? contentType : JSON, answer);
+    }
+}
@@ -0,0 +1,116 @@
+package com.monk.coupons.evaluator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.monk.coupons.engine.CompactCart;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the {@code cart} of a cart request body straight from the token stream into a
+ * {@link CompactCart}, like the API's {@code CompactCartDeserializer}, and rejects a cart
+ * over the item limit at the first line past it.
+ */
+class CartReader {
+
+    private final JsonFactory factory;
+    private final int maxItems;
+
+    CartReader(JsonFactory factory, int maxItems) {
+        this.factory = factory;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * @return the cart, or {@link CompactCart#EMPTY} when the body has no cart or items
+     * @throws RequestException 400 for a malformed body, 413 for an oversized cart
+     */
+    CompactCart read(InputStream body) throws IOException {
+        try (JsonParser p = factory.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw malformed();
+            }
+            CompactCart cart = CompactCart.EMPTY;
+            for (JsonToken token = p.nextToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if ("cart".equals(field) && value == JsonToken.START_OBJECT) {
+                    cart = readCart(p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return cart;
+        } catch (JsonProcessingException e) {
+            throw malformed();
+        }
+    }
+
+    private CompactCart readCart(JsonParser p) throws IOException {
+        CompactCart cart = CompactCart.EMPTY;
+        for (JsonToken token = p.nextToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+                cart = readItems(p);
+            } else if ("items".equals(field) && value != JsonToken.VALUE_NULL) {
+                throw malformed();
+            } else {
+                p.skipChildren();
+            }
+        }
+        return cart;
+    }
+
+    private CompactCart readItems(JsonParser p) throws IOException {
+        CompactCart.Builder lines = new CompactCart.Builder(16);
+        for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+            if (lines.size() == maxItems) {
+                throw new RequestException(413, "Cart Too Large", "Cart has more than " + maxItems + " items.");
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw malformed();
+            }
+            readItem(p, lines);
+        }
+        return lines.build();
+    }
+
+    private static void readItem(JsonParser p, CompactCart.Builder lines) throws IOException {
+        int productId = 0;
+        int quantity = 0;
+        double price = 0;
+        int seen = 0;
+
+        for (JsonToken token = p.nextToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "product_id" -> {
+                    productId = p.getValueAsInt();
+                    seen |= 1;
+                }
+                case "quantity" -> {
+                    quantity = p.getValueAsInt();
+                    seen |= 2;
+                }
+                case "price" -> {
+                    price = p.getValueAsDouble();
+                    seen |= 4;
+                }
+                default -> p.skipChildren();
+            }
+        }
+        if (seen != 7) {
+            throw malformed();
+        }
+        lines.add(productId, quantity, price);
+    }
+
+    private static RequestException malformed() {
+        return new RequestException(400, "Invalid JSON", "Malformed JSON request");
+    }
+}
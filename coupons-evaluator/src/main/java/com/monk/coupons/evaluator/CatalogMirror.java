@@ -0,0 +1,208 @@
+package com.monk.coupons.evaluator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.monk.coupons.engine.CouponEngine;
+import com.monk.coupons.engine.CouponRule;
+import com.monk.coupons.engine.CouponRules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps a {@link CouponEngine} in step with the coupons API catalog.
+ * <p>
+ * The catalog comes from a snapshot file (the body of {@code GET /coupons/changes?since=0})
+ * and/or from polling {@code GET /coupons/changes?since=<version>}. Coupons whose used
+ * redemptions or discount have reached their limit are left out. Amounts leased to API nodes
+ * and not used yet are not counted: a lease may be returned, and leaving a coupon out for it
+ * would hide one that can still be redeemed. Used totals are only as fresh as the coupon's
+ * last change, so the API's answer on apply is the one that counts.
+ * <p>
+ * Catalog versions are per API node, so the mirror keeps the node that issued its version
+ * and sends both back. When a delta comes from a node other than the one that issued the
+ * version (the API is behind a load balancer), the delta is discarded and the whole catalog
+ * reloaded; the API itself also answers a foreign version with a full resync.
+ * <p>
+ * Polls run on one thread; {@link #version()} may be read from any thread.
+ */
+public class CatalogMirror {
+
+    private static final System.Logger log = System.getLogger(CatalogMirror.class.getName());
+
+    private final CouponEngine engine;
+    private final JsonFactory factory;
+    private final URI upstream;
+    private final Duration timeout;
+
+    // Coupon IDs in the engine, to drop the ones missing from a full resync
+    private final Set<Long> known = new HashSet<>();
+    private volatile long version;
+    private volatile String node;
+
+    public CatalogMirror(CouponEngine engine, JsonFactory factory, URI upstream, Duration timeout) {
+        this.engine = engine;
+        this.factory = factory;
+        this.upstream = upstream;
+        this.timeout = timeout;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * API node that issued {@link #version()}, or null when not known.
+     */
+    public String node() {
+        return node;
+    }
+
+    /**
+     * Replaces the mirrored catalog with a saved {@code /coupons/changes} response.
+     */
+    public void loadSnapshot(Path snapshot) throws IOException {
+        try (InputStream in = Files.newInputStream(snapshot)) {
+            apply(read(in), true);
+        }
+    }
+
+    /**
+     * Fetches and applies the changes since the current version.
+     */
+    public void poll() throws IOException {
+        if (upstream == null) {
+            return;
+        }
+        Map<String, ?> changes = fetch(version, node);
+        boolean fullResync = Boolean.TRUE.equals(changes.get("full_resync"));
+        if (!fullResync && !Objects.equals(node, changes.get("node_id"))) {
+            log.log(System.Logger.Level.INFO, "Catalog delta came from node {0}, not {1}; reloading",
+                    changes.get("node_id"), node);
+            // Without a node the API always answers with the whole catalog
+            changes = fetch(0, null);
+            fullResync = true;
+        }
+        apply(changes, fullResync);
+    }
+
+    private Map<String, ?> fetch(long since, String fromNode) throws IOException {
+        String query = "coupons/changes?since=" + since
+                + (fromNode != null ? "&node=" + URLEncoder.encode(fromNode, StandardCharsets.UTF_8) : "");
+        URI uri = upstream.resolve(query);
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setConnectTimeout((int) timeout.toMillis());
+        connection.setReadTimeout((int) timeout.toMillis());
+        connection.setRequestProperty("Accept", "application/json");
+        if (connection.getResponseCode() != 200) {
+            connection.disconnect();
+            throw new IOException("GET " + uri + " returned " + connection.getResponseCode());
+        }
+        try (InputStream body = connection.getInputStream()) {
+            return read(body);
+        }
+    }
+
+    private Map<String, ?> read(InputStream in) throws IOException {
+        try (JsonParser p = factory.createParser(in)) {
+            p.nextToken();
+            if (JsonValues.read(p) instanceof Map<?, ?> changes) {
+                @SuppressWarnings("unchecked")
+                Map<String, ?> fields = (Map<String, ?>) changes;
+                return fields;
+            }
+            throw new IOException("Catalog changes must be a JSON object");
+        }
+    }
+
+    private void apply(Map<String, ?> changes, boolean fullResync) {
+        if (!(changes.get("version") instanceof Number newVersion)) {
+            throw new IllegalArgumentException("Catalog changes have no 'version'.");
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (Object coupon : list(changes.get("upserted"))) {
+            Map<?, ?> fields = (Map<?, ?>) coupon;
+            long id = ((Number) fields.get("id")).longValue();
+            seen.add(id);
+            put(id, fields);
+        }
+        for (Object id : list(changes.get("deleted"))) {
+            remove(((Number) id).longValue());
+        }
+        if (fullResync) {
+            for (Long id : Set.copyOf(known)) {
+                if (!seen.contains(id)) {
+                    remove(id);
+                }
+            }
+        }
+        node = changes.get("node_id") instanceof String issuer ? issuer : null;
+        version = newVersion.longValue();
+    }
+
+    private void put(long id, Map<?, ?> coupon) {
+        String type = (String) coupon.get("type");
+        CouponRule rule;
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, ?> details = (Map<String, ?>) coupon.get("details");
+            rule = CouponRules.compile(type, details);
+        } catch (IllegalArgumentException e) {
+            log.log(System.Logger.Level.WARNING, "Skipping coupon {0}: {1}", String.valueOf(id), e.getMessage());
+            remove(id);
+            return;
+        }
+        if (isExhausted(coupon)) {
+            remove(id);
+            return;
+        }
+        engine.put(id, type, rule, millis(coupon.get("starts_at"), Long.MIN_VALUE),
+                millis(coupon.get("ends_at"), Long.MAX_VALUE));
+        known.add(id);
+    }
+
+    private void remove(long id) {
+        engine.remove(id);
+        known.remove(id);
+    }
+
+    // redemption_count and discount_spent hold used amounts only; the *_leased fields are ignored
+    private static boolean isExhausted(Map<?, ?> coupon) {
+        return coupon.get("max_redemptions") instanceof Number max
+                && number(coupon.get("redemption_count")) >= max.doubleValue()
+                || coupon.get("discount_budget") instanceof Number budget
+                && number(coupon.get("discount_spent")) >= budget.doubleValue();
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number n ? n.doubleValue() : 0;
+    }
+
+    private static List<?> list(Object value) {
+        return value instanceof List<?> l ? l : List.of();
+    }
+
+    private static long millis(Object instant, long fallback) {
+        if (instant instanceof String text) {
+            return Instant.parse(text).toEpochMilli();
+        }
+        // Epoch seconds with a fraction, when the API writes dates as timestamps
+        return instant instanceof Number seconds
+                ? new BigDecimal(seconds.toString()).movePointRight(3).longValue() : fallback;
+    }
+}
@@ -0,0 +1,125 @@
+package com.monk.coupons.evaluator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.monk.coupons.engine.CouponEngine;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluation-only node: serves {@code POST /applicable-coupons} from an in-memory copy
+ * of the catalog and forwards {@code POST /apply-coupon/{id}} to the coupons API.
+ * <p>
+ * It runs on the JDK's HTTP server with no Spring context, database or OpenAPI, and talks
+ * to the API over {@link java.net.HttpURLConnection}, which unlike {@code HttpClient} sets
+ * up no TLS for a plain-HTTP upstream. It starts in well under a second and needs little
+ * more heap than the catalog itself.
+ * The port opens only after the catalog has been loaded.
+ */
+public class EvaluatorApplication implements AutoCloseable {
+
+    private static final System.Logger log = System.getLogger(EvaluatorApplication.class.getName());
+
+    private final EvaluatorSettings settings;
+    private final CouponEngine engine = new CouponEngine();
+    private final CatalogMirror catalog;
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService sync;
+
+    public EvaluatorApplication(EvaluatorSettings settings) throws IOException {
+        this.settings = settings;
+
+        JsonFactory json = new JsonFactory();
+        this.catalog = new CatalogMirror(engine, json, settings.upstream(), settings.upstreamTimeout());
+
+        this.workers = Executors.newFixedThreadPool(settings.threads(), threads("evaluator-http-"));
+        this.sync = Executors.newSingleThreadScheduledExecutor(threads("evaluator-sync-"));
+
+        this.server = HttpServer.create(new InetSocketAddress(settings.port()), 0);
+        server.setExecutor(workers);
+        server.createContext("/applicable-coupons", new ApplicableCouponsHandler(json, engine,
+                new CartReader(json, settings.maxCartItems())));
+        server.createContext(ApplyCouponForwarder.PATH, new ApplyCouponForwarder(json,
+                settings.upstream(), settings.upstreamTimeout()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        EvaluatorApplication application = new EvaluatorApplication(EvaluatorSettings.from(args));
+        Runtime.getRuntime().addShutdownHook(new Thread(application::close, "evaluator-shutdown"));
+        application.start();
+
+        Duration startup = ProcessHandle.current().info().startInstant()
+                .map(started -> Duration.between(started, Instant.now()))
+                .orElse(Duration.ZERO);
+        log.log(System.Logger.Level.INFO, "Evaluator listening on port {0} with {1} coupons (catalog version {2}), started in {3} ms",
+                String.valueOf(application.port()), String.valueOf(application.engine.size()),
+                String.valueOf(application.catalog.version()), String.valueOf(startup.toMillis()));
+    }
+
+    /**
+     * Loads the catalog, starts polling for changes and opens the port.
+     *
+     * @throws IOException when no catalog could be loaded
+     */
+    public void start() throws IOException {
+        if (settings.snapshot() != null) {
+            catalog.loadSnapshot(settings.snapshot());
+        }
+        if (settings.upstream() != null) {
+            try {
+                catalog.poll();
+            } catch (IOException e) {
+                if (settings.snapshot() == null) {
+                    throw e;
+                }
+                log.log(System.Logger.Level.WARNING, "Serving the snapshot until the coupons API answers: {0}", e.getMessage());
+            }
+            long interval = settings.syncInterval().toMillis();
+            sync.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public CatalogMirror catalog() {
+        return catalog;
+    }
+
+    @Override
+    public void close() {
+        sync.shutdownNow();
+        server.stop(1);
+        workers.shutdown();
+    }
+
+    private void poll() {
+        try {
+            catalog.poll();
+        } catch (Exception e) {
+            // Keep serving the last catalog; the next poll asks for the same version again
+            log.log(System.Logger.Level.WARNING, "Catalog sync failed: {0}", e.toString());
+        }
+    }
+
+    private static ThreadFactory threads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
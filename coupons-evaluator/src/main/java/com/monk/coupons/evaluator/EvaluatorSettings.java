@@ -0,0 +1,91 @@
+package com.monk.coupons.evaluator;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Startup settings, read from {@code --name=value} arguments and then from system
+ * properties of the same name. Names follow the coupons API's property names where the
+ * setting means the same thing.
+ *
+ * @param port                 HTTP port ({@code server.port}); 0 picks a free port
+ * @param upstream             coupons API base URL ({@code coupons.evaluator.upstream-url}):
+ *                             catalog changes are polled from it and applies are forwarded to it
+ * @param snapshot             JSON file saved from {@code GET /coupons/changes?since=0}
+ *                             ({@code coupons.evaluator.snapshot}), loaded before the first poll
+ * @param syncInterval         delay between change polls ({@code coupons.evaluator.sync-interval})
+ * @param upstreamTimeout      timeout for each call to the API ({@code coupons.evaluator.upstream-timeout})
+ * @param maxCartItems         request carts with more lines are rejected with 413
+ *                             ({@code coupons.evaluation.max-cart-items})
+ * @param threads              request worker threads ({@code coupons.evaluator.threads})
+ */
+public record EvaluatorSettings(int port, URI upstream, Path snapshot, Duration syncInterval,
+                                Duration upstreamTimeout, int maxCartItems, int threads) {
+
+    public EvaluatorSettings {
+        if (upstream == null && snapshot == null) {
+            throw new IllegalArgumentException(
+                    "Set 'coupons.evaluator.upstream-url', 'coupons.evaluator.snapshot' or both.");
+        }
+        if (maxCartItems <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("'coupons.evaluation.max-cart-items' and 'coupons.evaluator.threads' must be positive.");
+        }
+    }
+
+    public static EvaluatorSettings from(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got '" + arg + "'.");
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        String upstream = value(values, "coupons.evaluator.upstream-url", null);
+        String snapshot = value(values, "coupons.evaluator.snapshot", null);
+        return new EvaluatorSettings(
+                Integer.parseInt(value(values, "server.port", "8080")),
+                upstream == null ? null : URI.create(upstream.endsWith("/") ? upstream : upstream + "/"),
+                snapshot == null ? null : Path.of(snapshot),
+                duration(value(values, "coupons.evaluator.sync-interval", "1s")),
+                duration(value(values, "coupons.evaluator.upstream-timeout", "2s")),
+                Integer.parseInt(value(values, "coupons.evaluation.max-cart-items", "500")),
+                Integer.parseInt(value(values, "coupons.evaluator.threads",
+                        String.valueOf(Math.max(4, 2 * Runtime.getRuntime().availableProcessors())))));
+    }
+
+    private static String value(Map<String, String> args, String name, String fallback) {
+        String value = args.get(name);
+        return value != null ? value : System.getProperty(name, fallback);
+    }
+
+    /**
+     * Parses the simple duration forms Spring accepts ({@code 500ms}, {@code 1s}, {@code 5m},
+     * {@code 1h}, or a bare number of milliseconds) and ISO-8601 ({@code PT1S}).
+     */
+    static Duration duration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.startsWith("p")) {
+            return Duration.parse(v.toUpperCase());
+        }
+        try {
+            if (v.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+            }
+            String number = v.substring(0, v.length() - 1);
+            return switch (v.charAt(v.length() - 1)) {
+                case 's' -> Duration.ofSeconds(Long.parseLong(number));
+                case 'm' -> Duration.ofMinutes(Long.parseLong(number));
+                case 'h' -> Duration.ofHours(Long.parseLong(number));
+                case 'd' -> Duration.ofDays(Long.parseLong(number));
+                default -> Duration.ofMillis(Long.parseLong(v));
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Unsupported duration '" + value + "'.", e);
+        }
+    }
+}
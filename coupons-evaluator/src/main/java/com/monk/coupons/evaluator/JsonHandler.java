@@ -0,0 +1,81 @@
+package com.monk.coupons.evaluator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Base for the evaluator's POST endpoints: checks method and content type, and turns
+ * failures into the coupons API's error body ({@code timestamp}, {@code error},
+ * {@code message}, {@code status}).
+ */
+abstract class JsonHandler implements HttpHandler {
+
+    static final String JSON = "application/json";
+
+    private static final System.Logger log = System.getLogger(JsonHandler.class.getName());
+
+    final JsonFactory factory;
+
+    JsonHandler(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Method Not Allowed", "Only POST is supported.");
+                return;
+            }
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (contentType == null || !contentType.toLowerCase().startsWith(JSON)) {
+                sendError(exchange, 415, "Unsupported Media Type", "Only application/json is supported.");
+                return;
+            }
+            respond(exchange);
+        } catch (RequestException e) {
+            sendError(exchange, e.status(), e.error(), e.getMessage());
+        } catch (Exception e) {
+            log.log(System.Logger.Level.ERROR, "Request to " + exchange.getRequestURI() + " failed", e);
+            sendError(exchange, 500, "Internal Server Error", "An unexpected error occurred. Please try again later.");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    abstract void respond(HttpExchange exchange) throws Exception;
+
+    static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String error, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            // Headers already went out; the client sees a truncated body
+            return;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+        try (JsonGenerator gen = factory.createGenerator(body, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeStringField("timestamp", LocalDateTime.now().toString());
+            gen.writeStringField("error", error);
+            gen.writeStringField("message", message);
+            gen.writeNumberField("status", status);
+            gen.writeEndObject();
+        }
+        send(exchange, status, JSON, body.toByteArray());
+    }
+}
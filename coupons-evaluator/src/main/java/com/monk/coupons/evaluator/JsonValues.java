@@ -0,0 +1,56 @@
+package com.monk.coupons.evaluator;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a JSON value into maps, lists, strings, numbers and booleans: the shape the
+ * engine's {@code CouponRules} takes coupon details in. Used for the catalog, which is
+ * read once at startup and then in small batches, so it skips data binding and the cost
+ * of setting it up.
+ */
+final class JsonValues {
+
+    private JsonValues() {
+    }
+
+    /**
+     * Reads the value at the parser's current token.
+     */
+    static Object read(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == null) {
+            throw new IOException("Empty JSON document");
+        }
+        return switch (token) {
+            case START_OBJECT -> {
+                Map<String, Object> object = new LinkedHashMap<>();
+                for (JsonToken t = p.nextToken(); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    object.put(field, read(p));
+                }
+                yield object;
+            }
+            case START_ARRAY -> {
+                List<Object> array = new ArrayList<>();
+                for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+                    array.add(read(p));
+                }
+                yield array;
+            }
+            case VALUE_STRING -> p.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> throw new IOException("Unexpected " + token + " in JSON document");
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.monk.coupons.evaluator;
+
+/**
+ * A request the evaluator rejects, with the status and error title the coupons API
+ * uses for the same problem.
+ */
+class RequestException extends RuntimeException {
+
+    private final int status;
+    private final String error;
+
+    RequestException(int status, String error, String message) {
+        super(message);
+        this.status = status;
+        this.error = error;
+    }
+
+    int status() {
+        return status;
+    }
+
+    String error() {
+        return error;
+    }
+}
@@ -0,0 +1,125 @@
+package com.monk.coupons.evaluator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.monk.coupons.engine.CompactCart;
+import com.monk.coupons.engine.CouponEngine;
+import com.monk.coupons.engine.Discount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogMirrorTest {
+
+    static final String CART_WISE = "{\"id\":1,\"type\":\"cart-wise\",\"details\":{\"threshold\":100,\"discount\":10}}";
+    static final String PRODUCT_WISE = "{\"id\":2,\"type\":\"product-wise\",\"details\":{\"product_id\":1,\"discount\":50}}";
+
+    @TempDir
+    Path dir;
+
+    private CouponEngine engine;
+    private CatalogMirror mirror;
+
+    @BeforeEach
+    void setup() {
+        engine = new CouponEngine();
+        mirror = new CatalogMirror(engine, new JsonFactory(), null, null);
+    }
+
+    // ---------------------------------------------------
+    // SNAPSHOT
+    // ---------------------------------------------------
+    @Test
+    void testLoadsSnapshotAndVersion() throws Exception {
+        load(changes(7, true, CART_WISE, PRODUCT_WISE));
+
+        assertEquals(7, mirror.version());
+        assertEquals("node-a", mirror.node());
+        assertEquals(List.of(2L, 1L), ids(engine.evaluate(cart())));
+    }
+
+    @Test
+    void testFullResyncDropsCouponsNoLongerListed() throws Exception {
+        load(changes(7, true, CART_WISE, PRODUCT_WISE));
+        load(changes(8, true, PRODUCT_WISE));
+
+        assertEquals(1, engine.size());
+        assertEquals(List.of(2L), ids(engine.evaluate(cart())));
+    }
+
+    @Test
+    void testUnknownTypeIsSkipped() throws Exception {
+        load(changes(7, true, CART_WISE, "{\"id\":3,\"type\":\"mystery\",\"details\":{}}"));
+
+        assertEquals(1, engine.size());
+    }
+
+    @Test
+    void testMissingVersionIsRejected() throws Exception {
+        Path file = Files.writeString(dir.resolve("catalog.json"), "{\"upserted\":[]}");
+
+        assertThrows(IllegalArgumentException.class, () -> mirror.loadSnapshot(file));
+    }
+
+    // ---------------------------------------------------
+    // LIMITS AND VALIDITY
+    // ---------------------------------------------------
+    @Test
+    void testExhaustedCouponsAreLeftOut() throws Exception {
+        load(changes(7, true,
+                "{\"id\":1,\"type\":\"cart-wise\",\"details\":{\"threshold\":100,\"discount\":10},"
+                        + "\"max_redemptions\":5,\"redemption_count\":5}",
+                "{\"id\":2,\"type\":\"product-wise\",\"details\":{\"product_id\":1,\"discount\":50},"
+                        + "\"discount_budget\":100.0,\"discount_spent\":40.0}"));
+
+        assertEquals(List.of(2L), ids(engine.evaluate(cart())));
+    }
+
+    @Test
+    void testLeasedAmountsDoNotExhaustCoupons() throws Exception {
+        load(changes(7, true,
+                "{\"id\":1,\"type\":\"cart-wise\",\"details\":{\"threshold\":100,\"discount\":10},"
+                        + "\"max_redemptions\":5,\"redemption_count\":2,\"redemptions_leased\":3}",
+                "{\"id\":2,\"type\":\"product-wise\",\"details\":{\"product_id\":1,\"discount\":50},"
+                        + "\"discount_budget\":100.0,\"discount_spent\":40.0,\"discount_leased\":60.0}"));
+
+        assertEquals(List.of(1L, 2L), ids(engine.evaluate(cart())).stream().sorted().toList());
+    }
+
+    @Test
+    void testValidityWindowIsKept() throws Exception {
+        load(changes(7, true,
+                "{\"id\":1,\"type\":\"cart-wise\",\"details\":{\"threshold\":100,\"discount\":10},"
+                        + "\"starts_at\":\"2030-01-01T00:00:00Z\"}"));
+
+        assertTrue(engine.evaluate(cart()).isEmpty());
+        assertEquals(1, engine.evaluate(cart(), Instant.parse("2030-01-02T00:00:00Z").toEpochMilli()).size());
+    }
+
+    private void load(String json) throws Exception {
+        mirror.loadSnapshot(Files.writeString(dir.resolve("catalog.json"), json));
+    }
+
+    static String changes(long version, boolean fullResync, String... coupons) {
+        return changes(version, "node-a", fullResync, coupons);
+    }
+
+    static String changes(long version, String node, boolean fullResync, String... coupons) {
+        return "{\"version\":" + version + ",\"node_id\":\"" + node + "\",\"full_resync\":" + fullResync
+                + ",\"upserted\":[" + String.join(",", coupons) + "],\"deleted\":[]}";
+    }
+
+    private static CompactCart cart() {
+        return new CompactCart.Builder(2).add(1, 2, 50).add(2, 1, 40).build();
+    }
+
+    private static List<Long> ids(List<Discount> discounts) {
+        return discounts.stream().map(Discount::couponId).toList();
+    }
+}
@@ -0,0 +1,205 @@
+package com.monk.coupons.evaluator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.monk.coupons.evaluator.CatalogMirrorTest.CART_WISE;
+import static com.monk.coupons.evaluator.CatalogMirrorTest.PRODUCT_WISE;
+import static com.monk.coupons.evaluator.CatalogMirrorTest.changes;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluatorApplicationTest {
+
+    static final String CART = "{\"cart\":{\"items\":["
+            + "{\"product_id\":1,\"quantity\":2,\"price\":50},"
+            + "{\"product_id\":2,\"quantity\":1,\"price\":40}]}}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Deque<String> changeResponses = new ConcurrentLinkedDeque<>();
+    private final Queue<String> forwarded = new ConcurrentLinkedQueue<>();
+    // Answer to requests without a node, when set
+    private volatile String resync;
+
+    private HttpServer upstream;
+    private EvaluatorApplication evaluator;
+
+    @BeforeEach
+    void setup() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/coupons/changes", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            forwarded.add(query);
+            reply(exchange, 200, resync != null && !query.contains("node=") ? resync : changeResponses.peekLast());
+        });
+        upstream.createContext("/apply-coupon/", exchange -> {
+            forwarded.add(exchange.getRequestURI().getPath() + " "
+                    + exchange.getRequestHeaders().getFirst("Idempotency-Key") + " "
+                    + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            if (exchange.getRequestURI().getPath().endsWith("/9")) {
+                reply(exchange, 409, "{\"error\":\"Redemption Limit Reached\",\"status\":409}");
+            } else {
+                reply(exchange, 200, "{\"updated_cart\":{\"final_price\":90.0}}");
+            }
+        });
+        upstream.start();
+
+        changeResponses.add(changes(7, true, CART_WISE, PRODUCT_WISE));
+        evaluator = new EvaluatorApplication(new EvaluatorSettings(0,
+                URI.create("http://localhost:" + upstream.getAddress().getPort() + "/"), null,
+                Duration.ofHours(1), Duration.ofSeconds(2), 3, 2));
+        evaluator.start();
+    }
+
+    @AfterEach
+    void teardown() {
+        evaluator.close();
+        upstream.stop(0);
+    }
+
+    // ---------------------------------------------------
+    // APPLICABLE COUPONS
+    // ---------------------------------------------------
+    @Test
+    void testApplicableCouponsFromMirroredCatalog() throws Exception {
+        HttpResponse<String> response = post("/applicable-coupons", CART, null);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"applicable_coupons\":["
+                + "{\"coupon_id\":2,\"type\":\"product-wise\",\"discount\":50.0},"
+                + "{\"coupon_id\":1,\"type\":\"cart-wise\",\"discount\":14.0}],"
+                + "\"partial\":false}", response.body());
+    }
+
+    @Test
+    void testCatalogChangesArePickedUp() throws Exception {
+        changeResponses.add("{\"version\":8,\"node_id\":\"node-a\",\"full_resync\":false,"
+                + "\"upserted\":[],\"deleted\":[2]}");
+        evaluator.catalog().poll();
+
+        HttpResponse<String> response = post("/applicable-coupons", CART, null);
+
+        assertTrue(forwarded.contains("since=7&node=node-a"));
+        assertEquals(8, evaluator.catalog().version());
+        assertFalse(response.body().contains("\"coupon_id\":2"));
+    }
+
+    @Test
+    void testDeltaFromAnotherNodeReloadsCatalog() throws Exception {
+        // The load balancer sent the poll to node-b, which answered a delta against its own versions
+        changeResponses.add("{\"version\":3,\"node_id\":\"node-b\",\"full_resync\":false,"
+                + "\"upserted\":[],\"deleted\":[]}");
+        resync = changes(5, "node-b", true, CART_WISE);
+        evaluator.catalog().poll();
+
+        HttpResponse<String> response = post("/applicable-coupons", CART, null);
+
+        assertTrue(forwarded.contains("since=0"));
+        assertEquals(5, evaluator.catalog().version());
+        assertEquals("node-b", evaluator.catalog().node());
+        assertFalse(response.body().contains("\"coupon_id\":2"));
+    }
+
+    @Test
+    void testEmptyCartHasNoCoupons() throws Exception {
+        HttpResponse<String> response = post("/applicable-coupons", "{\"cart\":{}}", null);
+
+        assertEquals("{\"applicable_coupons\":[],\"partial\":false}", response.body());
+    }
+
+    @Test
+    void testOversizedCartIsRejected() throws Exception {
+        String items = "{\"product_id\":1,\"quantity\":1,\"price\":1}";
+        String cart = "{\"cart\":{\"items\":[" + String.join(",", items, items, items, items) + "]}}";
+
+        HttpResponse<String> response = post("/applicable-coupons", cart, null);
+
+        assertEquals(413, response.statusCode());
+        assertTrue(response.body().contains("\"message\":\"Cart has more than 3 items.\""));
+    }
+
+    @Test
+    void testMalformedCartIsRejected() throws Exception {
+        HttpResponse<String> response = post("/applicable-coupons", "{\"cart\":{\"items\":[{\"product_id\":1}]}}", null);
+
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("\"error\":\"Invalid JSON\""));
+    }
+
+    @Test
+    void testOnlyJsonIsAccepted() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/applicable-coupons"))
+                .header("Content-Type", "application/cbor")
+                .POST(HttpRequest.BodyPublishers.ofString(CART))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(415, response.statusCode());
+    }
+
+    // ---------------------------------------------------
+    // APPLY
+    // ---------------------------------------------------
+    @Test
+    void testApplyIsForwardedWithIdempotencyKey() throws Exception {
+        HttpResponse<String> response = post("/apply-coupon/2", CART, "key-1");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"updated_cart\":{\"final_price\":90.0}}", response.body());
+        assertTrue(forwarded.contains("/apply-coupon/2 key-1 " + CART));
+    }
+
+    @Test
+    void testApplyErrorsPassThrough() throws Exception {
+        HttpResponse<String> response = post("/apply-coupon/9", CART, null);
+
+        assertEquals(409, response.statusCode());
+        assertTrue(response.body().contains("Redemption Limit Reached"));
+    }
+
+    @Test
+    void testApplyRejectsNonNumericId() throws Exception {
+        HttpResponse<String> response = post("/apply-coupon/abc", CART, null);
+
+        assertEquals(400, response.statusCode());
+        assertTrue(forwarded.stream().noneMatch(request -> request.startsWith("/apply-coupon/")));
+    }
+
+    private HttpResponse<String> post(String path, String body, String idempotencyKey) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (idempotencyKey != null) {
+            request.header("Idempotency-Key", idempotencyKey);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + evaluator.port() + path);
+    }
+
+    private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+#
+# Cold-start benchmark for the coupons API.
+#
+# Starts the fast-start build (mvn -Pfast-start package) several times in three modes:
+#   plain    - the same jar with neither AOT initializers nor the CDS archive
+#   aot      - -Dspring.aot.enabled=true
+#   aot+cds  - AOT plus -XX:SharedArchiveFile=target/app.jsa
+# and reports, from process launch:
+#   ready       - /actuator/health/readiness first answers UP (catalog preloaded)
+#   first-eval  - the first POST /applicable-coupons has returned 200
+#
+# Usage: scripts/startup-benchmark.sh [runs]     (default 5; PORT=8080, JAVA=java)
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+JAVA=${JAVA:-java}
+TARGET="$(cd "$(dirname "$0")/../coupons-api/target" && pwd)"
+JAR="$TARGET/monk-coupons-api-1.0.0.jar"
+ARCHIVE="$TARGET/app.jsa"
+CART='{"cart":{"items":[{"product_id":1,"quantity":2,"price":50.0},{"product_id":2,"quantity":1,"price":40.0}]}}'
+
+if [[ ! -f "$ARCHIVE" || ! -d "$TARGET/lib" ]]; then
+    echo "Build first: mvn -B -Pfast-start package" >&2
+    exit 1
+fi
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Prints "<ready ms> <first-eval ms>" for one start of the given JVM flags
+run_once() {
+    local log started ready evaluated pid
+    log=$(mktemp)
+    started=$(now_ms)
+    "$JAVA" "$@" -jar "$JAR" --server.port="$PORT" --spring.jpa.show-sql=false >"$log" 2>&1 &
+    pid=$!
+
+    until curl -sf "http://localhost:$PORT/actuator/health/readiness" 2>/dev/null | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited during startup:" >&2
+            tail -20 "$log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    ready=$(now_ms)
+
+    curl -sf -o /dev/null -X POST "http://localhost:$PORT/applicable-coupons" \
+        -H 'Content-Type: application/json' -d "$CART"
+    evaluated=$(now_ms)
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+    echo "$(( ready - started )) $(( evaluated - started ))"
+}
+
+# Mean and min of a column of numbers
+summarize() {
+    awk '{ s += $1; if (min == "" || $1 < min) min = $1 } END { printf "%8.0f %8.0f", s / NR, min }'
+}
+
+benchmark() {
+    local mode=$1
+    shift
+    local results=()
+    for ((i = 1; i <= RUNS; i++)); do
+        results+=("$(run_once "$@")")
+    done
+    printf "%-10s %s   %s\n" "$mode" \
+        "$(printf '%s\n' "${results[@]}" | awk '{print $1}' | summarize)" \
+        "$(printf '%s\n' "${results[@]}" | awk '{print $2}' | summarize)"
+}
+
+echo "$RUNS runs per mode, milliseconds from launch"
+printf "%-10s %8s %8s   %8s %8s\n" "mode" "ready" "(min)" "1st-eval" "(min)"
+benchmark plain -Xshare:auto
+benchmark aot -Dspring.aot.enabled=true
+benchmark aot+cds -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true
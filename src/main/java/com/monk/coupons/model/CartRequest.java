@@ -1,8 +0,0 @@
-package com.monk.coupons.model;
-
-import lombok.Data;
-
-@Data
-public class CartRequest {
-    private Cart cart;
-}
@@ -1,7 +0,0 @@
-package com.monk.coupons.repository;
-
-import com.monk.coupons.model.Coupon;
-import org.springframework.data.jpa.repository.JpaRepository;
-
-public interface CouponRepository extends JpaRepository<Coupon, Long> {
-}
\ No newline at end of file